@@ -0,0 +1,58 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.ProjectilePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one tick of bullet movement through {@link ProjectilePool#advance(double)}
+ * <p>
+ * The tick length is tiny so the bullets never run out of timeToLive during a run, moving a bullet costs the same whatever the tick length is
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulletAdvanceBenchmark {
+
+    /**
+     * Number of living bullets moved each tick
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int bulletCount;
+
+    /**
+     * The bullets being moved
+     */
+    private ProjectilePool bullets;
+
+    @Setup
+    public void setup() {
+        bullets = new ProjectilePool(bulletCount);
+
+        Random rand = new Random(42);
+        for (int i = 0; i < bulletCount; i++) {
+            bullets.spawn(0, -10, 0, rand.nextDouble() * 2 - 1, rand.nextDouble() * 2 - 1, rand.nextDouble() * 2 - 1);
+        }
+    }
+
+    @Benchmark
+    public ProjectilePool advance() {
+        bullets.advance(1e-9);
+        return bullets;
+    }
+}
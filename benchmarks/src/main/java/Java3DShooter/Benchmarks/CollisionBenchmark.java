@@ -0,0 +1,106 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.Collision;
+import Java3DShooter.Simulation.SpatialHashGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the AABB kernel in {@link Collision} and the {@link SpatialHashGrid} broad-phase the World puts in front of it
+ * <p>
+ * Run with the GC profiler (-prof gc) to check gc.alloc.rate.norm, every benchmark here should report 0 B/op
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    /**
+     * Number of boxes in the packed array tested against
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int boxCount;
+
+    /**
+     * Packed boxes laid out the way {@link Collision#pack} writes them
+     */
+    private double[] boxes;
+
+    /**
+     * Hit indices written by {@link Collision#allColliding}
+     */
+    private int[] hits;
+
+    /**
+     * Broad-phase over the boxes, built from their centers like the World's enemy grid
+     */
+    private SpatialHashGrid grid;
+
+    /**
+     * Center of the box being tested against everything else
+     */
+    private double x, y, z;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(42);
+        boxes = new double[boxCount * Collision.STRIDE];
+        hits = new int[boxCount];
+
+        for (int i = 0; i < boxCount; i++) {
+            Collision.pack(boxes, i, rand.nextDouble() * 3000 - 1500, -10, rand.nextDouble() * 3000 - 1500, 5, 10, 5);
+        }
+
+        grid = new SpatialHashGrid(new double[][]{{-1500, 1500}, {0, 10}, {-1500, 1500}}, 20);
+        gridBuild();
+
+        x = 0;
+        y = -10;
+        z = 0;
+    }
+
+    @Benchmark
+    public boolean singlePair() {
+        return Collision.isColliding(x, y, z, 1.5, 1.5, 1.5, boxes[0], boxes[1], boxes[2], boxes[3], boxes[4], boxes[5]);
+    }
+
+    @Benchmark
+    public int firstColliding() {
+        return Collision.firstColliding(x, y, z, 1.5, 1.5, 1.5, boxes, boxCount);
+    }
+
+    @Benchmark
+    public int allColliding() {
+        return Collision.allColliding(x, y, z, 200, 200, 200, boxes, boxCount, hits);
+    }
+
+    @Benchmark
+    public SpatialHashGrid gridBuild() {
+        grid.clear();
+        for (int i = 0, o = 0; i < boxCount; i++, o += Collision.STRIDE) {
+            grid.insert(i, boxes[o], boxes[o + 2]);
+        }
+        grid.build();
+        return grid;
+    }
+
+    @Benchmark
+    public int gridQuery() {
+        return grid.query(x - 15, z - 15, x + 15, z + 15);
+    }
+}
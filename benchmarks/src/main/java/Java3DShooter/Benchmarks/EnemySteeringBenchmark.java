@@ -0,0 +1,112 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.EnemyPool;
+import Java3DShooter.Simulation.SpawnScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one tick of enemy steering through {@link EnemyPool#move(double, double, double)}, serially and split across the ForkJoinPool
+ * <p>
+ * The serial runs (parallelThreshold = Integer.MAX_VALUE) are the baseline, at 100k+ enemies the parallel runs should take roughly
+ * 1 / parallelism as long. Every parameter combination runs in its own fork, so the common pool is sized to the parallelism parameter before
+ * anything uses it. Pass -p parallelism=... to try other thread counts
+ * <p>
+ * With separation on every enemy also looks up its neighbours in a grid, which should stay a roughly constant cost per enemy as the horde grows
+ * <p>
+ * The horde is spawned again before every iteration, and the player swaps between two points far off either side of it on every call, so the
+ * enemies shuffle back and forth in place instead of closing in on one spot. Every iteration steers the same spread-out crowd
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemySteeringBenchmark {
+
+    /**
+     * Number of living enemies steered each tick
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int enemyCount;
+
+    /**
+     * Fewest enemies steered in parallel, Integer.MAX_VALUE keeps every run serial
+     */
+    @Param({"2147483647", "16384"})
+    public int parallelThreshold;
+
+    /**
+     * Radius enemies keep from each other, 0 turns separation off
+     */
+    @Param({"0", "15"})
+    public double separationRadius;
+
+    /**
+     * Number of threads in the common ForkJoinPool, only matters to the parallel runs
+     */
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    /**
+     * How far off to each side of the horde the player stands
+     */
+    private static final double PLAYERDISTANCE = 1e6;
+
+    /**
+     * Bounding box of the ground, the same as the game's
+     */
+    private static final double[][] GROUND = {{-1500, 1500}, {0, 10}, {-1500, 1500}};
+
+    /**
+     * The enemies being steered
+     */
+    private EnemyPool enemies;
+
+    /**
+     * Which side of the horde the player is on next call
+     */
+    private boolean flip = false;
+
+    @Setup(Level.Trial)
+    public void pinParallelism() {
+        // Only takes effect if nothing in this fork has used the common pool yet, so check it did rather than measure the wrong thing
+        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", Integer.toString(parallelism));
+        if (ForkJoinPool.getCommonPoolParallelism() != parallelism) {
+            throw new IllegalStateException("Common pool already has parallelism " + ForkJoinPool.getCommonPoolParallelism());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void spawn() {
+        enemies = new EnemyPool(GROUND, enemyCount);
+        enemies.setParallelThreshold(parallelThreshold);
+        enemies.setSeparation(separationRadius, EnemyPool.DEFAULTMAXNEIGHBOURS);
+
+        // Same seed every iteration so every iteration starts from the same crowd
+        Random rand = new Random(42);
+        new SpawnScheduler(GROUND, 20).spawn(enemies, enemyCount, 0, 0, rand);
+    }
+
+    @Benchmark
+    public EnemyPool move() {
+        flip = !flip;
+        enemies.move(flip ? PLAYERDISTANCE : -PLAYERDISTANCE, 0, 1 / 60.0);
+        return enemies;
+    }
+}
@@ -0,0 +1,99 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.EnemyPool;
+import Java3DShooter.Simulation.FlowField;
+import Java3DShooter.Simulation.SpawnScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pathing enemies around the flag through a {@link FlowField}
+ * <p>
+ * rebuild is what a tick costs when the player moves into another cell, it only depends on the size of the ground and never on the number of enemies
+ * or obstacles.
+ * move is every other tick, each enemy does one lookup into the field so it should cost about the same as steering straight at the player
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowFieldBenchmark {
+
+    /**
+     * Number of living enemies pathing towards the player
+     */
+    @Param({"100", "100000"})
+    public int enemyCount;
+
+    /**
+     * Number of crates scattered over the ground besides the flag
+     */
+    @Param({"0", "1000"})
+    public int crateCount;
+
+    /**
+     * Bounding box of the ground, the same as the game's
+     */
+    private static final double[][] GROUND = {{-1500, 1500}, {0, 10}, {-1500, 1500}};
+
+    /**
+     * Field with the flag's footprint and the crates as obstacles
+     */
+    private FlowField field;
+
+    /**
+     * The enemies being moved
+     */
+    private EnemyPool enemies;
+
+    /**
+     * Which side of the flag the player is on in the next rebuild, flipped every time so every rebuild has to do the work
+     */
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+        field = new FlowField(GROUND, 20);
+        field.addObstacle(-55, -55, 55, 55);
+
+        Random crates = new Random(7);
+        for (int i = 0; i < crateCount; i++) {
+            double x = crates.nextInt(2800) - 1400, z = crates.nextInt(2800) - 1400;
+            field.addObstacle(x, z, x + 20, z + 20);
+        }
+        field.update(0, -200);
+
+        enemies = new EnemyPool(GROUND, enemyCount);
+        enemies.setParallelThreshold(Integer.MAX_VALUE);
+
+        Random rand = new Random(42);
+        new SpawnScheduler(GROUND, 20).spawn(enemies, enemyCount, 0, -200, rand);
+    }
+
+    @Benchmark
+    public FlowField rebuild() {
+        flip = !flip;
+        field.update(flip ? 30 : -30, -200);
+        return field;
+    }
+
+    @Benchmark
+    public EnemyPool move() {
+        enemies.move(field, 0, -200, 1 / 60.0);
+        return enemies;
+    }
+}
@@ -0,0 +1,108 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Level.Level;
+import Java3DShooter.Level.LevelConverter;
+import Java3DShooter.Simulation.PlayerState;
+import Java3DShooter.Simulation.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a {@link Level} full of static props at startup
+ * <p>
+ * load is only mapping the file and checking it, which is all {@link Level#load} does. read also goes through every box the way the game does when
+ * it builds the scenery, so it's the cost of actually getting every prop out of the file. Both should stay in the low milliseconds at 100k props.
+ * worldSetup goes on to add every prop to a {@link World} as an obstacle the way the game does before the first tick, which should grow with the
+ * number of props and not with its square
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+
+    /**
+     * Number of static props in the level
+     */
+    @Param({"1000", "100000"})
+    public int propCount;
+
+    /**
+     * Level file written for the benchmark, deleted afterwards
+     */
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("material grass #008000\n");
+        text.append("material rock #808080\n");
+        text.append("ground -1500 1500 0 10 -1500 1500 grass\n");
+        text.append("light ambient #FFFFFF\n");
+
+        Random rand = new Random(42);
+        for (int i = 0; i < propCount; i++) {
+            text.append("box ").append(rand.nextInt(3000) - 1500).append(" -3 ").append(rand.nextInt(3000) - 1500).append(" 6 6 6 rock obstacle\n");
+        }
+
+        file = Files.createTempFile("props", ".lvl");
+        LevelConverter.convert(new BufferedReader(new StringReader(text.toString())), file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Level load() throws IOException {
+        return Level.load(file);
+    }
+
+    @Benchmark
+    public double read() throws IOException {
+        Level level = Level.load(file);
+
+        double sum = 0;
+        for (int i = 0; i < level.getBoxCount(); i++) {
+            sum += level.getBoxX(i) + level.getBoxY(i) + level.getBoxZ(i) + level.getBoxWidth(i) + level.getBoxHeight(i) + level.getBoxDepth(i)
+                    + level.getBoxMaterial(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public World worldSetup() throws IOException {
+        Level level = Level.load(file);
+        World world = new World(level.getGroundBoundingBox(), new PlayerState(0, -10, -200), 60, 42);
+
+        for (int i = 0; i < level.getBoxCount(); i++) {
+            if (level.isObstacle(i)) {world.addObstacle(level.getBoxBoundingBox(i));}
+        }
+        for (int i = 0; i < level.getSpawnZoneCount(); i++) {
+            double[] zone = level.getSpawnZone(i);
+            world.addSpawnZone(zone[0], zone[1], zone[2], zone[3]);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,102 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.EnemyPool;
+import Java3DShooter.Simulation.ProjectilePool;
+import Java3DShooter.Simulation.SpawnScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures churn in the pools: every call kills a quarter of the entities, culls them, and spawns them back
+ * <p>
+ * Enemies are spawned back in one burst through a {@link SpawnScheduler}, the same way a wave spawns in game
+ * <p>
+ * Both pools recycle their slots so once set up these should report 0 B/op under the GC profiler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnDespawnBenchmark {
+
+    /**
+     * Number of living entities in each pool before and after every call
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int entityCount;
+
+    /**
+     * Enemies being killed and respawned
+     */
+    private EnemyPool enemies;
+
+    /**
+     * Bullets being killed and respawned
+     */
+    private ProjectilePool bullets;
+
+    /**
+     * Picks where enemies spawn
+     */
+    private SpawnScheduler spawner;
+
+    /**
+     * Picks spawn locations, shared across calls so enemies don't keep landing in the same spots
+     */
+    private final Random rand = new Random(42);
+
+    @Setup
+    public void setup() {
+        double[][] ground = {{-1500, 1500}, {0, 10}, {-1500, 1500}};
+        enemies = new EnemyPool(ground, entityCount);
+        bullets = new ProjectilePool(entityCount);
+        spawner = new SpawnScheduler(ground, 20);
+
+        spawner.spawn(enemies, entityCount, 0, 0, rand);
+        for (int i = 0; i < entityCount; i++) {
+            bullets.spawn(0, -10, 0, 0, 0, 1);
+        }
+    }
+
+    @Benchmark
+    public EnemyPool enemies() {
+        for (int i = 0; i < entityCount; i += 4) {
+            enemies.takeDamage(i, Integer.MAX_VALUE);
+        }
+
+        enemies.removeDead();
+
+        spawner.spawn(enemies, entityCount - enemies.size(), 0, 0, rand);
+
+        return enemies;
+    }
+
+    @Benchmark
+    public ProjectilePool bullets() {
+        for (int i = 0; i < entityCount; i += 4) {
+            bullets.kill(i);
+        }
+
+        bullets.advance(1e-9);  // Culls the killed bullets
+
+        while (bullets.size() < entityCount) {
+            bullets.spawn(0, -10, 0, 0, 0, 1);
+        }
+
+        return bullets;
+    }
+}
@@ -0,0 +1,150 @@
+package Java3DShooter.Benchmarks;
+
+import Java3DShooter.Simulation.InputAction;
+import Java3DShooter.Simulation.PlayerState;
+import Java3DShooter.Simulation.TickInput;
+import Java3DShooter.Simulation.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old trig-based steering and heading math with the trig-free versions now used by EnemyPool and PlayerState
+ * <p>
+ * The two steering benchmarks run the same loop over the same data, only the math inside differs. Each reads the enemies' positions and writes
+ * where they'd step to into separate arrays, so every call steers the same spread-out enemies rather than ones that have all closed in on the origin
+ * <p>
+ * The heading benchmarks run the real {@link PlayerState#move} for a tick, walking straight (the heading is cached) and walking while turning
+ * (the heading is worked out again every tick), next to what the old code did every tick whether the camera turned or not
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SteeringMathBenchmark {
+
+    /**
+     * Speed of an enemy in units per tick
+     */
+    private static final double STEP = 1;
+
+    /**
+     * Length of a tick in seconds
+     */
+    private static final double DT = 1 / 60.0;
+
+    /**
+     * Number of enemies steered per call
+     */
+    @Param({"1000", "100000"})
+    public int enemyCount;
+
+    /**
+     * Enemy positions, steered towards the origin
+     */
+    private double[] x, z;
+
+    /**
+     * Where each enemy steps to, written by every steering call
+     */
+    private double[] nextX, nextZ;
+
+    /**
+     * Camera angle in degrees for the old heading math
+     */
+    private double xTilt;
+
+    /**
+     * Player being moved by the heading benchmarks, made again every iteration so it doesn't wander further and further off
+     */
+    private PlayerState player;
+
+    /**
+     * Walking forward
+     */
+    private final TickInput walking = new TickInput();
+
+    /**
+     * Walking forward while turning right
+     */
+    private final TickInput turning = new TickInput();
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(42);
+        x = new double[enemyCount];
+        z = new double[enemyCount];
+        nextX = new double[enemyCount];
+        nextZ = new double[enemyCount];
+
+        for (int i = 0; i < enemyCount; i++) {
+            x[i] = rand.nextDouble() * 3000 - 1500;
+            z[i] = rand.nextDouble() * 3000 - 1500;
+        }
+
+        xTilt = 37;
+        walking.advance(InputAction.FORWARD.bit());
+        turning.advance(InputAction.FORWARD.bit() | InputAction.LOOKRIGHT.bit());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPlayer() {
+        player = new PlayerState(0, -10, -200);
+    }
+
+    @Benchmark
+    public double[] steerAtan2SinCos() {
+        for (int i = 0; i < enemyCount; i++) {
+            double angle = Math.atan2(x[i], z[i]);
+            nextX[i] = x[i] - STEP * Math.sin(angle);
+            nextZ[i] = z[i] - STEP * Math.cos(angle);
+        }
+
+        return nextX;
+    }
+
+    @Benchmark
+    public double[] steerNormalise() {
+        for (int i = 0; i < enemyCount; i++) {
+            double inverseLength = VectorMath.inverseLength(x[i], z[i]);
+            nextX[i] = x[i] - STEP * x[i] * inverseLength;
+            nextZ[i] = z[i] - STEP * z[i] * inverseLength;
+        }
+
+        return nextX;
+    }
+
+    @Benchmark
+    public double headingPerTick() {
+        // What PlayerState did every tick, including the double[] each motion vector allocated
+        double[] zMotionVector = {Math.cos(Math.toRadians(xTilt)), Math.sin(Math.toRadians(xTilt))};
+        double[] xMotionVector = {Math.cos(Math.toRadians(xTilt + 90)), Math.sin(Math.toRadians(xTilt + 90))};
+        return zMotionVector[0] + zMotionVector[1] + xMotionVector[0] + xMotionVector[1];
+    }
+
+    @Benchmark
+    public PlayerState playerWalking() {
+        player.move(walking, DT);
+        return player;
+    }
+
+    @Benchmark
+    public PlayerState playerTurning() {
+        player.move(turning, DT);
+        return player;
+    }
+}
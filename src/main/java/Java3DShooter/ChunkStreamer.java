@@ -0,0 +1,278 @@
+package Java3DShooter;
+
+import javafx.scene.Group;
+import javafx.scene.paint.Material;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Splits the arena into square {@link WorldChunk}s and only shows the ones within the view distance of the player
+ * <p>
+ * Every frame {@link #update(double, double)} is given the player's position. Whenever the player crosses into another chunk, chunks that are now
+ * too far away are taken out of the scene and chunks that came into range are put back in. Chunks that haven't been built yet are built on a
+ * background "chunk-loader" thread, nearest first, and added to the scene on a later frame once they're ready, so moving never stalls a frame
+ * <p>
+ * Chunks taken out of the scene are kept in an LRU cache so walking back and forth doesn't rebuild them. Once the cache is full the chunk that was
+ * in range longest ago is dropped. The scene never holds more chunks than fit within the view distance, and memory never holds more than the
+ * cache does, however big the arena is
+ * <p>
+ * Everything except building chunks happens on the JavaFX thread
+ */
+public class ChunkStreamer extends Group {
+
+    /**
+     * How many times more chunks the cache holds than can be in range at once
+     */
+    private static final int CACHEFACTOR = 2;
+
+    /**
+     * Minimum x coordinate of the arena
+     */
+    private final double minX;
+
+    /**
+     * Minimum z coordinate of the arena
+     */
+    private final double minZ;
+
+    /**
+     * Y coordinate of the top of the ground
+     */
+    private final double groundY;
+
+    /**
+     * Thickness of the ground
+     */
+    private final double groundHeight;
+
+    /**
+     * What the ground is drawn with
+     */
+    private final Material groundMaterial;
+
+    /**
+     * The level's props, built into each chunk along with its ground
+     */
+    private final StaticBatch scenery;
+
+    /**
+     * Width and depth of a chunk
+     */
+    private final double chunkSize;
+
+    /**
+     * Number of chunks along the x and z axes, chunks at the far edges are cut short by {@link #build} if the arena isn't a multiple of the chunk size
+     */
+    private final int columns, rows;
+
+    /**
+     * Width and depth of the whole arena
+     */
+    private final double arenaWidth, arenaDepth;
+
+    /**
+     * How many chunks out from the player's chunk are shown in every direction
+     */
+    private final int viewChunks;
+
+    /**
+     * Most chunks kept in memory, shown or not
+     */
+    private final int cacheCapacity;
+
+    /**
+     * Every built chunk in memory, least recently in range first. Dropping a chunk from here is all it takes to unload it
+     */
+    private final LinkedHashMap<Long, WorldChunk> cache;
+
+    /**
+     * Chunks handed to the loading thread that haven't come back yet
+     */
+    private final Set<Long> loading = new HashSet<>();
+
+    /**
+     * Chunks the loading thread has finished with, waiting to be picked up on the JavaFX thread
+     */
+    private final ConcurrentLinkedQueue<WorldChunk> loaded = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Builds chunks in the background
+     */
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "chunk-loader");
+        thread.setDaemon(true);  // Don't keep the application alive once the window is closed
+        return thread;
+    });
+
+    /**
+     * Column and row of the chunk the player is in, packed by {@link #key}. Read by the loading thread to skip chunks that went out of range
+     */
+    private volatile long center = Long.MIN_VALUE;
+
+    /**
+     * Creates a streamer with nothing loaded, the first {@link #update} loads the chunks around the player
+     * @param groundPlaneBoundingBox the bounding box of the whole arena's ground as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param groundMaterial what the ground is drawn with
+     * @param scenery the level's props, sorted into chunks of the same size
+     * @param chunkSize width and depth of a chunk
+     * @param viewDistance how far from the player chunks are shown, chunks partly within this are shown whole
+     */
+    public ChunkStreamer(double[][] groundPlaneBoundingBox, Material groundMaterial, StaticBatch scenery, double chunkSize,
+                         double viewDistance) {
+        this.minX = groundPlaneBoundingBox[0][0];
+        this.minZ = groundPlaneBoundingBox[2][0];
+        this.groundY = groundPlaneBoundingBox[1][0];
+        this.groundHeight = groundPlaneBoundingBox[1][1] - groundPlaneBoundingBox[1][0];
+        this.arenaWidth = groundPlaneBoundingBox[0][1] - minX;
+        this.arenaDepth = groundPlaneBoundingBox[2][1] - minZ;
+        this.groundMaterial = groundMaterial;
+        this.scenery = scenery;
+        this.chunkSize = chunkSize;
+        this.columns = Math.max(1, (int) Math.ceil(arenaWidth / chunkSize));
+        this.rows = Math.max(1, (int) Math.ceil(arenaDepth / chunkSize));
+        this.viewChunks = Math.max(0, (int) Math.ceil(viewDistance / chunkSize));
+
+        int inRange = (2 * viewChunks + 1) * (2 * viewChunks + 1);
+        this.cacheCapacity = inRange * CACHEFACTOR;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WorldChunk> eldest) {
+                // The eldest chunk is never one that's shown, every shown chunk is touched each time the player changes chunk
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Packs a chunk's column and row into one key
+     */
+    private static long key(int column, int row) { return ((long) column << 32) | (row & 0xFFFFFFFFL); }
+
+    /**
+     * Checks whether a chunk is within the view distance of a center chunk
+     */
+    private boolean inRange(int column, int row, long center) {
+        int centerColumn = (int) (center >> 32);
+        int centerRow = (int) center;
+        return Math.abs(column - centerColumn) <= viewChunks && Math.abs(row - centerRow) <= viewChunks;
+    }
+
+    /**
+     * Shows the chunks around the player and hides the ones too far away. Call this every frame on the JavaFX thread
+     * @param x x position of the player
+     * @param z z position of the player
+     */
+    public void update(double x, double z) {
+        // Off the edge of the arena counts as the nearest chunk on the edge
+        int column = Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / chunkSize)));
+        int row = Math.max(0, Math.min(rows - 1, (int) Math.floor((z - minZ) / chunkSize)));
+        long now = key(column, row);
+        boolean moved = now != center;
+        center = now;
+
+        // Chunks the loader finished since last frame, shown straight away if they're still in range
+        WorldChunk chunk;
+        while ((chunk = loaded.poll()) != null) {
+            long key = key(chunk.getColumn(), chunk.getRow());
+            if (!chunk.isBuilt()) {
+                // Went out of range before the loader got to it, but the player may have come back since
+                if (inRange(chunk.getColumn(), chunk.getRow(), now)) {
+                    load(chunk.getColumn(), chunk.getRow(), key);
+                } else {
+                    loading.remove(key);
+                }
+                continue;
+            }
+
+            loading.remove(key);
+            cache.put(key, chunk);
+            if (inRange(chunk.getColumn(), chunk.getRow(), now)) {getChildren().add(chunk);}
+        }
+
+        if (!moved) {return;}  // Same chunk as last frame, nothing comes into or goes out of range
+
+        getChildren().removeIf(node -> {
+            WorldChunk shown = (WorldChunk) node;
+            return !inRange(shown.getColumn(), shown.getRow(), now);
+        });
+
+        // Nearest chunks first, ring by ring, so the ground under the player is the first to load
+        for (int ring = 0; ring <= viewChunks; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = column - ring; c <= column + ring; c++) {
+                    boolean onRing = Math.abs(r - row) == ring || Math.abs(c - column) == ring;
+                    if (onRing && c >= 0 && c < columns && r >= 0 && r < rows) {show(c, r);}
+                }
+            }
+        }
+    }
+
+    /**
+     * Shows a chunk in range, building it in the background if it isn't in the cache
+     */
+    private void show(int column, int row) {
+        long key = key(column, row);
+        WorldChunk chunk = cache.get(key);  // Marks it as recently in range
+
+        if (chunk != null) {
+            if (chunk.getParent() == null) {getChildren().add(chunk);}
+        } else if (!loading.contains(key)) {
+            load(column, row, key);
+        }
+    }
+
+    /**
+     * Hands a chunk to the loading thread to build
+     */
+    private void load(int column, int row, long key) {
+        loading.add(key);
+        loader.execute(() -> build(column, row));
+    }
+
+    /**
+     * Builds a chunk on the loading thread and hands it back to the JavaFX thread
+     */
+    private void build(int column, int row) {
+        WorldChunk chunk = new WorldChunk(column, row);
+
+        // Skip chunks the player has already moved away from, they're handed back empty so they can be asked for again later
+        if (inRange(column, row, center)) {
+            double chunkMinX = minX + column * chunkSize;
+            double chunkMinZ = minZ + row * chunkSize;
+            double width = Math.min(chunkSize, arenaWidth - column * chunkSize);
+            double depth = Math.min(chunkSize, arenaDepth - row * chunkSize);
+            chunk.build(chunkMinX, chunkMinZ, width, depth, groundY, groundHeight, groundMaterial, scenery);
+        }
+
+        loaded.add(chunk);
+    }
+
+    /**
+     * Gets the number of chunks in the scene
+     * @return number of chunks
+     */
+    public int getShownCount() { return getChildren().size(); }
+
+    /**
+     * Gets the number of chunks in memory, shown or not
+     * @return number of chunks
+     */
+    public int getCachedCount() { return cache.size(); }
+
+    /**
+     * Gets the number of chunks being built in the background
+     * @return number of chunks
+     */
+    public int getLoadingCount() { return loading.size(); }
+
+    /**
+     * Stops the loading thread, chunks it was building are dropped
+     */
+    public void shutdown() { loader.shutdownNow(); }
+}
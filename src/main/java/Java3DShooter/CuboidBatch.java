@@ -0,0 +1,185 @@
+package Java3DShooter;
+
+import javafx.collections.ObservableFloatArray;
+import javafx.scene.paint.Material;
+import javafx.scene.shape.CullFace;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.shape.VertexFormat;
+
+import java.util.Arrays;
+
+/**
+ * Draws any number of same-sized boxes as a single node. Every box is 8 corners and 12 triangles in one shared TriangleMesh, so a thousand boxes
+ * cost the scene graph one node, one transform, and one material instead of a thousand of each
+ * <p>
+ * Each frame the position of every box is written with {@link #set(int, double, double, double)} and then handed to the mesh in one go with
+ * {@link #commit(int)}. The mesh's points are overwritten in place. The mesh always has triangles for every box there's room for, boxes that aren't
+ * in use have all 8 corners collapsed onto one point so their triangles have no area and draw nothing. That way boxes coming and going (like bullets
+ * being fired and hitting things) only changes points, and the triangles are only rebuilt when the room for boxes grows
+ * <p>
+ * Room for boxes grows by doubling, so after the busiest moment of a game nothing more is allocated
+ */
+public class CuboidBatch extends MeshView {
+
+    /**
+     * Number of corners in a box
+     */
+    static final int CORNERS = 8;
+
+    /**
+     * Number of floats making up the corners of one box in the points array
+     */
+    private static final int POINTSPERBOX = CORNERS * 3;
+
+    /**
+     * Corners of each of the 12 triangles in a box, numbered so bit 0 is +x, bit 1 is +y, and bit 2 is +z
+     */
+    static final int[] TRIANGLES = {
+            0, 2, 6,  0, 6, 4,  // -x
+            1, 5, 7,  1, 7, 3,  // +x
+            0, 4, 5,  0, 5, 1,  // -y
+            2, 3, 7,  2, 7, 6,  // +y
+            0, 1, 3,  0, 3, 2,  // -z
+            4, 6, 7,  4, 7, 5,  // +z
+    };
+
+    /**
+     * Normal of each side of a box in the order the sides appear in {@link #TRIANGLES}
+     */
+    static final float[] NORMALS = {-1, 0, 0,  1, 0, 0,  0, -1, 0,  0, 1, 0,  0, 0, -1,  0, 0, 1};
+
+    /**
+     * Number of ints making up the triangles of one box in the faces array, each triangle corner is a point, normal, and texcoord index
+     */
+    private static final int FACESPERBOX = TRIANGLES.length * 3;
+
+    /**
+     * Offset of each corner from the center of a box as {x, y, z} per corner
+     */
+    private final float[] cornerOffsets = new float[POINTSPERBOX];
+
+    /**
+     * Position of every corner of every box, written by {@link #set} and copied into the mesh by {@link #commit}
+     */
+    private float[] points = new float[0];
+
+    /**
+     * Triangles for every box there's room for
+     */
+    private int[] faces = new int[0];
+
+    /**
+     * Number of boxes there's room for
+     */
+    private int capacity = 0;
+
+    /**
+     * Number of boxes the mesh currently draws, every box past this is collapsed
+     */
+    private int committed = 0;
+
+    /**
+     * The mesh shared by every box
+     */
+    private final TriangleMesh mesh = new TriangleMesh(VertexFormat.POINT_NORMAL_TEXCOORD);
+
+    /**
+     * Creates an empty batch of boxes
+     * @param width width of every box
+     * @param height height of every box
+     * @param depth depth of every box
+     * @param material material every box is drawn with
+     */
+    public CuboidBatch(double width, double height, double depth, Material material) {
+        for (int corner = 0; corner < CORNERS; corner++) {
+            cornerOffsets[corner * 3] = (float) ((corner & 1) == 0 ? -width / 2 : width / 2);
+            cornerOffsets[corner * 3 + 1] = (float) ((corner & 2) == 0 ? -height / 2 : height / 2);
+            cornerOffsets[corner * 3 + 2] = (float) ((corner & 4) == 0 ? -depth / 2 : depth / 2);
+        }
+
+        // Every side is flat so the six normals never change, giving them up front stops JavaFX working them out again on every update
+        mesh.getNormals().setAll(NORMALS);
+        mesh.getTexCoords().setAll(0, 0);
+
+        setMesh(mesh);
+        setMaterial(material);
+        setCullFace(CullFace.NONE);  // Boxes are closed so drawing both sides looks the same, and it doesn't depend on which way JavaFX considers front
+    }
+
+    /**
+     * Gets the number of boxes there's room for without growing
+     * @return capacity
+     */
+    public int capacity() { return capacity; }
+
+    /**
+     * Gets the number of boxes the mesh is currently drawing
+     * @return number of boxes
+     */
+    public int size() { return committed; }
+
+    /**
+     * Makes room for at least count boxes, doubling the room each time it runs out
+     */
+    private void ensureCapacity(int count) {
+        if (count <= capacity) {return;}
+
+        int newCapacity = Math.max(count, Math.max(capacity * 2, 16));
+        points = Arrays.copyOf(points, newCapacity * POINTSPERBOX);
+        faces = Arrays.copyOf(faces, newCapacity * FACESPERBOX);
+
+        for (int box = capacity; box < newCapacity; box++) {
+            int f = box * FACESPERBOX;
+            for (int t = 0; t < TRIANGLES.length; t++) {
+                faces[f++] = box * CORNERS + TRIANGLES[t];  // Point
+                faces[f++] = t / 6;  // Normal, every 6 corners (2 triangles) is the next side
+                faces[f++] = 0;  // Texcoord
+            }
+        }
+
+        // New boxes start collapsed since their points are all 0
+        mesh.getPoints().resize(newCapacity * POINTSPERBOX);
+        mesh.getFaces().setAll(faces);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Moves a box. Nothing is drawn differently until {@link #commit(int)} is called
+     * @param i index of the box, grows the batch if there isn't room for it yet
+     * @param x x position of the box's center
+     * @param y y position of the box's center
+     * @param z z position of the box's center
+     */
+    public void set(int i, double x, double y, double z) {
+        ensureCapacity(i + 1);
+
+        int o = i * POINTSPERBOX;
+        for (int c = 0; c < POINTSPERBOX; c += 3) {
+            points[o + c] = (float) x + cornerOffsets[c];
+            points[o + c + 1] = (float) y + cornerOffsets[c + 1];
+            points[o + c + 2] = (float) z + cornerOffsets[c + 2];
+        }
+    }
+
+    /**
+     * Hands the positions of the first count boxes to the mesh, anything past them is collapsed so it's no longer drawn
+     * @param count number of boxes to draw, every one of them must have been {@link #set}
+     */
+    public void commit(int count) {
+        ensureCapacity(count);
+
+        // Boxes that were drawn last time but aren't anymore get collapsed, boxes past those were already collapsed earlier
+        int touched = Math.max(count, committed);
+        if (count < committed) {
+            Arrays.fill(points, count * POINTSPERBOX, committed * POINTSPERBOX, 0);
+        }
+
+        if (touched > 0) {
+            ObservableFloatArray meshPoints = mesh.getPoints();
+            meshPoints.set(0, points, 0, touched * POINTSPERBOX);
+        }
+
+        committed = count;
+    }
+}
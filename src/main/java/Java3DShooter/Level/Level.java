@@ -0,0 +1,328 @@
+package Java3DShooter.Level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A level loaded from the binary format written by {@link LevelConverter}: the ground, the materials, every static box, where enemies may spawn,
+ * and the lights
+ * <p>
+ * The file is memory mapped and nothing is copied out of it when it's loaded. Every getter reads its value straight out of the mapped file, so
+ * loading a level with a hundred thousand boxes costs opening the file, checking the header, and checking every record makes sense.
+ * Records are fixed size so any one of them can be found by its index without reading the ones before it
+ * <p>
+ * The file is little-endian and laid out as a header followed by every record of each kind in turn:
+ * <pre>
+ * header    magic "J3DL", version, material count, box count, spawn zone count, light count, ground material (7 ints)
+ *           ground bounding box as xMin xMax yMin yMax zMin zMax (6 floats)
+ * material  diffuse ARGB (int), specular ARGB (int, 0 for none), specular power (float)
+ * box       center x y z, width, height, depth (6 floats), material index (int), flags (int, see {@link #OBSTACLE})
+ * zone      xMin zMin xMax zMax (4 floats)
+ * light     type (int, {@link #AMBIENT} or {@link #POINT}), colour ARGB (int), x y z (3 floats)
+ * </pre>
+ * Colours are packed as 0xAARRGGBB so this package never needs JavaFX, the game turns them into Colors when it builds the scene
+ */
+public class Level {
+
+    /**
+     * First four bytes of every level file, "J3DL" when read as text
+     */
+    static final int MAGIC = 0x4C44334A;
+
+    /**
+     * Version of the format written by {@link LevelConverter}, files with any other version are rejected
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Size in bytes of the header
+     */
+    static final int HEADERBYTES = 7 * 4 + 6 * 4;
+
+    /**
+     * Size in bytes of a material record
+     */
+    static final int MATERIALBYTES = 12;
+
+    /**
+     * Size in bytes of a box record
+     */
+    static final int BOXBYTES = 32;
+
+    /**
+     * Size in bytes of a spawn zone record
+     */
+    static final int ZONEBYTES = 16;
+
+    /**
+     * Size in bytes of a light record
+     */
+    static final int LIGHTBYTES = 20;
+
+    /**
+     * Box flag marking a solid box that enemies have to path around and bullets stop at, boxes without it are scenery that enemies and bullets pass through
+     */
+    public static final int OBSTACLE = 1;
+
+    /**
+     * Light type of a light that lights everything evenly from no particular place
+     */
+    public static final int AMBIENT = 0;
+
+    /**
+     * Light type of a light shining out from a point
+     */
+    public static final int POINT = 1;
+
+    /**
+     * The whole file, read by index rather than position so it can be shared between threads
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Number of records of each kind
+     */
+    private final int materialCount, boxCount, zoneCount, lightCount;
+
+    /**
+     * Where the records of each kind start in {@link #data}
+     */
+    private final int materialStart, boxStart, zoneStart, lightStart;
+
+    /**
+     * Reads the header of a level and checks the file is the size it says it is
+     * @param data the whole level file
+     * @throws IOException if the data isn't a level this version can read
+     */
+    Level(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADERBYTES || data.getInt(0) != MAGIC) {throw new IOException("Not a level file");}
+        if (data.getInt(4) != VERSION) {throw new IOException("Unsupported level version " + data.getInt(4) + ", expected " + VERSION);}
+
+        materialCount = data.getInt(8);
+        boxCount = data.getInt(12);
+        zoneCount = data.getInt(16);
+        lightCount = data.getInt(20);
+        if (materialCount < 0 || boxCount < 0 || zoneCount < 0 || lightCount < 0) {throw new IOException("Corrupt level header");}
+
+        // Longs so a corrupt count can't overflow into a size that happens to match
+        long materialEnd = HEADERBYTES + (long) materialCount * MATERIALBYTES;
+        long boxEnd = materialEnd + (long) boxCount * BOXBYTES;
+        long zoneEnd = boxEnd + (long) zoneCount * ZONEBYTES;
+        long lightEnd = zoneEnd + (long) lightCount * LIGHTBYTES;
+        if (lightEnd != data.capacity()) {throw new IOException("Level is " + data.capacity() + " bytes but its header describes " + lightEnd);}
+
+        materialStart = HEADERBYTES;
+        boxStart = (int) materialEnd;
+        zoneStart = (int) boxEnd;
+        lightStart = (int) zoneEnd;
+
+        int groundMaterial = data.getInt(24);
+        if (groundMaterial < 0 || groundMaterial >= materialCount) {throw new IOException("Ground material " + groundMaterial + " doesn't exist");}
+        for (double[] axis : getGroundBoundingBox()) {
+            if (!(axis[0] <= axis[1])) {throw new IOException("The ground has its minimum past its maximum");}
+        }
+        for (int i = 0; i < boxCount; i++) {
+            int material = getBoxMaterial(i);
+            if (material < 0 || material >= materialCount) {throw new IOException("Box " + i + " uses material " + material + " which doesn't exist");}
+        }
+        for (int i = 0; i < zoneCount; i++) {
+            double[] zone = getSpawnZone(i);
+            if (!(zone[0] <= zone[2]) || !(zone[1] <= zone[3])) {throw new IOException("Spawn zone " + i + " has its minimum past its maximum");}
+        }
+        for (int i = 0; i < lightCount; i++) {
+            int type = getLightType(i);
+            if (type != AMBIENT && type != POINT) {throw new IOException("Light " + i + " has type " + type + " which doesn't exist");}
+        }
+    }
+
+    /**
+     * Memory maps a level file
+     * @param file file written by {@link LevelConverter}
+     * @return the level, backed by the mapped file
+     * @throws IOException if the file can't be read or isn't a level
+     */
+    public static Level load(Path file) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {throw new IOException(file + " is too big to be a level");}
+            return new Level(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new IOException("Couldn't load level " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the bounding box of the ground
+     * @return double[3][2] {{minX, maxX}, {minY, maxY}, {minZ, maxZ}}
+     */
+    public double[][] getGroundBoundingBox() {
+        return new double[][] {
+            {data.getFloat(28), data.getFloat(32)},
+            {data.getFloat(36), data.getFloat(40)},
+            {data.getFloat(44), data.getFloat(48)},
+        };
+    }
+
+    /**
+     * Gets the material the ground is drawn with
+     * @return index of the material
+     */
+    public int getGroundMaterial() { return data.getInt(24); }
+
+    /**
+     * Gets the number of materials
+     * @return number of materials
+     */
+    public int getMaterialCount() { return materialCount; }
+
+    /**
+     * Gets the colour of a material
+     * @param material index of the material
+     * @return colour as 0xAARRGGBB
+     */
+    public int getMaterialDiffuse(int material) { return data.getInt(materialStart + material * MATERIALBYTES); }
+
+    /**
+     * Gets the colour of a material's specular highlight
+     * @param material index of the material
+     * @return colour as 0xAARRGGBB, 0 if the material has no highlight
+     */
+    public int getMaterialSpecular(int material) { return data.getInt(materialStart + material * MATERIALBYTES + 4); }
+
+    /**
+     * Gets how tight a material's specular highlight is
+     * @param material index of the material
+     * @return specular power
+     */
+    public float getMaterialSpecularPower(int material) { return data.getFloat(materialStart + material * MATERIALBYTES + 8); }
+
+    /**
+     * Gets the number of static boxes
+     * @return number of boxes
+     */
+    public int getBoxCount() { return boxCount; }
+
+    /**
+     * Gets the x coordinate of a box's center
+     * @param box index of the box
+     * @return x coordinate
+     */
+    public float getBoxX(int box) { return data.getFloat(boxStart + box * BOXBYTES); }
+
+    /**
+     * Gets the y coordinate of a box's center
+     * @param box index of the box
+     * @return y coordinate
+     */
+    public float getBoxY(int box) { return data.getFloat(boxStart + box * BOXBYTES + 4); }
+
+    /**
+     * Gets the z coordinate of a box's center
+     * @param box index of the box
+     * @return z coordinate
+     */
+    public float getBoxZ(int box) { return data.getFloat(boxStart + box * BOXBYTES + 8); }
+
+    /**
+     * Gets the width of a box
+     * @param box index of the box
+     * @return width along x
+     */
+    public float getBoxWidth(int box) { return data.getFloat(boxStart + box * BOXBYTES + 12); }
+
+    /**
+     * Gets the height of a box
+     * @param box index of the box
+     * @return height along y
+     */
+    public float getBoxHeight(int box) { return data.getFloat(boxStart + box * BOXBYTES + 16); }
+
+    /**
+     * Gets the depth of a box
+     * @param box index of the box
+     * @return depth along z
+     */
+    public float getBoxDepth(int box) { return data.getFloat(boxStart + box * BOXBYTES + 20); }
+
+    /**
+     * Gets the material a box is drawn with
+     * @param box index of the box
+     * @return index of the material
+     */
+    public int getBoxMaterial(int box) { return data.getInt(boxStart + box * BOXBYTES + 24); }
+
+    /**
+     * Returns whether a box is solid, enemies have to path around it and bullets stop at it
+     * @param box index of the box
+     * @return isObstacle?
+     */
+    public boolean isObstacle(int box) { return (data.getInt(boxStart + box * BOXBYTES + 28) & OBSTACLE) != 0; }
+
+    /**
+     * Gets the bounding box of a box
+     * @param box index of the box
+     * @return double[3][2] {{minX, maxX}, {minY, maxY}, {minZ, maxZ}}
+     */
+    public double[][] getBoxBoundingBox(int box) {
+        double dx = getBoxWidth(box) * 0.5;
+        double dy = getBoxHeight(box) * 0.5;
+        double dz = getBoxDepth(box) * 0.5;
+
+        return new double[][] {
+            {getBoxX(box) - dx, getBoxX(box) + dx},
+            {getBoxY(box) - dy, getBoxY(box) + dy},
+            {getBoxZ(box) - dz, getBoxZ(box) + dz},
+        };
+    }
+
+    /**
+     * Gets the number of spawn zones, with none enemies can spawn anywhere on the ground
+     * @return number of spawn zones
+     */
+    public int getSpawnZoneCount() { return zoneCount; }
+
+    /**
+     * Gets the area of a spawn zone
+     * @param zone index of the spawn zone
+     * @return double[4] {minX, minZ, maxX, maxZ}
+     */
+    public double[] getSpawnZone(int zone) {
+        int at = zoneStart + zone * ZONEBYTES;
+        return new double[] {data.getFloat(at), data.getFloat(at + 4), data.getFloat(at + 8), data.getFloat(at + 12)};
+    }
+
+    /**
+     * Gets the number of lights
+     * @return number of lights
+     */
+    public int getLightCount() { return lightCount; }
+
+    /**
+     * Gets the type of a light
+     * @param light index of the light
+     * @return {@link #AMBIENT} or {@link #POINT}
+     */
+    public int getLightType(int light) { return data.getInt(lightStart + light * LIGHTBYTES); }
+
+    /**
+     * Gets the colour of a light
+     * @param light index of the light
+     * @return colour as 0xAARRGGBB
+     */
+    public int getLightColor(int light) { return data.getInt(lightStart + light * LIGHTBYTES + 4); }
+
+    /**
+     * Gets the position of a light, ambient lights have no position and are stored at the origin
+     * @param light index of the light
+     * @return double[3] {x, y, z}
+     */
+    public double[] getLightPosition(int light) {
+        int at = lightStart + light * LIGHTBYTES + 8;
+        return new double[] {data.getFloat(at), data.getFloat(at + 4), data.getFloat(at + 8)};
+    }
+}
@@ -0,0 +1,233 @@
+package Java3DShooter.Level;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a level written as text into the binary format {@link Level} loads
+ * <pre>
+ * java -cp build/classes/java/main Java3DShooter.Level.LevelConverter levels/default.txt levels/default.lvl
+ * </pre>
+ * The text has one thing per line, blank lines and lines starting with # are ignored:
+ * <pre>
+ * material flagblue #ADD8E6
+ * material shiny #FF0000 #FFFFFF 64
+ * ground -1500 1500 0 10 -1500 1500 grass
+ * box 0 -90 0 100 20 100 flagblue obstacle
+ * spawnzone -1500 -1500 1500 -1000
+ * light ambient #FFFFFF
+ * light point #FFFFFF 0 -500 0
+ * </pre>
+ * "material name diffuse [specular power]" names a colour, and optionally a specular highlight and how tight it is. Colours are #RRGGBB or #RRGGBBAA.
+ * Materials have to be named before anything uses them.
+ * "ground" is the bounding box of the ground as xMin xMax yMin yMax zMin zMax followed by the material it's drawn with, there has to be exactly one.
+ * "box x y z width height depth material [obstacle]" is a static box centered on x y z, "obstacle" makes it solid, enemies path around it and bullets stop at it.
+ * "spawnzone xMin zMin xMax zMax" limits enemies to spawning in this area and any other spawn zones, with none they spawn anywhere on the ground.
+ * "light ambient colour" and "light point colour x y z" are lights
+ */
+public class LevelConverter {
+
+    /**
+     * A material as it's written to the level
+     */
+    private record MaterialRecord(int diffuse, int specular, float specularPower) {}
+
+    /**
+     * A box as it's written to the level
+     */
+    private record BoxRecord(float x, float y, float z, float width, float height, float depth, int material, int flags) {}
+
+    /**
+     * A light as it's written to the level
+     */
+    private record LightRecord(int type, int color, float x, float y, float z) {}
+
+    /**
+     * Specular power used when a material doesn't give one, the same as a new PhongMaterial
+     */
+    private static final float DEFAULTSPECULARPOWER = 32;
+
+    /**
+     * Only static helpers, never instantiated
+     */
+    private LevelConverter() {}
+
+    /**
+     * Converts the level named by the first argument into the file named by the second
+     * @param args text level to read, binary level to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelConverter <level.txt> <level.lvl>");
+            System.exit(2);
+        }
+
+        try (BufferedReader in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            long start = System.nanoTime();
+            convert(in, Path.of(args[1]));
+            System.out.printf("Wrote %s in %.1f ms%n", args[1], (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Couldn't convert " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a level written as text and writes it out in the binary format, overwriting the file if it exists
+     * @param in the text level
+     * @param out file to write the binary level to
+     * @throws IOException if the text isn't a valid level or the file can't be written
+     */
+    public static void convert(BufferedReader in, Path out) throws IOException {
+        List<MaterialRecord> materials = new ArrayList<>();
+        Map<String, Integer> materialNames = new HashMap<>();
+        List<BoxRecord> boxes = new ArrayList<>();
+        List<float[]> zones = new ArrayList<>();
+        List<LightRecord> lights = new ArrayList<>();
+        float[] ground = null;
+        int groundMaterial = -1;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.trim().startsWith("#")) {continue;}
+            String[] parts = line.trim().split("\\s+");
+
+            try {
+                switch (parts[0]) {
+                    case "material":
+                        expect(parts, 3, 5);
+                        if (parts.length == 4) {throw new IOException("A specular colour needs a specular power");}
+                        if (materialNames.containsKey(parts[1])) {throw new IOException("Material " + parts[1] + " is named twice");}
+                        materialNames.put(parts[1], materials.size());
+                        materials.add(parts.length == 5
+                                ? new MaterialRecord(color(parts[2]), color(parts[3]), Float.parseFloat(parts[4]))
+                                : new MaterialRecord(color(parts[2]), 0, DEFAULTSPECULARPOWER));
+                        break;
+                    case "ground":
+                        expect(parts, 8, 8);
+                        if (ground != null) {throw new IOException("The ground is given twice");}
+                        ground = floats(parts, 1, 6);
+                        if (!(ground[0] <= ground[1]) || !(ground[2] <= ground[3]) || !(ground[4] <= ground[5])) {
+                            throw new IOException("The ground is xMin xMax yMin yMax zMin zMax");
+                        }
+                        groundMaterial = material(materialNames, parts[7]);
+                        break;
+                    case "box":
+                        expect(parts, 8, 9);
+                        if (parts.length == 9 && !parts[8].equals("obstacle")) {throw new IOException("Unknown box flag " + parts[8]);}
+                        float[] box = floats(parts, 1, 6);
+                        if (box[3] <= 0 || box[4] <= 0 || box[5] <= 0) {throw new IOException("Boxes need a positive size");}
+                        boxes.add(new BoxRecord(box[0], box[1], box[2], box[3], box[4], box[5], material(materialNames, parts[7]),
+                                parts.length == 9 ? Level.OBSTACLE : 0));
+                        break;
+                    case "spawnzone":
+                        expect(parts, 5, 5);
+                        float[] zone = floats(parts, 1, 4);
+                        if (!(zone[0] <= zone[2]) || !(zone[1] <= zone[3])) {throw new IOException("Spawn zones are xMin zMin xMax zMax");}
+                        zones.add(zone);
+                        break;
+                    case "light":
+                        if (parts.length >= 2 && parts[1].equals("ambient")) {
+                            expect(parts, 3, 3);
+                            lights.add(new LightRecord(Level.AMBIENT, color(parts[2]), 0, 0, 0));
+                        } else if (parts.length >= 2 && parts[1].equals("point")) {
+                            expect(parts, 6, 6);
+                            float[] position = floats(parts, 3, 3);
+                            lights.add(new LightRecord(Level.POINT, color(parts[2]), position[0], position[1], position[2]));
+                        } else {
+                            throw new IOException("Lights are 'ambient' or 'point'");
+                        }
+                        break;
+                    default:
+                        throw new IOException("Unknown line");
+                }
+            } catch (IOException | NumberFormatException e) {
+                throw new IOException("line " + lineNumber + ": " + e.getMessage() + ": " + line, e);
+            }
+        }
+
+        if (ground == null) {throw new IOException("The level has no ground");}
+
+        ByteBuffer data = ByteBuffer.allocate(Level.HEADERBYTES + materials.size() * Level.MATERIALBYTES + boxes.size() * Level.BOXBYTES
+                + zones.size() * Level.ZONEBYTES + lights.size() * Level.LIGHTBYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        data.putInt(Level.MAGIC).putInt(Level.VERSION);
+        data.putInt(materials.size()).putInt(boxes.size()).putInt(zones.size()).putInt(lights.size()).putInt(groundMaterial);
+        for (float value : ground) {
+            data.putFloat(value);
+        }
+
+        for (MaterialRecord material : materials) {
+            data.putInt(material.diffuse()).putInt(material.specular()).putFloat(material.specularPower());
+        }
+        for (BoxRecord box : boxes) {
+            data.putFloat(box.x()).putFloat(box.y()).putFloat(box.z());
+            data.putFloat(box.width()).putFloat(box.height()).putFloat(box.depth());
+            data.putInt(box.material()).putInt(box.flags());
+        }
+        for (float[] zone : zones) {
+            data.putFloat(zone[0]).putFloat(zone[1]).putFloat(zone[2]).putFloat(zone[3]);
+        }
+        for (LightRecord light : lights) {
+            data.putInt(light.type()).putInt(light.color()).putFloat(light.x()).putFloat(light.y()).putFloat(light.z());
+        }
+
+        data.flip();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * Checks a line has between min and max words, the first word included
+     */
+    private static void expect(String[] parts, int min, int max) throws IOException {
+        if (parts.length < min || parts.length > max) {throw new IOException("Wrong number of values");}
+    }
+
+    /**
+     * Reads count numbers from a line starting at word from
+     */
+    private static float[] floats(String[] parts, int from, int count) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Float.parseFloat(parts[from + i]);
+        }
+        return values;
+    }
+
+    /**
+     * Looks up a material by name
+     */
+    private static int material(Map<String, Integer> materialNames, String name) throws IOException {
+        Integer material = materialNames.get(name);
+        if (material == null) {throw new IOException("No material named " + name + " before this line");}
+        return material;
+    }
+
+    /**
+     * Reads a #RRGGBB or #RRGGBBAA colour into 0xAARRGGBB
+     */
+    private static int color(String color) throws IOException {
+        if (!color.startsWith("#") || (color.length() != 7 && color.length() != 9)) {throw new IOException("Colours are #RRGGBB or #RRGGBBAA: " + color);}
+
+        int rgb = Integer.parseUnsignedInt(color.substring(1, 7), 16);
+        int alpha = color.length() == 9 ? Integer.parseUnsignedInt(color.substring(7, 9), 16) : 0xFF;
+        return alpha << 24 | rgb;
+    }
+}
@@ -1,16 +1,29 @@
 package Java3DShooter;
 
+import Java3DShooter.Level.Level;
+import Java3DShooter.Level.LevelConverter;
 import Java3DShooter.Player.Player;
+import Java3DShooter.Simulation.EnemyPool;
+import Java3DShooter.Simulation.InputAction;
+import Java3DShooter.Simulation.InputState;
+import Java3DShooter.Simulation.InputRecording;
+import Java3DShooter.Simulation.PlayerState;
+import Java3DShooter.Simulation.SimulationThread;
+import Java3DShooter.Simulation.TickProfiler;
+import Java3DShooter.Simulation.WaveCurve;
+import Java3DShooter.Simulation.World;
+import Java3DShooter.Simulation.WorldSnapshot;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.*;
+import javafx.scene.input.KeyCode;
 import javafx.scene.paint.PhongMaterial;
 import javafx.stage.Stage;
-import javafx.scene.shape.Box;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class Main extends Application {
@@ -21,39 +34,73 @@ public class Main extends Application {
     private final Group root = new Group();
 
     /**
-     * A group for rending the different enemies
+     * A group for rending the different enemies. The i-th sprite mirrors the i-th enemy in the latest snapshot of the world
      */
-    private final Group enemyGroup = new Group();
+    private final SpriteGroup<Enemy> enemyGroup = new SpriteGroup<>(Enemy::new);
 
     /**
-     * Stores all the enemies
+     * 3D view of the world. Displays what is contained in the Group 'root' through the player's camera
      */
-    private ArrayList<Enemy> enemies = new ArrayList<>();
+    private final SubScene view = new SubScene(root, 1920, 1080, true, SceneAntialiasing.DISABLED);
 
     /**
-     * Spawn cooldown for enemies in frames
+     * Everything drawn in the window: the 3D view with 2D overlays such as the profiler on top of it
      */
-    private static int SPAWNCOOLDOWN = 60 * 5;
+    private final Group window = new Group(view);
 
     /**
-     * Time left in frames before next enemy spawns
+     * Draws every enemy as one mesh instead of a sprite each, used instead of {@link #enemyGroup} when started with --batchEnemies=true
      */
-    private int nextEnemy = SPAWNCOOLDOWN;
+    private final CuboidBatch enemyBatch = new CuboidBatch(EnemyPool.WIDTH, EnemyPool.HEIGHT, EnemyPool.DEPTH, Enemy.MATERIAL);
 
     /**
-     * Scene which is being displayed by the stage. Displays what is contained in the Group 'root'
+     * Every static box of the level sorted into the chunks they're drawn with, each chunk merges its boxes into one mesh per material
+     * <p>
+     * Created in {@link #start(Stage)} once the level is loaded
+     */
+    private StaticBatch scenery;
+
+    /**
+     * The ground and scenery of the arena, only the chunks within view distance of the player are in the scene
+     * <p>
+     * Created in {@link #start(Stage)} once the level and command line have said how big the arena is
+     */
+    private ChunkStreamer chunks;
+
+    /**
+     * Whether enemies are drawn through {@link #enemyBatch} rather than {@link #enemyGroup}
+     */
+    private boolean batchEnemies = false;
+
+    /**
+     * Whether enemies past the LOD distance are drawn through {@link #enemyBatch} while the ones close by stay sprites, set by --lodDistance=n
+     */
+    private boolean lodEnemies = false;
+
+    /**
+     * What the player's camera can see, worked out each frame so enemies and bullets out of view are never handed to the renderer
+     * <p>
+     * Created in {@link #start(Stage)} once the command line has said how far to draw
      */
-    private final Scene scene = new Scene(root, 1920, 1080, true);
+    private ViewFrustum frustum;
 
     /**
-     * HashMap that tracks what keys are currently held
+     * Scene which is being displayed by the stage. Displays what is contained in the Group 'window'
+     */
+    private final Scene scene = new Scene(window, 1920, 1080);
+
+    /**
+     * The action each key is bound to, indexed by the key's ordinal so looking up a key on every press and release is one array read.
+     * Keys that aren't bound to anything are null
+     */
+    private final InputAction[] keyBindings = new InputAction[KeyCode.values().length];
+
+    /**
+     * The actions currently held
      * <p>
-     * Through my testing this seems to be one of the fastest ways for adding and removing based on the value
-     * I tested arraylists, vectors, arrays, and hashmaps; hashmaps stood out as the best option
-     * So although we never wind up using the value of the hash key it still appears more effective for the purpose of input tracking
-     * For something like key handling we should strive to use the fastest possible method and hashMaps seem to stand out as such
+     * Written on the JavaFX thread but read on the simulation thread, it's a bitmask in an atomic so neither thread ever waits on the other
      */
-    private final Map<String, Boolean> keysHeld = new HashMap<>();
+    private final InputState input = new InputState();
 
     /**
      * Player object which controls the camera and will handle any player based events
@@ -61,86 +108,121 @@ public class Main extends Application {
     private final Player player = new Player();
 
     /**
-     * Width of the sun
+     * Runs the headless simulation of the game on its own thread. The game loop mirrors the snapshots it publishes into the scene graph
+     * <p>
+     * Created in {@link #start(Stage)} once the ground plane exists so the world knows where enemies can spawn
      */
-    private static final double SUNWIDTH = 40;
+    private SimulationThread simulation;
 
     /**
-     * Height of the sun
+     * Times each phase of every tick and frame, shared with the world so both threads record into it
      */
-    private static final double SUNHEIGHT = 40;
+    private TickProfiler profiler;
 
     /**
-     * Depth of the sun (z-length)
+     * On-screen table of the profiler's numbers, toggled with F3
      */
-    private static final double SUNDEPTH = 40;
+    private ProfilerOverlay overlay;
 
     /**
-     * Coordinates of the sun
+     * Records the session when started with --record=file, null otherwise. Saved to {@link #recordingFile} when the application closes
      */
-    private static final double[] SUNCOORDS = {3000, -1000, 3000};
+    private InputRecording recording;
 
     /**
-     * Width of the ground
+     * Where to save {@link #recording}
      */
-    private static final int GROUNDWIDTH = 3000;
+    private Path recordingFile;
 
     /**
-     * Height (thickness) of the ground plane
+     * Number of times per second the world is ticked unless told otherwise with --tickRate=n, independent of how often frames are drawn
      */
-    private static final int GROUNDHEIGHT = 10;
+    private static final double TICKRATE = 60;
 
     /**
-     * Depth (length of z axis) of the ground plane
+     * Most ticks the simulation runs in a row to catch up after a slow tick. Any time owed past this is dropped
      */
-    private static final int GROUNDDEPTH = GROUNDWIDTH;
+    private static final int MAXCATCHUPTICKS = 5;
 
     /**
-     * AnimationTimer that controls the game loop
+     * Radius of a sphere around an enemy's center that holds the whole enemy, used to tell whether any of it is in view
      */
-    private final AnimationTimer gameLoop = new AnimationTimer() {
-        private ArrayList<Enemy> deadEnemies = new ArrayList<>();
-
-        public void handle(long now) {
-            // Player logic
-            if (player.isDead()) {this.stop();}  // stops the gameLoop if the player is dead
-            player.move(keysHeld);  // Note: this also moves all bullets by one frame
+    private static final double ENEMYRADIUS = Math.sqrt(EnemyPool.WIDTH * EnemyPool.WIDTH + EnemyPool.HEIGHT * EnemyPool.HEIGHT + EnemyPool.DEPTH * EnemyPool.DEPTH) / 2;
 
+    /**
+     * Level loaded unless told otherwise with --level=file
+     */
+    private static final String DEFAULTLEVEL = "levels/default.lvl";
 
+    /**
+     * Width and depth of a chunk of the ground, chunks are loaded and unloaded whole as the player moves
+     */
+    private static final double CHUNKSIZE = 500;
 
+    /**
+     * How far from the player chunks of the ground are kept in the scene unless told otherwise with --viewDistance=n, and how far enemies and bullets
+     * are drawn unless --cullDistance=n says otherwise. Much less than the camera's far clip, which would keep every chunk of the default arena shown
+     * and leave nothing to stream
+     */
+    private static final double VIEWDISTANCE = 1000;
 
-            // Enemy logic
-            for (Enemy currentEnemy : enemies) {
-                if (currentEnemy.isDead()) {
-                    deadEnemies.add(currentEnemy);  // Do it this way so we don't skip over enemies during our iteration
-                    continue;
-                }
+    /**
+     * AnimationTimer that controls the game loop
+     * <p>
+     * The world ticks at a fixed rate on the simulation thread no matter how often this pulses. Each frame this picks up the newest snapshot of the world
+     * and draws everything part of the way to the next tick based on how long ago the snapshot was taken
+     */
+    private final AnimationTimer gameLoop = new AnimationTimer() {
+        /**
+         * Timestamp of the last frame, or -1 before the first frame
+         */
+        private long lastFrame = -1;
 
-                currentEnemy.move(player.getX(), player.getZ());
-            }
+        public void handle(long now) {
+            if (lastFrame >= 0) {profiler.record(TickProfiler.Phase.FRAME, now - lastFrame);}
+            lastFrame = now;
 
-            // Get rid of all dead enemies
-            enemies.removeAll(deadEnemies);
-            deadEnemies.clear();
+            WorldSnapshot snapshot = simulation.pollSnapshot();
+            if (snapshot.getTick() < 0) {return;}  // The world hasn't ticked yet so there's nothing to draw
 
+            // Mirror the world into the scene graph
+            long syncStart = System.nanoTime();
+            double alpha = snapshot.getAlpha(now, simulation.getTickNanos());
+            frustum.update(snapshot.getPlayerX(alpha), snapshot.getPlayerY(alpha), snapshot.getPlayerZ(alpha),
+                    snapshot.getXTilt(alpha), snapshot.getYTilt(alpha), view.getWidth() / view.getHeight());
+            player.sync(snapshot, alpha, frustum);
+            syncEnemies(snapshot, alpha);
+            profiler.record(TickProfiler.Phase.SCENESYNC, System.nanoTime() - syncStart);
+            profiler.setVisibility(frustum.getTested(), frustum.getCulled(), frustum.getDistant());
 
-            // Spawns an enemy if it's cooldown is up and then adds it to the children of the enemyGroup
-            if (nextEnemy <= 0) {
-                enemies.add(new Enemy(player.getHitbox()));
-                nextEnemy = SPAWNCOOLDOWN;  // Reset the cooldown
-            }
+            chunks.update(snapshot.getPlayerX(alpha), snapshot.getPlayerZ(alpha));
+            profiler.setChunks(chunks.getShownCount(), chunks.getCachedCount(), chunks.getLoadingCount());
 
+            profiler.setRenderAllocatedBytes(TickProfiler.currentThreadAllocatedBytes());
+            profiler.setMaterialCount(Materials.count());
+            overlay.update(now);
 
-            enemyGroup.getChildren().setAll(enemies);  // Refresh the enemy group in case there was a dead enemy or new enemy spawned
-            nextEnemy--; // Reduce the cooldown by 1 frame
+            if (player.isDead()) {this.stop();}  // stops the gameLoop if the player is dead
         }
     };
 
     /**
      * Driver code for the program
-     * @param args NULL
+     * <p>
+     * Optional arguments:
+     * --seed=n sets the seed for enemy spawns so a session can be played out again,
+     * --tickRate=n ticks the world n times per second instead of 60, bullets are checked along their whole path so hits still land at low rates,
+     * --record=file records every key held on every tick to a file which can be replayed with {@link Java3DShooter.Simulation.HeadlessReplay},
+     * --overlay=true shows the profiler overlay from the start (F3 toggles it at any time),
+     * --batchEnemies=true draws every enemy as part of a single mesh rather than as a node each, which holds up far better with large hordes,
+     * --cullDistance=n stops drawing enemies and bullets further away than n (the view distance by default),
+     * --lodDistance=n draws enemies further away than n as part of a single mesh while the ones closer stay a node each,
+     * --arenaSize=n makes the ground n wide and deep instead of 3000,
+     * --viewDistance=n only keeps chunks of the ground within n of the player in the scene (1000 by default),
+     * --level=file loads the ground, scenery, spawn zones, and lights from a level made by {@link LevelConverter} instead of levels/default.lvl
+     * @param args command line arguments
      */
-    public static void main(String[] args) { launch(); }
+    public static void main(String[] args) { launch(args); }
 
     /**
      * Sets the translation of a node
@@ -156,153 +238,255 @@ public class Main extends Application {
     }
 
     /**
-     * Creates a trans flag centered on a certain point
-     * @param width width of the flag
-     * @param height height of the flag
-     * @param depth depth of the flag
-     * @param x x position to center it on
-     * @param y y position to center it on
-     * @param z z position to center it on
-     * @return an array of Boxes that make up the flag
-     */
-    private Box[] makeTransFlag(int width, int height, int depth, int x, int y, int z) {
-        final PhongMaterial pinkBanner = new PhongMaterial();
-        final PhongMaterial blueBanner = new PhongMaterial();
-        final PhongMaterial whiteBanner = new PhongMaterial();
-
-        pinkBanner.setDiffuseColor(Color.LIGHTPINK);
-        blueBanner.setDiffuseColor(Color.LIGHTBLUE);
-        whiteBanner.setDiffuseColor(Color.WHITE);
-
-        Box[] boxes = new Box[] {
-                new Box(width, height, depth),
-                new Box(width, height, depth),
-                new Box(width, height, depth),
-                new Box(width, height, depth),
-                new Box(width, height, depth),
-        };
-
-        boxes[0].setMaterial(blueBanner);
-        boxes[1].setMaterial(pinkBanner);
-        boxes[2].setMaterial(whiteBanner);
-        boxes[3].setMaterial(pinkBanner);
-        boxes[4].setMaterial(blueBanner);
-
-        for (int i = -2; i < boxes.length - 2; i++) {
-            setTranslate(boxes[i + 2], x, y + height * i, 0);
+     * Updates the enemy sprites so there is exactly one showing for every living enemy in the snapshot that the camera can see
+     * @param snapshot snapshot of the world to draw
+     * @param alpha how far between the last two ticks to draw the enemies
+     */
+    private void syncEnemies(WorldSnapshot snapshot, double alpha) {
+        double y = snapshot.getEnemyY();
+
+        if (batchEnemies) {
+            // Every enemy is a box in one mesh, so this is one update to the scene graph however many enemies there are.
+            // The enemies in view are packed into the first boxes and the rest are never drawn
+            int shown = 0;
+            for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+                double x = snapshot.getEnemyX(i, alpha);
+                double z = snapshot.getEnemyZ(i, alpha);
+                if (frustum.classify(x, y, z, ENEMYRADIUS) == ViewFrustum.Visibility.CULLED) {continue;}
+
+                enemyBatch.set(shown++, x, y, z);
+            }
+            enemyBatch.commit(shown);
+            return;
+        }
+
+        // Only adds or removes sprites if an enemy spawned or died, any sprite can show any enemy since they all look the same
+        enemyGroup.resize(snapshot.getEnemyCount());
+
+        // Sprites of enemies out of view are hidden rather than removed so enemies walking in and out of view don't change the group's children
+        int distant = 0;
+        for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+            double x = snapshot.getEnemyX(i, alpha);
+            double z = snapshot.getEnemyZ(i, alpha);
+            ViewFrustum.Visibility visibility = frustum.classify(x, y, z, ENEMYRADIUS);
+
+            Enemy sprite = enemyGroup.get(i);
+            sprite.setVisible(visibility == ViewFrustum.Visibility.NEAR);
+
+            if (visibility == ViewFrustum.Visibility.NEAR) {
+                sprite.mirror(snapshot, i, alpha);
+            } else if (visibility == ViewFrustum.Visibility.DISTANT) {
+                enemyBatch.set(distant++, x, y, z);  // Far enough away that being part of the mesh looks no different
+            }
         }
 
-        return boxes;
+        if (lodEnemies) {enemyBatch.commit(distant);}
     }
 
     /**
-     * Sets up the scene being displayed by the stage
+     * Creates a material for every material in a level
+     * @param level the level to read the materials from
+     * @return shared PhongMaterials, indexed the same as in the level
      */
-    private void initializeScene() {
-        scene.setCamera(player.getCamera());
-        scene.setFill(Color.SKYBLUE);
+    private PhongMaterial[] createMaterials(Level level) {
+        PhongMaterial[] materials = new PhongMaterial[level.getMaterialCount()];
+        for (int i = 0; i < materials.length; i++) {
+            int specular = level.getMaterialSpecular(i);
+            materials[i] = Materials.phong(color(level.getMaterialDiffuse(i)), specular == 0 ? null : color(specular), level.getMaterialSpecularPower(i));
+        }
 
-        // Set up keyListeners
-        // See AnimationTimer for keyHandling
-        scene.setOnKeyPressed(e -> keysHeld.put(e.getCode().getName(), true));
-        scene.setOnKeyReleased(e -> keysHeld.remove(e.getCode().getName()));
+        return materials;
     }
 
     /**
-     * Runs the current scene on the stage and starts the application loop
+     * Creates the lights of a level
+     * @param level the level to read the lights from
+     * @return Group holding every light
      */
-    private void run(Stage primaryStage) {
-        primaryStage.setTitle("3D Rendering");
-        primaryStage.setScene(scene);
-        gameLoop.start();
-        primaryStage.show();
+    private Group createLights(Level level) {
+        Group lights = new Group();
+
+        for (int i = 0; i < level.getLightCount(); i++) {
+            Color color = color(level.getLightColor(i));
+            if (level.getLightType(i) == Level.POINT) {
+                double[] position = level.getLightPosition(i);
+                PointLight light = new PointLight(color);
+                setTranslate(light, position[0], position[1], position[2]);
+                lights.getChildren().add(light);
+            } else {
+                lights.getChildren().add(new AmbientLight(color));
+            }
+        }
+
+        return lights;
     }
 
     /**
-     * Create a box with preset attributes
-     * @param width width of the box
-     * @param height height of the box
-     * @param depth depth of the box
-     * @param x x position for center of box
-     * @param y y position for center of box
-     * @param z z position for center of box
-     * @param color JavaFX.Color to draw the box as
-     * @return Box with the set attributes
-     */
-    private Box createBox(double width, double height, double depth, double x, double y, double z, Color color) {
-        Box box = new Box(width, height, depth);
-        PhongMaterial material = new PhongMaterial();
-        material.setDiffuseColor(color);
-        box.setMaterial(material);
-        setTranslate(box, x, y, z);
-
-        return box;
+     * Turns a colour stored in a level into a Color
+     * @param argb colour as 0xAARRGGBB
+     * @return the Color
+     */
+    private static Color color(int argb) {
+        return Color.rgb((argb >>> 16) & 0xFF, (argb >>> 8) & 0xFF, argb & 0xFF, (argb >>> 24) / 255.0);
     }
 
     /**
-     * Returns a bounding box of a Box object
-     * @param box Box to find the boundaries of
-     * @return double[3][2] {{minX, maxX}, {minY, maxY}, {minZ, maxZ}}
+     * Sets up the scene being displayed by the stage
      */
-    private double[][] calculateBoundingBox(Box box) {
-        double dx = box.getWidth() * 0.5;
-        double dy = box.getHeight() * 0.5;
-        double dz = box.getDepth() * 0.5;
+    private void initializeScene() {
+        view.setCamera(player.getCamera());
+        view.setFill(Color.SKYBLUE);
 
-        return new double[][] {
-            {box.getTranslateX() - dx, box.getTranslateX() + dx},
-            {box.getTranslateY() - dy, box.getTranslateY() + dy},
-            {box.getTranslateZ() - dz, box.getTranslateZ() + dz},
-        };
+        // Keep the 3D view filling the window when it's resized
+        view.widthProperty().bind(scene.widthProperty());
+        view.heightProperty().bind(scene.heightProperty());
+
+        // Set up keyListeners
+        // See AnimationTimer for keyHandling
+        for (InputAction action : InputAction.values()) {
+            keyBindings[KeyCode.getKeyCode(action.getKeyName()).ordinal()] = action;
+        }
+
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.F3) {overlay.toggle();}
+            InputAction action = keyBindings[e.getCode().ordinal()];
+            if (action != null) {input.press(action);}
+        });
+        scene.setOnKeyReleased(e -> {
+            InputAction action = keyBindings[e.getCode().ordinal()];
+            if (action != null) {input.release(action);}
+        });
     }
 
     /**
-     * Checks the collision between two Boxes
-     * @param n One of the boxes to check collsion with
-     * @param j One of the boxes to check collsion with
-     * @return boolean signifying whether there is a collision
-     */
-    private boolean isColliding(Box n, Box j) {
-        double[][] nBound = calculateBoundingBox(n);
-        double[][] jBound = calculateBoundingBox(j);
-
-        // Thanks to https://developer.mozilla.org/en-US/docs/Games/Techniques/3D_collision_detection for the help since I hate writing these
-        return (
-                nBound[0][0] <= jBound[0][1] &&
-                nBound[0][1] >= jBound[0][0] &&
-                nBound[1][0] <= jBound[1][1] &&
-                nBound[1][1] >= jBound[1][0] &&
-                nBound[2][0] <= jBound[2][1] &&
-                nBound[2][1] >= jBound[2][0]
-        );
+     * Runs the current scene on the stage and starts the application loop
+     */
+    private void run(Stage primaryStage) {
+        primaryStage.setTitle("3D Rendering");
+        primaryStage.setScene(scene);
+
+        // Key releases never arrive once the window loses focus, so let go of everything rather than leave keys stuck down
+        primaryStage.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) {input.releaseAll();}
+        });
+        simulation.start();
+        gameLoop.start();
+        primaryStage.show();
     }
 
     /**
      * Start point for the application
      * @param primaryStage stage to display content on
+     * @throws IOException if the level can't be loaded
      */
     @Override
-    public void start(Stage primaryStage) {
+    public void start(Stage primaryStage) throws IOException {
         // Set up the scene
         initializeScene();
 
-        // Create any objects
-        Box[] transflag = makeTransFlag(100, 20, 100, 0, -50, 0);
-        Box ground = createBox(GROUNDWIDTH, GROUNDHEIGHT, GROUNDDEPTH, 0, GROUNDHEIGHT * 0.5, 0, Color.GREEN);
-        Box sun = createBox(SUNWIDTH, SUNHEIGHT, SUNDEPTH, SUNCOORDS[0], SUNCOORDS[1], SUNCOORDS[2], Color.YELLOW);
+        // Everything that never moves comes from the level: the ground, the scenery, where enemies spawn, and the lights
+        Map<String, String> options = getParameters().getNamed();
+        Level level = Level.load(Path.of(options.getOrDefault("level", DEFAULTLEVEL)));
+        PhongMaterial[] materials = createMaterials(level);
+
+        // Use the seed we were given so the session can be played again, otherwise every session is different
+        long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : System.currentTimeMillis();
+        double tickRate = options.containsKey("tickRate") ? Double.parseDouble(options.get("tickRate")) : TICKRATE;
+
+        // Pass the boundingBox for the ground plane to the world so it knows how to spawn the enemies
+        // --arenaSize swaps the level's ground for a square one of that size centered on the origin
+        double[][] groundPlaneBoundingBox = level.getGroundBoundingBox();
+        if (options.containsKey("arenaSize")) {
+            double arenaSize = Double.parseDouble(options.get("arenaSize"));
+            groundPlaneBoundingBox[0] = new double[] {-arenaSize / 2, arenaSize / 2};
+            groundPlaneBoundingBox[2] = new double[] {-arenaSize / 2, arenaSize / 2};
+        }
+        World world = new World(groundPlaneBoundingBox, player.getState(), tickRate, seed);
+        simulation = new SimulationThread(world, input, MAXCATCHUPTICKS);
+
+        // The level's props are drawn with the chunk of ground they're on, so they're only in the scene while the player is near them
+        scenery = new StaticBatch(level, materials, groundPlaneBoundingBox, CHUNKSIZE);
 
-        // Pass the boundingBox for the ground plane to the Enemy class so it knows how to spawn the enemies
-        Enemy.setGroundPlaneBoundingBox(calculateBoundingBox(ground));
+        // Enemies path around the level's obstacles rather than walking through them, and only spawn in its spawn zones if it has any
+        for (int i = 0; i < level.getBoxCount(); i++) {
+            if (level.isObstacle(i)) {world.addObstacle(level.getBoxBoundingBox(i));}
+        }
+        for (int i = 0; i < level.getSpawnZoneCount(); i++) {
+            double[] zone = level.getSpawnZone(i);
+            world.addSpawnZone(zone[0], zone[1], zone[2], zone[3]);
+        }
+
+        // One enemy every few seconds unless a stress test asks for more, see WaveCurve for the format
+        WaveCurve waves = options.containsKey("waves") ? WaveCurve.parse(options.get("waves")) : WaveCurve.DEFAULT;
+        world.setWaves(waves);
+
+        // Make the profiler's numbers available over JMX and on screen
+        profiler = world.getProfiler();
+        profiler.setScenery(level.getBoxCount(), scenery.getMeshCount());
+        try {
+            profiler.registerMBeans();
+        } catch (JMException e) {
+            System.err.println("Couldn't register the profiler with JMX: " + e.getMessage());
+        }
+
+        // Keep the ground within the view distance in the scene, and draw enemies and bullets out to the same distance unless told otherwise
+        double viewDistance = options.containsKey("viewDistance") ? Double.parseDouble(options.get("viewDistance")) : VIEWDISTANCE;
+        chunks = new ChunkStreamer(groundPlaneBoundingBox, materials[level.getGroundMaterial()], scenery, CHUNKSIZE, viewDistance);
+
+        PerspectiveCamera camera = player.getCamera();
+        double cullDistance = options.containsKey("cullDistance") ? Double.parseDouble(options.get("cullDistance")) : viewDistance;
+        frustum = new ViewFrustum(camera.getFieldOfView(), camera.getNearClip(), Math.min(cullDistance, camera.getFarClip()));
+        if (options.containsKey("lodDistance")) {
+            frustum.setLodDistance(Double.parseDouble(options.get("lodDistance")));
+            lodEnemies = true;
+        }
+
+        overlay = new ProfilerOverlay(profiler);
+        if (Boolean.parseBoolean(options.get("overlay"))) {overlay.toggle();}
+        window.getChildren().add(overlay);
+
+        if (options.containsKey("record")) {
+            PlayerState state = player.getState();
+            recordingFile = Path.of(options.get("record"));
+            recording = new InputRecording(seed, tickRate, groundPlaneBoundingBox, state.getX(), state.getY(), state.getZ());
+            for (int i = 0; i < level.getBoxCount(); i++) {
+                if (level.isObstacle(i)) {recording.addObstacle(level.getBoxBoundingBox(i));}
+            }
+            for (int i = 0; i < level.getSpawnZoneCount(); i++) {
+                double[] zone = level.getSpawnZone(i);
+                recording.addSpawnZone(zone[0], zone[1], zone[2], zone[3]);
+            }
+            recording.setWaves(waves);
+            simulation.setRecording(recording);
+        }
 
         // Add the objects to root
-        root.getChildren().addAll(transflag);
-        root.getChildren().add(ground);
-        root.getChildren().add(sun);
+        root.getChildren().add(scenery);  // Holds the level's boxes off the edge of the arena, the rest are in the chunks they're on
+        root.getChildren().add(createLights(level));
+        root.getChildren().add(chunks);  // Holds the ground and scenery near the player
         root.getChildren().add(player);  // Player stores both the player's hitbox and all bullets
-        root.getChildren().add(enemyGroup);  // Stores all enemies
-        root.getChildren().add(new AmbientLight(Color.WHITE));  // Add an ambient light since I suck at pointLights and it provides even glow
+        batchEnemies = Boolean.parseBoolean(options.get("batchEnemies"));
+        root.getChildren().add(batchEnemies ? enemyBatch : enemyGroup);  // Stores all enemies
+        if (lodEnemies && !batchEnemies) {root.getChildren().add(enemyBatch);}  // Stores the enemies too far away to be sprites
 
         // Start the gameloop and display application
         run(primaryStage);
     }
-}
\ No newline at end of file
+
+    /**
+     * Called by JavaFX when the application closes, stops the simulation thread and saves the recording if there is one
+     */
+    @Override
+    public void stop() {
+        if (simulation != null) {simulation.stop();}
+        if (chunks != null) {chunks.shutdown();}
+
+        if (recording != null) {
+            try {
+                recording.write(recordingFile);
+            } catch (IOException e) {
+                System.err.println("Couldn't save the recording to " + recordingFile + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package Java3DShooter;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.PhongMaterial;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one shared PhongMaterial per combination of colour and properties, so every red box in the game uses the same red material
+ * <p>
+ * Fewer materials means less to allocate and fewer material changes for the renderer when thousands of identical enemies and bullets are on screen.
+ * The materials handed out are shared by everything that asked for the same look, so treat them as read-only: changing one changes all of them
+ */
+public final class Materials {
+
+    /**
+     * What makes two materials the same
+     */
+    private record Key(Color diffuse, Color specular, double specularPower) {}
+
+    /**
+     * Specular power JavaFX gives a new PhongMaterial
+     */
+    private static final double DEFAULTSPECULARPOWER = 32;
+
+    /**
+     * Every material handed out so far
+     */
+    private static final Map<Key, PhongMaterial> MATERIALS = new ConcurrentHashMap<>();
+
+    /**
+     * Only static helpers, never instantiated
+     */
+    private Materials() {}
+
+    /**
+     * Gets the shared material for a plain colour with no specular highlight
+     * @param diffuse colour of the material
+     * @return shared PhongMaterial, don't modify it
+     */
+    public static PhongMaterial phong(Color diffuse) { return phong(diffuse, null, DEFAULTSPECULARPOWER); }
+
+    /**
+     * Gets the shared material for a colour and specular highlight
+     * @param diffuse colour of the material
+     * @param specular colour of the specular highlight, or null for none
+     * @param specularPower how tight the specular highlight is
+     * @return shared PhongMaterial, don't modify it
+     */
+    public static PhongMaterial phong(Color diffuse, Color specular, double specularPower) {
+        return MATERIALS.computeIfAbsent(new Key(diffuse, specular, specularPower), key -> {
+            PhongMaterial material = new PhongMaterial(key.diffuse());
+            material.setSpecularColor(key.specular());
+            material.setSpecularPower(key.specularPower());
+            return material;
+        });
+    }
+
+    /**
+     * Gets the number of distinct materials handed out so far. Every material is kept for the life of the game so this is also how many are live
+     * @return number of materials
+     */
+    public static int count() { return MATERIALS.size(); }
+}
@@ -1,82 +1,59 @@
 package Java3DShooter.Player;
 
+import Java3DShooter.CuboidBatch;
+import Java3DShooter.Materials;
+import Java3DShooter.ViewFrustum;
+import Java3DShooter.Simulation.PlayerState;
+import Java3DShooter.Simulation.ProjectilePool;
+import Java3DShooter.Simulation.WorldSnapshot;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.PerspectiveCamera;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.Box;
 import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Transform;
 
-import java.util.ArrayList;
-import java.util.Map;
-
 /**
- * The Player class contains information regarding the player. The player is a type of Group containing the player's hitbox. The player also has a PerspectiveCamera attached
- * to it allowing for first person movement. The player's hitbox and camera are both have position's tied to the move function which will move both Node's in accordance with the defined
- * movement controls when called
+ * The Player class contains the on-screen parts of the player. The player is a type of Group containing the player's hitbox. The player also has a PerspectiveCamera attached
+ * to it allowing for first person movement. All of the player's logic lives in {@link PlayerState}, the hitbox, camera, and bullets only mirror a snapshot of that
+ * state when {@link #sync(WorldSnapshot, double, ViewFrustum)} is called
+ * <p>
+ * The state is ticked on the simulation thread, so once the simulation has started only the snapshots should be read from the JavaFX thread
  */
 public class Player extends Group {
     /**
-     * Height of the player's hitbox in pixels
-     */
-    private static final int PLAYERHEIGHT = 20;
-
-    /**
-     * Width of the player's hitbox in pixels
-     */
-    private static final int PLAYERWIDTH = 10;
-
-    /**
-     * Depth of the player's hitbox in pixels
-     */
-    private static final int PLAYERDEPTH = 10;
-
-    /**
-     * The maximum amount of hitpoints for the player
-     */
-    private static final double MAXHP = 5;
-
-    /**
-     * Current hitpoints of the player
-     */
-    private double HP = MAXHP;
-
-    /**
-     * Number of frames between shots. Note that AnimationTimer pulses at 60Hz so we need to multiply the cooldown by 60
-     */
-    private static final int SHOTCOOLDOWN = 60 * 1;
-
-    /**
-     * Frames left before the player can shoot again
+     * Field of view of the camera
      */
-    private int nextShot = 0;
+    private static final double FOV = 40F;
 
     /**
-     * All the current projectiles fired by the player as a list of Bullet's
+     * State of the player which this node mirrors
      */
-    private final ArrayList<Bullet> projectiles = new ArrayList<>();
+    private final PlayerState state;
 
     /**
-     * All the projectiles as a group
+     * Whether the player was dead as of the last snapshot synced
      */
-    private final Group projectilesGroup = new Group();
+    private boolean dead = false;
 
     /**
-     * The speed at which the camera can move. Serves as a magnitude for our motion vectors
+     * Color of the bullets
      */
-    private static final double SPEED = 1.5;
+    private static final Color BULLETCOLOR = Color.BLACK;
 
     /**
-     * Look speed for the camera, impacts how fast the camera will tilt
+     * Radius of a sphere around a bullet's center that holds the whole bullet, used to tell whether any of it is in view
      */
-    private static final double LOOKSPEED = 1;
+    private static final double BULLETRADIUS = Math.sqrt(ProjectilePool.WIDTH * ProjectilePool.WIDTH
+            + ProjectilePool.HEIGHT * ProjectilePool.HEIGHT + ProjectilePool.DEPTH * ProjectilePool.DEPTH) / 2;
 
     /**
-     * Field of view of the camera
+     * Every bullet drawn as one mesh. The i-th box mirrors the i-th bullet in the snapshot
+     * <p>
+     * Firing a bullet or having one die only moves points in the mesh, so no nodes are ever added for bullets however fast the player shoots
      */
-    private static final double FOV = 40F;
+    private final CuboidBatch projectiles = new CuboidBatch(ProjectilePool.WIDTH, ProjectilePool.HEIGHT, ProjectilePool.DEPTH, Materials.phong(BULLETCOLOR));
 
     /**
      * The camera for the 3D environment, initialized through the initializeCamera(args) function
@@ -86,17 +63,7 @@ public class Player extends Group {
     /**
      * Hitbox for the player
      */
-    private Box hitbox = new Box(PLAYERWIDTH, PLAYERHEIGHT, PLAYERDEPTH);
-
-    /**
-     * Current speed at which our camera is tilting, this value is used when updating the angle of the camera (x, y, z)
-     */
-    private double[] turnVelocity = {0, 0, 0};
-
-    /**
-     * Current speed at which our camera is moving, this value is determined by the lateral angle of the camera (xTilt) and is multiplied by the SPEED
-     */
-    private double[] velocity = {0, 0, 0};  // x, y, z move velocity
+    private Box hitbox = new Box(PlayerState.PLAYERWIDTH, PlayerState.PLAYERHEIGHT, PlayerState.PLAYERDEPTH);
 
     /**
      * The xTilt transformer of the camera
@@ -121,9 +88,10 @@ public class Player extends Group {
      * @param nearClip nearClip of the camera (near-render distance)
      */
     public Player(int x, int y , int z, int farClip, int nearClip) {
+        state = new PlayerState(x, y, z);
         initializeCamera(x, y, z, farClip, nearClip, new Transform[] {xTilt, yTilt});
         initializeHitbox(x, y, z);
-        this.getChildren().add(projectilesGroup); // Stores and updates the currently living bullets
+        this.getChildren().add(projectiles); // Draws the currently living bullets
     }
 
     /**
@@ -144,19 +112,25 @@ public class Player extends Group {
     }
 
     /**
-     * Gets the x position of the player (hitbox and camera)
+     * Gets the state of the player that this node mirrors. Hand this to the World, once it's being simulated don't read it from the JavaFX thread
+     * @return PlayerState
+     */
+    public PlayerState getState() { return this.state; }
+
+    /**
+     * Gets the x position of the player (hitbox and camera) as currently drawn
      * @return x position
      */
     public double getX() { return hitbox.getTranslateX(); }
 
     /**
-     * Gets the y position of the player (hitbox and camera)
+     * Gets the y position of the player (hitbox and camera) as currently drawn
      * @return y position
      */
     public double getY() { return hitbox.getTranslateY(); }
 
     /**
-     * Gets the z position of the player (hitbox and camera)
+     * Gets the z position of the player (hitbox and camera) as currently drawn
      * @return z position
      */
     public double getZ() { return hitbox.getTranslateZ(); }
@@ -174,12 +148,10 @@ public class Player extends Group {
     public Box getHitbox() { return this.hitbox; }
 
     /**
-     * Gets all the bullets as an array of boxes
-     * @return box[] bullets
+     * Returns whether the player was dead as of the last snapshot synced
+     * @return isDead?
      */
-    public Box[] getBullets() {
-        return projectiles.toArray(new Box[0]);
-    }
+    public boolean isDead() { return dead; }
 
     /**
      * Sets the translation properties of a node
@@ -194,22 +166,6 @@ public class Player extends Group {
         n.setTranslateZ(z);
     }
 
-    /**
-     * Returns a vector of motion < cos(angle), sin(angle) >
-     * <p>
-     * This is used to determine the movement on two separate axis based on the angle of the camera allowing forward movement to take you in the direction of view
-     * <p>
-     * For x and z motion use the camera's xTilt and for z-movement use the return[0] and return[1] for x-movement
-     * <p>
-     * For x and y motion use the camera's yTilt and then use return[0] for x and return[1] for y
-     * @param angle the angle of tilt/inclination
-     * @return vector of motion for magnitude = 1
-     */
-    private double[] calculateMotionVector(double angle) {
-        angle = Math.toRadians(angle);
-        return new double[] {Math.cos(angle), Math.sin(angle)};
-    }
-
     /**
      * Sets up the camera for the scene
      * @param x initial x position of the camera
@@ -228,158 +184,51 @@ public class Player extends Group {
     }
 
     private void initializeHitbox(int x, int y, int z) {
-        PhongMaterial material = new PhongMaterial();
-        material.setDiffuseColor(Color.RED);
-        hitbox.setMaterial(material);
+        hitbox.setMaterial(Materials.phong(Color.RED));
         setTranslate(hitbox, x, y, z);
         hitbox.setVisible(false);
         this.getChildren().add(hitbox);
     }
 
     /**
-     * Creates a new bullet at the player's position
-     */
-    private void shoot() {
-        if (nextShot > 0) {return;}  // They are still on cooldown
-
-        double[] xTiltVector = calculateMotionVector(xTilt.getAngle());
-        double[] yTiltVector = calculateMotionVector(yTilt.getAngle());
-
-        // Add a new bullet to the projectiles list with the camera's coordinates then the velocity of the x, y, and z axis
-        // Y-axis is negative here because of how the y-axis is reversed in the world of programming
-        projectiles.add(new Bullet(
-                camera.getTranslateX(), camera.getTranslateY(), camera.getTranslateZ(),
-                xTiltVector[1], -yTiltVector[1], xTiltVector[0]
-        ));
-
-        // Set the cooldown before their next shot
-        nextShot = SHOTCOOLDOWN;
-
-    }
-
-    /**
-     * Updates the positions of every bullet and kills any bullets whose timeToLive is expired
+     * Updates the bullet mesh so there is exactly one box showing for every living bullet in the snapshot that the camera can see
+     * @param snapshot snapshot of the world to draw
+     * @param alpha how far between the last two ticks to draw the bullets
+     * @param frustum what the camera can see this frame
      */
-    private void moveBullets() {
-        ArrayList<Bullet> deadProjectiles = new ArrayList<>();
+    private void syncBullets(WorldSnapshot snapshot, double alpha, ViewFrustum frustum) {
+        int shown = 0;
 
-        for (int i = 0; i < projectiles.size(); i++) {
-            Bullet bullet = projectiles.get(i);
+        // Any box can show any bullet since they all look the same, so the bullets in view are packed into the first boxes and the rest are never drawn
+        for (int i = 0; i < snapshot.getBulletCount(); i++) {
+            double x = snapshot.getBulletX(i, alpha);
+            double y = snapshot.getBulletY(i, alpha);
+            double z = snapshot.getBulletZ(i, alpha);
+            if (frustum.classify(x, y, z, BULLETRADIUS) == ViewFrustum.Visibility.CULLED) {continue;}
 
-            // If the bullet's TTL is expired we add it to the deadProjectiles list to remove later
-            if (bullet.getTimeToLive() <= 0) {
-                deadProjectiles.add(bullet);
-                continue;
-            }
-
-            bullet.move();
+            projectiles.set(shown++, x, y, z);
         }
 
-        projectiles.removeAll(deadProjectiles);
-
-        // Reset the projectilesGroup so that it only has the currently living projectiles
-        projectilesGroup.getChildren().setAll(projectiles);
-    }
-
-    /**
-     * Reduces the player's health by the damage taken unless the player is already dead
-     * @param damage damage taken
-     */
-    public void takeDamage(int damage) {
-        if (isDead()) {return;}  // Player is already dead
-        this.HP -= damage;
+        projectiles.commit(shown);
     }
 
     /**
-     * Returns whether the player is dead
-     * @return isDead?
+     * Mirrors a snapshot of the player's state onto the camera, hitbox, and bullets. Call this once per frame
+     * @param snapshot snapshot of the world to draw
+     * @param alpha how far between the last two ticks to draw everything, 0 draws the previous tick and 1 draws the latest
+     * @param frustum what the camera can see this frame, bullets outside of it aren't drawn
      */
-    public boolean isDead() { return this.HP <= 0; }
-
-    /**
-     * Moves the player forward a frame
-     * @param keysHeld the keys currently being help
-     */
-    public void move(Map<String, Boolean> keysHeld) {
-        // Update the bullet's positions
-        moveBullets();
-
-        // Reduce the cooldown before the next shot
-        // We do this through a conditional to prevent a negative overflow if they don't shoot for too long
-        if (nextShot > 0) {nextShot--;}
-
-        // Clear our old velocities so we can reassign them based on the inputs held
-        velocity = new double[] {0, 0, 0};
-        turnVelocity = new double[] {0, 0, 0};
-
-
-        // Calculate our motionVectors for x and z axial movement
-        double[] zMotionVector = calculateMotionVector(xTilt.getAngle());
-        double[] xMotionVector = calculateMotionVector(xTilt.getAngle() + 90);
-
-        // Handle the different key presses here
-        for (String key : keysHeld.keySet()) {
-            switch (key) {
-                // Camera Controls
-                case "Up":
-                    turnVelocity[1] = LOOKSPEED;
-                    break;
-                case "Down":
-                    turnVelocity[1] = -LOOKSPEED;
-                    break;
-                case "Left":
-                    turnVelocity[0] = -LOOKSPEED;
-                    break;
-                case "Right":
-                    turnVelocity[0] = LOOKSPEED;
-                    break;
-
-                // Movement Controls
-                case "W":
-                    velocity[0] = zMotionVector[1] * SPEED;
-                    velocity[2] = zMotionVector[0] * SPEED;
-                    break;
-                case "S":
-                    velocity[0] = zMotionVector[1] * -SPEED;
-                    velocity[2] = zMotionVector[0] * -SPEED;
-                    break;
-                case "A":
-                    velocity[0] = xMotionVector[1] * -SPEED;
-                    velocity[2] = xMotionVector[0] * -SPEED;
-                    break;
-                case "D":
-                    velocity[0] = xMotionVector[1] * SPEED;
-                    velocity[2] = xMotionVector[0] * SPEED;
-                    break;
-                case "Space":
-                    velocity[1] = -SPEED;
-                    break;
-                case "Shift":
-                    velocity[1] = SPEED;
-                    break;
-                case "Y":
-                    shoot();
-                    break;
-            }
-        }
-
-        // Set the new position
-        double[] newPosition = {camera.getTranslateX() + velocity[0], camera.getTranslateY() + velocity[1], camera.getTranslateZ() + velocity[2]};
-        setTranslate(camera, newPosition[0], newPosition[1], newPosition[2]);
-        setTranslate(hitbox, newPosition[0], newPosition[1], newPosition[2]);
-
-        // Camera Movement
-        double newXTilt = xTilt.getAngle() + turnVelocity[0];
-        double newYTilt = yTilt.getAngle() + turnVelocity[1];
+    public void sync(WorldSnapshot snapshot, double alpha, ViewFrustum frustum) {
+        double x = snapshot.getPlayerX(alpha);
+        double y = snapshot.getPlayerY(alpha);
+        double z = snapshot.getPlayerZ(alpha);
+        setTranslate(camera, x, y, z);
+        setTranslate(hitbox, x, y, z);
 
-        // Constrain how far they can look up or down to a 180deg range
-        if (newYTilt > 90) {
-            newYTilt = 90;
-        } else if (newYTilt < -90) {
-            newYTilt = -90;
-        }
+        xTilt.setAngle(snapshot.getXTilt(alpha));
+        yTilt.setAngle(snapshot.getYTilt(alpha));
+        dead = snapshot.isPlayerDead();
 
-        xTilt.setAngle(newXTilt);
-        yTilt.setAngle(newYTilt);
+        syncBullets(snapshot, alpha, frustum);
     }
 }
@@ -0,0 +1,71 @@
+package Java3DShooter;
+
+import Java3DShooter.Simulation.TickProfiler;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * On-screen table of the {@link TickProfiler}'s numbers: percentiles for every phase of a tick and a frame, entity counts, and allocations
+ * <p>
+ * The text is only rebuilt a few times a second, so leaving the overlay on doesn't add a string's worth of garbage to every frame
+ */
+public class ProfilerOverlay extends Text {
+
+    /**
+     * Nanoseconds between refreshes of the text
+     */
+    private static final long REFRESHNANOS = 250_000_000;
+
+    /**
+     * Profiler whose numbers are shown
+     */
+    private final TickProfiler profiler;
+
+    /**
+     * Timestamp of the last refresh in nanoseconds
+     */
+    private long lastRefresh;
+
+    /**
+     * Whether the text has been refreshed since the overlay was last shown
+     */
+    private boolean refreshed = false;
+
+    /**
+     * Creates a hidden overlay for a profiler
+     * @param profiler profiler to show the numbers of
+     */
+    public ProfilerOverlay(TickProfiler profiler) {
+        this.profiler = profiler;
+
+        setFont(Font.font("Monospaced", 14));
+        setFill(Color.WHITE);
+        setStroke(Color.BLACK);
+        setStrokeWidth(0.3);
+        setTranslateX(10);
+        setTranslateY(20);
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    /**
+     * Shows the overlay if it's hidden and hides it if it's shown
+     */
+    public void toggle() {
+        setVisible(!isVisible());
+        refreshed = false;  // Don't show stale numbers from the last time it was open
+    }
+
+    /**
+     * Refreshes the text if the overlay is showing and it hasn't been refreshed recently, call this every frame
+     * @param now timestamp of the frame in nanoseconds
+     */
+    public void update(long now) {
+        if (!isVisible() || (refreshed && now - lastRefresh < REFRESHNANOS)) {return;}
+
+        lastRefresh = now;
+        refreshed = true;
+        setText(profiler.summary());
+    }
+}
@@ -0,0 +1,155 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Axis-aligned bounding box (AABB) collision checks that never allocate
+ * <p>
+ * A box is described by its center and its half-extents (half its width, height, and depth) as plain doubles rather than as an object or a double[][],
+ * so checking a pair of boxes is just six comparisons
+ * <p>
+ * For checking one box against many, boxes can be packed back to back into a single double[] with {@link #STRIDE} values each laid out as
+ * {x, y, z, halfWidth, halfHeight, halfDepth}
+ * <p>
+ * Fast movers (like bullets) can skip right over a box between two ticks, {@link #sweep} checks the whole path they took instead of only where they ended up
+ */
+public final class Collision {
+
+    /**
+     * Number of doubles each box takes up in a packed array
+     */
+    public static final int STRIDE = 6;
+
+    /**
+     * Only static helpers, never instantiated
+     */
+    private Collision() {}
+
+    /**
+     * Checks whether two boxes overlap, each box is given by its center and its half-extents on each axis
+     * <p>
+     * Thanks to https://developer.mozilla.org/en-US/docs/Games/Techniques/3D_collision_detection for the help since I hate writing these
+     * @return boolean signifying whether there is a collision
+     */
+    public static boolean isColliding(double ax, double ay, double az, double aHalfWidth, double aHalfHeight, double aHalfDepth,
+                                      double bx, double by, double bz, double bHalfWidth, double bHalfHeight, double bHalfDepth) {
+        return (
+                ax - aHalfWidth <= bx + bHalfWidth &&
+                ax + aHalfWidth >= bx - bHalfWidth &&
+                ay - aHalfHeight <= by + bHalfHeight &&
+                ay + aHalfHeight >= by - bHalfHeight &&
+                az - aHalfDepth <= bz + bHalfDepth &&
+                az + aHalfDepth >= bz - bHalfDepth
+        );
+    }
+
+    /**
+     * Writes a box into a packed array
+     * @param boxes packed array of boxes
+     * @param index which box in the array to write (not the offset into the array)
+     */
+    public static void pack(double[] boxes, int index, double x, double y, double z, double halfWidth, double halfHeight, double halfDepth) {
+        int o = index * STRIDE;
+        boxes[o] = x;
+        boxes[o + 1] = y;
+        boxes[o + 2] = z;
+        boxes[o + 3] = halfWidth;
+        boxes[o + 4] = halfHeight;
+        boxes[o + 5] = halfDepth;
+    }
+
+    /**
+     * Finds the first box in a packed array that overlaps a box
+     * @param boxes packed array of boxes as laid out by {@link #pack(double[], int, double, double, double, double, double, double)}
+     * @param count number of boxes in the array to check
+     * @return index of the first overlapping box, or -1 if none overlap
+     */
+    public static int firstColliding(double ax, double ay, double az, double aHalfWidth, double aHalfHeight, double aHalfDepth,
+                                     double[] boxes, int count) {
+        for (int i = 0, o = 0; i < count; i++, o += STRIDE) {
+            if (isColliding(ax, ay, az, aHalfWidth, aHalfHeight, aHalfDepth,
+                    boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds every box in a packed array that overlaps a box
+     * @param boxes packed array of boxes as laid out by {@link #pack(double[], int, double, double, double, double, double, double)}
+     * @param count number of boxes in the array to check
+     * @param hits where to write the index of every overlapping box. Checking stops early once this is full
+     * @return number of indices written to hits
+     */
+    public static int allColliding(double ax, double ay, double az, double aHalfWidth, double aHalfHeight, double aHalfDepth,
+                                   double[] boxes, int count, int[] hits) {
+        int found = 0;
+
+        for (int i = 0, o = 0; i < count && found < hits.length; i++, o += STRIDE) {
+            if (isColliding(ax, ay, az, aHalfWidth, aHalfHeight, aHalfDepth,
+                    boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5])) {
+                hits[found++] = i;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds how far along a segment it first enters a box, for catching things that moved right through a box during a tick
+     * <p>
+     * To sweep one box past another, grow the still box by the half-extents of the moving one and sweep the moving box's center.
+     * If both moved, sweep the center's path relative to the other box (start minus the other box's start, end minus its end)
+     * <p>
+     * This is the slab method: the segment is clipped against the pair of planes on each axis and hits the box if the three ranges it's left with overlap.
+     * Like {@link #isColliding}, touching the edge of the box counts as a hit
+     * @param x0 x position the segment starts at
+     * @param y0 y position the segment starts at
+     * @param z0 z position the segment starts at
+     * @param x1 x position the segment ends at
+     * @param y1 y position the segment ends at
+     * @param z1 z position the segment ends at
+     * @return fraction of the way along the segment where it first touches the box (0 if it starts inside), or -1 if it never touches it
+     */
+    public static double sweep(double x0, double y0, double z0, double x1, double y1, double z1,
+                               double bx, double by, double bz, double bHalfWidth, double bHalfHeight, double bHalfDepth) {
+        double enter = 0;
+        double exit = 1;
+
+        // Each axis narrows down the part of the segment inside the box (enter to exit), it misses as soon as there's nothing left
+        double dx = x1 - x0;
+        if (dx == 0) {
+            if (x0 < bx - bHalfWidth || x0 > bx + bHalfWidth) {return -1;}
+        } else {
+            double near = (bx - Math.copySign(bHalfWidth, dx) - x0) / dx;
+            double far = (bx + Math.copySign(bHalfWidth, dx) - x0) / dx;
+            enter = Math.max(enter, near);
+            exit = Math.min(exit, far);
+            if (enter > exit) {return -1;}
+        }
+
+        double dy = y1 - y0;
+        if (dy == 0) {
+            if (y0 < by - bHalfHeight || y0 > by + bHalfHeight) {return -1;}
+        } else {
+            double near = (by - Math.copySign(bHalfHeight, dy) - y0) / dy;
+            double far = (by + Math.copySign(bHalfHeight, dy) - y0) / dy;
+            enter = Math.max(enter, near);
+            exit = Math.min(exit, far);
+            if (enter > exit) {return -1;}
+        }
+
+        double dz = z1 - z0;
+        if (dz == 0) {
+            if (z0 < bz - bHalfDepth || z0 > bz + bHalfDepth) {return -1;}
+        } else {
+            double near = (bz - Math.copySign(bHalfDepth, dz) - z0) / dz;
+            double far = (bz + Math.copySign(bHalfDepth, dz) - z0) / dz;
+            enter = Math.max(enter, near);
+            exit = Math.min(exit, far);
+            if (enter > exit) {return -1;}
+        }
+
+        return enter;
+    }
+}
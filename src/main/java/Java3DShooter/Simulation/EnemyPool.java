@@ -0,0 +1,614 @@
+package Java3DShooter.Simulation;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Pool holding every enemy in the world
+ * <p>
+ * Like {@link ProjectilePool} each field of every enemy lives in its own primitive array and the living enemies are always packed into the first
+ * {@link #size()} slots. A dead enemy is dropped by moving the last living enemy into its slot, and its slot is recycled by the next spawn.
+ * The arrays double in size whenever they fill up, so once the horde has reached its peak size spawning and killing enemies never allocates
+ * <p>
+ * Enemies also keep their distance from each other (see {@link #setSeparation(double, int)}) so a horde spreads out rather than collapsing into one
+ * point. Each enemy only looks at the enemies near it through a {@link SpatialHashGrid}, so this costs about the same per enemy however big the horde is
+ */
+public class EnemyPool {
+
+    /**
+     * Width of the enemy's sprite
+     */
+    public static final double WIDTH = 10;
+
+    /**
+     * Height of the enemy's sprite
+     */
+    public static final double HEIGHT = 20;
+
+    /**
+     * Depth of the enemy's sprite (length of z-axis)
+     */
+    public static final double DEPTH = 10;
+
+    /**
+     * Speed the enemy walks at in units per second, being pushed by the crowd can move it further, see {@link #maxStep}
+     */
+    static final double SPEED = 60;
+
+    /**
+     * Max hitpoints for an enemy. This is their starting hp
+     */
+    private static final double MAXHP = 1;
+
+    /**
+     * Default for {@link #setParallelThreshold(int)}. Below this many enemies handing the work to other threads costs more than it saves
+     */
+    public static final int DEFAULTPARALLELTHRESHOLD = 16384;
+
+    /**
+     * Fewest enemies a single chunk of the parallel update is given, so chunks never get so small that scheduling them outweighs the work
+     */
+    private static final int MINCHUNKSIZE = 2048;
+
+    /**
+     * Default for the radius of {@link #setSeparation(double, int)}, enemies closer than this to each other get pushed apart
+     */
+    public static final double DEFAULTSEPARATIONRADIUS = 15;
+
+    /**
+     * Default for the neighbour cap of {@link #setSeparation(double, int)}
+     */
+    public static final int DEFAULTMAXNEIGHBOURS = 8;
+
+    /**
+     * How fast enemies get pushed apart compared to how fast they walk. This is more than 1 so a crowd pressing in on the player can still push back
+     * and spread out rather than being squeezed into a point
+     */
+    private static final double SEPARATIONWEIGHT = 1.5;
+
+    /**
+     * The bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     */
+    private final double[][] groundPlaneBoundingBox;
+
+    /**
+     * Y position of every enemy. Enemies walk along the ground so this is the same for all of them and never changes
+     */
+    private final double y;
+
+    /**
+     * X position of every enemy
+     */
+    private double[] x;
+
+    /**
+     * Z position of every enemy
+     */
+    private double[] z;
+
+    /**
+     * X position of every enemy as of the previous tick, used to draw enemies between ticks
+     */
+    private double[] prevX;
+
+    /**
+     * Z position of every enemy as of the previous tick
+     */
+    private double[] prevZ;
+
+    /**
+     * Current HP of every enemy
+     */
+    private double[] HP;
+
+    /**
+     * Direction and strength each enemy is being pushed away from its neighbours this tick, worked out before anyone moves
+     */
+    private double[] pushX, pushZ;
+
+    /**
+     * Number of living enemies, these are always stored in slots [0, count)
+     */
+    private int count = 0;
+
+    /**
+     * Enemies closer than this to each other get pushed apart, 0 turns separation off
+     */
+    private double separationRadius = DEFAULTSEPARATIONRADIUS;
+
+    /**
+     * Most neighbours an enemy is pushed away from in a tick
+     */
+    private int maxNeighbours = DEFAULTMAXNEIGHBOURS;
+
+    /**
+     * Every enemy's position at the start of the tick, used to find each enemy's neighbours. Its cells are the size of the separation radius
+     * so the neighbours of an enemy are always in the cells right around it
+     */
+    private SpatialHashGrid crowd;
+
+    /**
+     * Where neighbours are written when separating on the calling thread, each chunk of the parallel update has its own.
+     * Holds one more than the neighbour cap since an enemy finds itself too
+     */
+    private int[] neighbourIds = new int[DEFAULTMAXNEIGHBOURS + 1];
+
+    /**
+     * Fewest living enemies needed before {@link #move(double, double, double)} splits the work across threads
+     */
+    private int parallelThreshold = DEFAULTPARALLELTHRESHOLD;
+
+    /**
+     * Threads used to steer the enemies in parallel
+     */
+    private final ForkJoinPool workers = ForkJoinPool.commonPool();
+
+    /**
+     * One task per chunk of the parallel update, kept and reinitialized every tick so steering in parallel doesn't allocate.
+     * Only grows, when there are more chunks than ever before
+     */
+    private SteerChunk[] chunks = new SteerChunk[0];
+
+    /**
+     * Number of {@link #chunks} in use this tick
+     */
+    private int chunkCount = 0;
+
+    /**
+     * Hands every chunk to the pool and waits for them, reused every pass
+     */
+    private final SteerAll steerAll = new SteerAll();
+
+    /**
+     * What the chunks do in the current pass: work out the pushes if true, otherwise move the enemies. Set before the pass is handed out
+     */
+    private boolean separatePass;
+
+    /**
+     * Flow field of the {@link #move(FlowField, double, double, double)} being run in parallel, read by every chunk
+     */
+    private FlowField passField;
+
+    /**
+     * Whether the enemies are being pushed apart this tick, read by every chunk
+     */
+    private boolean passSeparating;
+
+    /**
+     * Player position and tick length of the move being run in parallel, read by every chunk
+     */
+    private double passPlayerX, passPlayerZ, passDt;
+
+    /**
+     * Creates an empty pool
+     * @param groundPlaneBoundingBox the bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}, enemies walk along its top
+     * @param initialCapacity number of enemies to make room for up front
+     */
+    public EnemyPool(double[][] groundPlaneBoundingBox, int initialCapacity) {
+        this.groundPlaneBoundingBox = groundPlaneBoundingBox;
+        this.y = groundPlaneBoundingBox[1][0] - HEIGHT/2;
+
+        initialCapacity = Math.max(initialCapacity, 1);
+        x = new double[initialCapacity];
+        z = new double[initialCapacity];
+        prevX = new double[initialCapacity];
+        prevZ = new double[initialCapacity];
+        HP = new double[initialCapacity];
+        pushX = new double[initialCapacity];
+        pushZ = new double[initialCapacity];
+        crowd = new SpatialHashGrid(groundPlaneBoundingBox, separationRadius);
+    }
+
+    /**
+     * Gets the number of living enemies
+     * @return number of enemies
+     */
+    public int size() { return count; }
+
+    /**
+     * Sets how many living enemies are needed before they're steered in parallel, below this they're steered one after another on the calling thread
+     * @param parallelThreshold fewest enemies to steer in parallel, Integer.MAX_VALUE to always steer serially
+     */
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+
+    /**
+     * Gets how many living enemies are needed before they're steered in parallel
+     * @return fewest enemies steered in parallel
+     */
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    /**
+     * Sets how enemies keep their distance from each other
+     * @param radius enemies closer than this get pushed apart, 0 or less turns separation off
+     * @param maxNeighbours most neighbours an enemy is pushed away from in a tick, keeps the cost of a dense crowd down
+     */
+    public void setSeparation(double radius, int maxNeighbours) {
+        this.separationRadius = Math.max(radius, 0);
+        this.maxNeighbours = Math.max(maxNeighbours, 0);
+        this.neighbourIds = new int[this.maxNeighbours + 1];
+        if (separationRadius > 0) {crowd = new SpatialHashGrid(groundPlaneBoundingBox, separationRadius);}
+    }
+
+    /**
+     * Gets the distance under which enemies get pushed apart
+     * @return separation radius, 0 if separation is off
+     */
+    public double getSeparationRadius() { return separationRadius; }
+
+    /**
+     * Gets the most neighbours an enemy is pushed away from in a tick
+     * @return neighbour cap
+     */
+    public int getMaxNeighbours() { return maxNeighbours; }
+
+    /**
+     * Gets the x position of an enemy
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return x position
+     */
+    public double getX(int i) { return x[i]; }
+
+    /**
+     * Gets the y position of an enemy
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return y position
+     */
+    public double getY(int i) { return y; }
+
+    /**
+     * Gets the z position of an enemy
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return z position
+     */
+    public double getZ(int i) { return z[i]; }
+
+    /**
+     * Gets the x position of an enemy blended between the last two ticks
+     * @param i slot of the enemy, less than {@link #size()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getX(int i, double alpha) { return prevX[i] + (x[i] - prevX[i]) * alpha; }
+
+    /**
+     * Gets the z position of an enemy blended between the last two ticks
+     * @param i slot of the enemy, less than {@link #size()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getZ(int i, double alpha) { return prevZ[i] + (z[i] - prevZ[i]) * alpha; }
+
+    /**
+     * Gets the x position of an enemy as of the previous tick
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return x position
+     */
+    double getPrevX(int i) { return prevX[i]; }
+
+    /**
+     * Gets the z position of an enemy as of the previous tick
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return z position
+     */
+    double getPrevZ(int i) { return prevZ[i]; }
+
+    /**
+     * Copies the position of every living enemy into packed arrays laid out as {x, z} per enemy
+     * @param latest where to write the positions as of the latest tick, needs room for {@link #size()} * 2 values
+     * @param previous where to write the positions as of the tick before, needs room for {@link #size()} * 2 values
+     */
+    void copyPositions(double[] latest, double[] previous) {
+        for (int i = 0, o = 0; i < count; i++, o += 2) {
+            latest[o] = x[i];
+            latest[o + 1] = z[i];
+            previous[o] = prevX[i];
+            previous[o + 1] = prevZ[i];
+        }
+    }
+
+    /**
+     * Mixes the position and HP of every living enemy into a hash
+     * @param hash hash so far
+     * @return new hash
+     */
+    long hash(long hash) {
+        hash = StateHash.mix(hash, count);
+        for (int i = 0; i < count; i++) {
+            hash = StateHash.mix(hash, x[i]);
+            hash = StateHash.mix(hash, z[i]);
+            hash = StateHash.mix(hash, HP[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether an enemy is dead. Dead enemies keep their slot until {@link #removeDead()} is called
+     * @param i slot of the enemy, less than {@link #size()}
+     * @return isDead?
+     */
+    public boolean isDead(int i) { return HP[i] <= 0; }
+
+    /**
+     * Reduces an enemy's health by the damage taken unless the enemy is already dead
+     * @param i slot of the enemy, less than {@link #size()}
+     * @param damage damage taken
+     */
+    public void takeDamage(int i, int damage) {
+        if (isDead(i)) {return;}  // Enemy is already dead
+        HP[i] -= damage;
+    }
+
+    /**
+     * Spawns a new enemy. Where enemies spawn is worked out by a {@link SpawnScheduler}
+     * @param x x position of the enemy's center
+     * @param z z position of the enemy's center
+     */
+    public void spawn(double x, double z) {
+        if (count == this.x.length) {
+            this.x = Arrays.copyOf(this.x, count * 2);
+            this.z = Arrays.copyOf(this.z, count * 2);
+            prevX = Arrays.copyOf(prevX, count * 2);
+            prevZ = Arrays.copyOf(prevZ, count * 2);
+            HP = Arrays.copyOf(HP, count * 2);
+            pushX = Arrays.copyOf(pushX, count * 2);
+            pushZ = Arrays.copyOf(pushZ, count * 2);
+        }
+
+        this.x[count] = x;
+        this.z[count] = z;
+        prevX[count] = x;
+        prevZ[count] = z;
+        HP[count] = MAXHP;
+        count++;
+    }
+
+    /**
+     * Moves every living enemy one tick towards the player
+     * <p>
+     * Each enemy only writes its own slot so the enemies can be split into chunks and steered on several threads at once.
+     * This is done once there are at least {@link #getParallelThreshold()} enemies, the call still only returns once every enemy has moved
+     * @param playerX x position of the player
+     * @param playerZ z position of the player
+     * @param dt length of the tick in seconds
+     */
+    public void move(double playerX, double playerZ, double dt) { move(null, playerX, playerZ, dt); }
+
+    /**
+     * Moves every living enemy one tick along a flow field towards the player, so they path around obstacles instead of walking straight at the player
+     * <p>
+     * Enemies in a cell the field has no direction for (the player's own cell, or one cut off from it) head straight for the player
+     * <p>
+     * Before anyone moves, every enemy works out how hard its neighbours push it away (reading only where everyone started the tick),
+     * then every enemy moves. Each pass can be split across threads since no enemy reads a slot that's being written in the same pass
+     * @param field flow field already {@link FlowField#update updated} for the player's position, or null to head straight for the player
+     * @param playerX x position of the player
+     * @param playerZ z position of the player
+     * @param dt length of the tick in seconds
+     */
+    public void move(FlowField field, double playerX, double playerZ, double dt) {
+        boolean separating = separationRadius > 0 && maxNeighbours > 0 && count > 1;
+        if (separating) {
+            crowd.clear();
+            for (int i = 0; i < count; i++) {
+                crowd.insert(i, x[i], z[i]);
+            }
+            crowd.build();
+        }
+
+        if (count < parallelThreshold) {
+            if (separating) {separate(0, count, neighbourIds);}
+            move(0, count, separating, field, playerX, playerZ, dt);
+            return;
+        }
+
+        // Aim for a few chunks per thread so a thread that finishes early can steal work from one that's behind
+        int chunkSize = Math.max(MINCHUNKSIZE, count / (workers.getParallelism() * 4));
+        chunkCount = (count + chunkSize - 1) / chunkSize;
+        if (chunks.length < chunkCount) {
+            int had = chunks.length;
+            chunks = Arrays.copyOf(chunks, chunkCount);
+            for (int c = had; c < chunkCount; c++) {
+                chunks[c] = new SteerChunk();
+            }
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c].from = c * chunkSize;
+            chunks[c].to = Math.min(count, (c + 1) * chunkSize);
+        }
+
+        passField = field;
+        passSeparating = separating;
+        passPlayerX = playerX;
+        passPlayerZ = playerZ;
+        passDt = dt;
+
+        if (separating) {runPass(true);}
+        runPass(false);
+        passField = null;  // Don't hold on to the field between ticks
+    }
+
+    /**
+     * Runs every chunk on the pool and waits for them all to finish
+     * @param separate whether this is the pass working out the pushes, otherwise it's the pass moving the enemies
+     */
+    private void runPass(boolean separate) {
+        separatePass = separate;
+        steerAll.reinitialize();
+        workers.invoke(steerAll);
+    }
+
+    /**
+     * Works out how hard the enemies in slots [from, to) are pushed away from their neighbours, only reading where enemies are
+     * @param neighbourIds where to write the neighbours found in the grid, one per thread
+     */
+    private void separate(int from, int to, int[] neighbourIds) {
+        double radius = separationRadius;
+
+        for (int i = from; i < to; i++) {
+            double pushedX = 0;
+            double pushedZ = 0;
+
+            // Stops after the cap (plus the enemy itself) so a dense crowd costs no more than a sparse one
+            int found = crowd.queryWithin(x[i], z[i], radius, neighbourIds);
+            for (int k = 0; k < found; k++) {
+                int j = neighbourIds[k];
+                if (j == i) {continue;}
+
+                double dx = x[i] - x[j];
+                double dz = z[i] - z[j];
+                double distanceSquared = VectorMath.lengthSquared(dx, dz);
+
+                // Two enemies on exactly the same spot have no direction between them, so split them by slot along x
+                if (distanceSquared == 0) {
+                    pushedX += j < i ? 1 : -1;
+                    continue;
+                }
+
+                // Away from the neighbour, harder the closer it is: full strength when touching and nothing at the edge of the radius
+                double inverseDistance = 1 / Math.sqrt(distanceSquared);
+                double strength = 1 - distanceSquared * inverseDistance / radius;
+                pushedX += dx * inverseDistance * strength;
+                pushedZ += dz * inverseDistance * strength;
+            }
+
+            // However crowded it gets an enemy is never pushed faster than SEPARATIONWEIGHT times its walking speed
+            double lengthSquared = VectorMath.lengthSquared(pushedX, pushedZ);
+            if (lengthSquared > 1) {
+                double inverseLength = 1 / Math.sqrt(lengthSquared);
+                pushedX *= inverseLength;
+                pushedZ *= inverseLength;
+            }
+
+            pushX[i] = pushedX;
+            pushZ[i] = pushedZ;
+        }
+    }
+
+    /**
+     * Gets the furthest any enemy can move in a tick, walking at {@link #SPEED} plus the hardest push the crowd can give it
+     * @param dt length of the tick in seconds
+     * @return distance in units
+     */
+    public static double maxStep(double dt) { return (1 + SEPARATIONWEIGHT) * SPEED * dt; }
+
+    /**
+     * Moves the enemies in slots [from, to) one tick towards the player
+     * @param separating whether to add the push worked out by {@link #separate} this tick
+     */
+    private void move(int from, int to, boolean separating, FlowField field, double playerX, double playerZ, double dt) {
+        double step = SPEED * dt;
+        double separationStep = SPEED * SEPARATIONWEIGHT * dt;
+
+        for (int i = from; i < to; i++) {
+            prevX[i] = x[i];
+            prevZ[i] = z[i];
+
+            if (separating) {
+                x[i] += separationStep * pushX[i];
+                z[i] += separationStep * pushZ[i];
+            }
+
+            // The field only changes between ticks so any number of threads can read it at once
+            if (field != null) {
+                int cell = field.cellOf(x[i], z[i]);
+                if (field.hasDirection(cell)) {
+                    x[i] += step * field.getDirectionX(cell);
+                    z[i] += step * field.getDirectionZ(cell);
+                    continue;
+                }
+            }
+
+            double dx = x[i] - playerX;
+            double dz = z[i] - playerZ;
+
+            // Normalising (dx, dz) gives the same direction as sin/cos of atan2(dx, dz) without any trig
+            double inverseLength = VectorMath.inverseLength(dx, dz);
+
+            // Standing right on the player there's no direction to head in, atan2(0, 0) is 0 so this used to step along -z
+            if (inverseLength == 0) {
+                z[i] -= step;
+                continue;
+            }
+
+            x[i] -= step * dx * inverseLength;
+            z[i] -= step * dz * inverseLength;
+        }
+    }
+
+    /**
+     * Forks every chunk in use and waits for them. Forking them all from one task means idle threads steal whole chunks straight away
+     */
+    private final class SteerAll extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (int c = chunkCount - 1; c > 0; c--) {
+                chunks[c].reinitialize();
+                chunks[c].fork();
+            }
+
+            // Do the first chunk on this thread rather than waiting idle, then join the rest in the order they'll be at the top of this thread's queue
+            chunks[0].reinitialize();
+            chunks[0].compute();
+            for (int c = 1; c < chunkCount; c++) {
+                chunks[c].join();
+            }
+        }
+    }
+
+    /**
+     * A range of enemies to separate or steer on the ForkJoinPool, reused every tick
+     */
+    private final class SteerChunk extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Slots [from, to) of the enemies this chunk handles this tick
+         */
+        private int from, to;
+
+        /**
+         * Where this chunk writes the neighbours it finds, kept between ticks so separating doesn't allocate
+         */
+        private int[] neighbourIds = new int[0];
+
+        @Override
+        protected void compute() {
+            if (separatePass) {
+                if (neighbourIds.length != maxNeighbours + 1) {neighbourIds = new int[maxNeighbours + 1];}  // Only when the cap changes
+                separate(from, to, neighbourIds);
+            } else {
+                move(from, to, passSeparating, passField, passPlayerX, passPlayerZ, passDt);
+            }
+        }
+    }
+
+    /**
+     * Drops every dead enemy from the pool by moving the last living enemy into its slot, O(1) per dead enemy
+     * <p>
+     * This reorders the enemies so slots handed out before this call shouldn't be used after it
+     */
+    public void removeDead() {
+        int i = 0;
+
+        while (i < count) {
+            // The enemy swapped into this slot hasn't been checked yet so we check the same slot again rather than moving on
+            if (HP[i] <= 0) {
+                int last = --count;
+                x[i] = x[last];
+                z[i] = z[last];
+                prevX[i] = prevX[last];
+                prevZ[i] = prevZ[last];
+                HP[i] = HP[last];
+                continue;
+            }
+
+            i++;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Turns the irregular timestamps of rendered frames into a steady number of simulation ticks
+ * <p>
+ * Every frame the time since the last frame is added to an accumulator, and one tick is taken out of it for every full tick that fits.
+ * Whatever is left over (less than one tick) is reported as {@link #getAlpha()} so the renderer can draw the entities part of the way between
+ * their last two ticks. This keeps the game running at the same speed whatever the monitor's refresh rate is
+ * <p>
+ * If a frame took so long that more than {@link #maxStepsPerFrame} ticks are owed, only that many are run and the rest of the time is dropped.
+ * Otherwise a slow tick would make the next frame owe even more ticks and the game would never catch back up
+ */
+public class FixedTimestep {
+
+    /**
+     * Length of a single tick in nanoseconds
+     */
+    private final long stepNanos;
+
+    /**
+     * Most ticks that can be run in a single frame before time gets dropped
+     */
+    private final int maxStepsPerFrame;
+
+    /**
+     * Timestamp of the last frame in nanoseconds, or -1 before the first frame
+     */
+    private long lastTime = -1;
+
+    /**
+     * Time in nanoseconds that has passed but hasn't been simulated yet
+     */
+    private long accumulator = 0;
+
+    /**
+     * Total number of ticks that were owed but dropped because the catch-up cap was hit
+     */
+    private long droppedSteps = 0;
+
+    /**
+     * Creates a new timestep
+     * @param ticksPerSecond how many times per second the simulation should tick
+     * @param maxStepsPerFrame most ticks to run in a single frame when catching up
+     */
+    public FixedTimestep(double ticksPerSecond, int maxStepsPerFrame) {
+        this.stepNanos = Math.round(1_000_000_000 / ticksPerSecond);
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Gets the length of a tick
+     * @return seconds per tick
+     */
+    public double getStepSeconds() { return stepNanos / 1e9; }
+
+    /**
+     * Gets the length of a tick
+     * @return nanoseconds per tick
+     */
+    public long getStepNanos() { return stepNanos; }
+
+    /**
+     * Gets how long until another full tick is owed, as of the last {@link #update(long)}
+     * @return nanoseconds until the next tick
+     */
+    public long getNanosUntilNextStep() { return stepNanos - accumulator; }
+
+    /**
+     * Works out how many ticks to run for a new frame
+     * @param now timestamp of the frame in nanoseconds, such as the one handed to AnimationTimer.handle()
+     * @return number of ticks to run before drawing this frame
+     */
+    public int update(long now) {
+        // There's nothing to measure against on the first frame
+        if (lastTime < 0) {
+            lastTime = now;
+            return 0;
+        }
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long steps = accumulator / stepNanos;
+
+        // Too far behind to catch up, run the most we're allowed and forget about the rest
+        if (steps > maxStepsPerFrame) {
+            droppedSteps += steps - maxStepsPerFrame;
+            steps = maxStepsPerFrame;
+            accumulator %= stepNanos;
+        } else {
+            accumulator -= steps * stepNanos;
+        }
+
+        return (int) steps;
+    }
+
+    /**
+     * Gets how far the frame is between the last tick and the next one
+     * @return value in [0, 1) where 0 means exactly on the last tick
+     */
+    public double getAlpha() { return (double) accumulator / stepNanos; }
+
+    /**
+     * Gets how many ticks have been dropped because a frame owed more than the catch-up cap
+     * @return total dropped ticks
+     */
+    public long getDroppedSteps() { return droppedSteps; }
+}
@@ -0,0 +1,667 @@
+package Java3DShooter.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * A grid laid over the XZ ground plane where every cell knows which way to head to reach a target (the player) by the shortest path around obstacles
+ * <p>
+ * The field is rebuilt with Dijkstra's algorithm spreading out from the target's cell, but only when the target moves into a different cell or an
+ * obstacle is added. In between, any number of enemies can look up the way to go with {@link #cellOf} and {@link #getDirectionX}/{@link #getDirectionZ},
+ * which is a couple of array reads. So pathing costs the same each tick whether there are a hundred enemies or a hundred thousand, it only depends on
+ * the size of the ground
+ * <p>
+ * Cells with nothing in the way of the target don't get a direction at all, enemies there head straight for the player like they always have,
+ * so the field only changes how enemies move once an obstacle is between them and the player
+ * <p>
+ * Steps to the 8 neighbouring cells cost {@link #STRAIGHTCOST} or {@link #DIAGONALCOST} (about 1 : sqrt(2)) so paths don't favour zig-zagging.
+ * A diagonal step is only taken if both cells beside it are open, so paths never cut the corner of an obstacle, and paths never go through one.
+ * Cells inside an obstacle point the shortest way out of it instead
+ * The field uses only integers and fixed tables, so it builds the same on every machine and replays stay in step
+ * <p>
+ * Nothing is allocated once the field is created
+ */
+public class FlowField {
+
+    /**
+     * Cost of stepping to a cell beside this one
+     */
+    private static final int STRAIGHTCOST = 5;
+
+    /**
+     * Cost of stepping to a cell diagonal to this one, 7/5 is close to sqrt(2)
+     */
+    private static final int DIAGONALCOST = 7;
+
+    /**
+     * Distance of a cell that can't reach the target
+     */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Marks a cell that can't see the target while the field is being built, before it's given a direction
+     */
+    private static final byte HIDDEN = -2;
+
+    /**
+     * Column offset of each of the 8 neighbours, the first 4 are straight and the last 4 diagonal
+     */
+    private static final int[] NEIGHBOURCOLUMN = {1, -1, 0, 0, 1, 1, -1, -1};
+
+    /**
+     * Row offset of each of the 8 neighbours
+     */
+    private static final int[] NEIGHBOURROW = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    /**
+     * Which of the 8 neighbours points back the opposite way to each one
+     */
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 7, 6, 5, 4};
+
+    /**
+     * Unit vector pointing at each of the 8 neighbours along x
+     */
+    private static final double[] DIRECTIONX = new double[8];
+
+    /**
+     * Unit vector pointing at each of the 8 neighbours along z
+     */
+    private static final double[] DIRECTIONZ = new double[8];
+
+    static {
+        double diagonal = 1 / Math.sqrt(2);  // Correctly rounded everywhere so every machine gets the same directions
+        for (int n = 0; n < 8; n++) {
+            double scale = n < 4 ? 1 : diagonal;
+            DIRECTIONX[n] = NEIGHBOURCOLUMN[n] * scale;
+            DIRECTIONZ[n] = NEIGHBOURROW[n] * scale;
+        }
+    }
+
+    /**
+     * Minimum x coordinate covered by the field
+     */
+    private final double minX;
+
+    /**
+     * Minimum z coordinate covered by the field
+     */
+    private final double minZ;
+
+    /**
+     * Width and depth of a single cell
+     */
+    private final double cellSize;
+
+    /**
+     * Number of cells along the x axis
+     */
+    private final int cellsX;
+
+    /**
+     * Number of cells along the z axis
+     */
+    private final int cellsZ;
+
+    /**
+     * Whether each cell is covered by an obstacle
+     */
+    private final boolean[] blocked;
+
+    /**
+     * Cost of the shortest path from each open cell to the target's cell, {@link #UNREACHABLE} if there's no way there. For blocked cells, the cost of
+     * getting out of their obstacle
+     */
+    private final int[] distance;
+
+    /**
+     * Which of the 8 neighbours to head for from each cell, or -1 to head straight for the target (nothing in the way, or the target can't be reached)
+     */
+    private final byte[] direction;
+
+    /**
+     * Number of cells covered by an obstacle
+     */
+    private int blockedCount = 0;
+
+    /**
+     * Slopes hidden from the target by the blocked cells {@link #castShadows} has passed so far, as sorted open intervals that don't overlap packed
+     * as {lowNumerator, lowDenominator, highNumerator, highDenominator} per interval
+     */
+    private int[] shadows;
+
+    /**
+     * Where {@link #shadows} is merged into, swapped with it after every merge
+     */
+    private int[] mergedShadows;
+
+    /**
+     * Shadows cast by the blocked cells of one step, before they're merged into {@link #shadows}
+     */
+    private final int[] stepShadows;
+
+    /**
+     * Number of intervals in {@link #shadows}
+     */
+    private int shadowCount = 0;
+
+    /**
+     * Cells waiting to be visited while building the field, a binary heap of (distance << 32 | cell) so the closest cell is always on top
+     */
+    private final long[] heap;
+
+    /**
+     * Number of entries in {@link #heap}
+     */
+    private int heapSize = 0;
+
+    /**
+     * Cell the target was in when the field was last built, -1 if it hasn't been built yet
+     */
+    private int targetCell = -1;
+
+    /**
+     * Whether an obstacle was added since the field was last built
+     */
+    private boolean dirty = true;
+
+    /**
+     * Number of times the field has been built
+     */
+    private long builds = 0;
+
+    /**
+     * Creates a field covering a bounding box with no obstacles
+     * <p>
+     * Positions outside the bounding box are clamped into the border cells
+     * @param boundingBox the area to cover as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param cellSize width and depth of each cell, smaller cells give tighter paths around obstacles but take longer to build
+     */
+    public FlowField(double[][] boundingBox, double cellSize) {
+        this.minX = boundingBox[0][0];
+        this.minZ = boundingBox[2][0];
+        this.cellSize = cellSize;
+        this.cellsX = Math.max(1, (int) Math.ceil((boundingBox[0][1] - boundingBox[0][0]) / cellSize));
+        this.cellsZ = Math.max(1, (int) Math.ceil((boundingBox[2][1] - boundingBox[2][0]) / cellSize));
+
+        int cells = cellsX * cellsZ;
+        blocked = new boolean[cells];
+        distance = new int[cells];
+        direction = new byte[cells];
+        heap = new long[cells * 8 + 1];  // A cell is only pushed when its distance drops, which happens at most once per neighbour
+
+        // Only slopes between -1 and 1 are kept and every shadow is at least 2 / (cells along) wide, so no more than this many can be apart
+        int maxShadows = 2 * Math.max(cellsX, cellsZ) + 4;
+        shadows = new int[maxShadows * 4];
+        mergedShadows = new int[maxShadows * 4];
+        stepShadows = new int[maxShadows * 4];
+        Arrays.fill(direction, (byte) -1);  // With no obstacles everything heads straight for the target
+    }
+
+    /**
+     * Converts an x coordinate to the column of the cell it falls in
+     */
+    private int column(double x) { return Math.min(cellsX - 1, Math.max(0, (int) Math.floor((x - minX) / cellSize))); }
+
+    /**
+     * Converts a z coordinate to the row of the cell it falls in
+     */
+    private int row(double z) { return Math.min(cellsZ - 1, Math.max(0, (int) Math.floor((z - minZ) / cellSize))); }
+
+    /**
+     * Gets the cell a position falls in
+     * @param x x position
+     * @param z z position
+     * @return index of the cell
+     */
+    public int cellOf(double x, double z) { return row(z) * cellsX + column(x); }
+
+    /**
+     * Checks whether there's a way to go from a cell, if not the caller should head straight for the target (nothing is in the way,
+     * or the cell is cut off from it)
+     * @param cell index of the cell from {@link #cellOf}
+     * @return whether {@link #getDirectionX}/{@link #getDirectionZ} point somewhere
+     */
+    public boolean hasDirection(int cell) { return direction[cell] >= 0; }
+
+    /**
+     * Gets the x part of the unit vector pointing along the shortest path from a cell
+     * @param cell index of the cell from {@link #cellOf}, must {@link #hasDirection}
+     * @return x direction
+     */
+    public double getDirectionX(int cell) { return DIRECTIONX[direction[cell]]; }
+
+    /**
+     * Gets the z part of the unit vector pointing along the shortest path from a cell
+     * @param cell index of the cell from {@link #cellOf}, must {@link #hasDirection}
+     * @return z direction
+     */
+    public double getDirectionZ(int cell) { return DIRECTIONZ[direction[cell]]; }
+
+    /**
+     * Gets the number of times the field has been built
+     * @return number of builds
+     */
+    public long getBuildCount() { return builds; }
+
+    /**
+     * Marks every cell overlapping an area as blocked, the field is rebuilt on the next {@link #update}
+     * @param minX minimum x of the area
+     * @param minZ minimum z of the area
+     * @param maxX maximum x of the area
+     * @param maxZ maximum z of the area
+     */
+    public void addObstacle(double minX, double minZ, double maxX, double maxZ) {
+        for (int r = row(minZ); r <= row(maxZ); r++) {
+            for (int c = column(minX); c <= column(maxX); c++) {
+                // Stacked boxes (like the bands of the flag) share cells, which only need marking once
+                if (blocked[r * cellsX + c]) {continue;}
+                blocked[r * cellsX + c] = true;
+                blockedCount++;
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the field if the target has moved into another cell or an obstacle has been added since the last build
+     * @param targetX x position of the target
+     * @param targetZ z position of the target
+     * @return whether the field was rebuilt
+     */
+    public boolean update(double targetX, double targetZ) {
+        int cell = cellOf(targetX, targetZ);
+        if (blockedCount == 0 || (cell == targetCell && !dirty)) {return false;}  // With no obstacles every cell can always see the target
+
+        targetCell = cell;
+        dirty = false;
+        build();
+        return true;
+    }
+
+    /**
+     * Works out the distance of every cell from the target's cell, then points every cell that can't see the target at its neighbour on the shortest path
+     * <p>
+     * Cells that can see the target already know their distance (a straight line on the grid), so the search only has to spread through the cells
+     * hidden behind obstacles, starting from the edge of what the target can see. With no obstacles there's nothing to search at all.
+     * The search never steps into a blocked cell, so no path goes through an obstacle, and blocked cells are pointed out of their obstacle afterwards
+     */
+    private void build() {
+        builds++;
+        heapSize = 0;
+
+        int targetColumn = targetCell % cellsX;
+        int targetRow = targetCell / cellsX;
+
+        if (blocked[targetCell]) {
+            // A player standing on an obstacle can't see anything from inside it, so search everything from the open cells closest to them instead
+            Arrays.fill(distance, UNREACHABLE);
+            Arrays.fill(direction, HIDDEN);
+            pushClosestOpen(targetColumn, targetRow);
+        } else {
+            distance[targetCell] = 0;
+            direction[targetCell] = -1;
+            castShadows(targetColumn, targetRow, true, 1);
+            castShadows(targetColumn, targetRow, true, -1);
+            castShadows(targetColumn, targetRow, false, 1);
+            castShadows(targetColumn, targetRow, false, -1);
+
+            // Start the search from every visible cell beside a hidden one. Hidden cells are usually the few behind an obstacle, so look around those
+            for (int r = 0, cell = 0; r < cellsZ; r++) {
+                for (int c = 0; c < cellsX; c++, cell++) {
+                    if (direction[cell] != HIDDEN || blocked[cell]) {continue;}
+
+                    for (int n = 0; n < 8; n++) {
+                        int neighbour = step(c, r, n);
+                        if (neighbour >= 0 && direction[neighbour] == -1) {push(distance[neighbour], neighbour);}
+                    }
+                }
+            }
+        }
+
+        while (heapSize > 0) {
+            long top = pop();
+            int cellDistance = (int) (top >>> 32);
+            int cell = (int) top;
+            if (cellDistance > distance[cell]) {continue;}  // Already reached by a shorter path since this was pushed
+
+            int c = cell % cellsX;
+            int r = cell / cellsX;
+
+            for (int n = 0; n < 8; n++) {
+                int neighbour = step(c, r, n);
+
+                if (neighbour < 0 || blocked[neighbour]) {continue;}
+
+                int newDistance = cellDistance + (n < 4 ? STRAIGHTCOST : DIAGONALCOST);
+                if (newDistance < distance[neighbour]) {
+                    distance[neighbour] = newDistance;
+                    push(newDistance, neighbour);
+                }
+            }
+        }
+
+        for (int cell = 0; cell < distance.length; cell++) {
+            if (direction[cell] == HIDDEN && !blocked[cell]) {direction[cell] = (byte) bestNeighbour(cell);}
+        }
+        leadOutOfObstacles();
+        if (blocked[targetCell]) {direction[targetCell] = -1;}  // Anything that makes it into the player's own cell goes straight for them
+    }
+
+    /**
+     * Starts the search from the open cells closest to a target standing on an obstacle, the nearest ring of cells around it with any open cells in it
+     * <p>
+     * Nothing is closer to the target than these cells, so they head straight for it like cells that can see it
+     * @param targetColumn column of the target's cell
+     * @param targetRow row of the target's cell
+     */
+    private void pushClosestOpen(int targetColumn, int targetRow) {
+        int rings = Math.max(cellsX, cellsZ);
+
+        for (int k = 1; k < rings; k++) {
+            boolean found = false;
+
+            for (int dr = -k; dr <= k; dr++) {
+                int r = targetRow + dr;
+                if (r < 0 || r >= cellsZ) {continue;}
+
+                // Every cell along the top and bottom of the ring, only the two ends along its sides
+                int columnStep = Math.abs(dr) == k ? 1 : 2 * k;
+                for (int dc = -k; dc <= k; dc += columnStep) {
+                    int c = targetColumn + dc;
+                    if (c < 0 || c >= cellsX || blocked[r * cellsX + c]) {continue;}
+
+                    int cell = r * cellsX + c;
+                    distance[cell] = STRAIGHTCOST * k + (DIAGONALCOST - STRAIGHTCOST) * Math.min(Math.abs(dc), Math.abs(dr));
+                    direction[cell] = -1;
+                    push(distance[cell], cell);
+                    found = true;
+                }
+            }
+
+            if (found) {return;}
+        }
+    }
+
+    /**
+     * Points every blocked cell towards the closest way out of its obstacle, so anything that ends up inside an obstacle walks out of it rather than
+     * through it
+     * <p>
+     * Blocked cells beside an open cell step into whichever open neighbour is closest to the target (or the nearest one, if none of them lead there).
+     * The cells further in are found by searching inward from those, reusing {@link #distance} for how far each blocked cell is from getting out.
+     * Open cells already have their directions by now, so they never see these distances
+     */
+    private void leadOutOfObstacles() {
+        heapSize = 0;
+
+        for (int cell = 0; cell < distance.length; cell++) {
+            if (!blocked[cell]) {continue;}
+
+            int c = cell % cellsX;
+            int r = cell / cellsX;
+            int best = -1, nearest = -1;
+            long bestDistance = Long.MAX_VALUE;
+            int nearestCost = UNREACHABLE;
+
+            for (int n = 0; n < 8; n++) {
+                int neighbour = neighbour(c, r, n);
+                if (neighbour < 0 || blocked[neighbour]) {continue;}
+
+                int cost = n < 4 ? STRAIGHTCOST : DIAGONALCOST;
+                if (distance[neighbour] != UNREACHABLE && (long) distance[neighbour] + cost < bestDistance) {
+                    best = n;
+                    bestDistance = (long) distance[neighbour] + cost;
+                }
+                if (cost < nearestCost) {
+                    nearest = n;
+                    nearestCost = cost;
+                }
+            }
+
+            distance[cell] = nearestCost;
+            direction[cell] = (byte) (best >= 0 ? best : nearest);
+            if (nearest >= 0) {push(nearestCost, cell);}
+        }
+
+        while (heapSize > 0) {
+            long top = pop();
+            int cellDistance = (int) (top >>> 32);
+            int cell = (int) top;
+            if (cellDistance > distance[cell]) {continue;}
+
+            int c = cell % cellsX;
+            int r = cell / cellsX;
+
+            for (int n = 0; n < 8; n++) {
+                int neighbour = neighbour(c, r, n);
+                if (neighbour < 0 || !blocked[neighbour]) {continue;}
+
+                int newDistance = cellDistance + (n < 4 ? STRAIGHTCOST : DIAGONALCOST);
+                if (newDistance < distance[neighbour]) {
+                    distance[neighbour] = newDistance;
+                    direction[neighbour] = (byte) OPPOSITE[n];
+                    push(newDistance, neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out which cells in a quarter of the grid around the target can see it, giving those their distance and marking the rest {@link #HIDDEN}
+     * <p>
+     * A straight line from anywhere in a cell to anywhere in the target's cell stays within half a cell of the line between their centers, so it's
+     * clear if that line passes less than a cell (along x and z) from the center of no blocked cell. Measured in cells from the target's center, a
+     * blocked cell at (i, j) is then in the way of every line whose slope is in an open interval worked out from the corners of the 2 cell wide
+     * square around it, once the line is long enough to get past it. So the quarter is walked a step at a time away from the target, checking
+     * each cell's slope against the shadows cast by every blocked cell it has passed, then adding the shadows of the blocked cells on this step.
+     * The shadows are kept sorted and merged, so a step costs about its number of cells. The only line that gets close to a blocked cell on the
+     * same step is one from right beside it, further from the target's row. It's all integer fractions, so every machine sees the same cells
+     * @param targetColumn column of the target's cell
+     * @param targetRow row of the target's cell
+     * @param alongColumns whether steps are columns (the quarters to the sides, including the diagonals) or rows (the quarters in front and behind)
+     * @param sign which way the steps go from the target, 1 or -1
+     */
+    private void castShadows(int targetColumn, int targetRow, boolean alongColumns, int sign) {
+        int majorTarget = alongColumns ? targetColumn : targetRow;
+        int minorTarget = alongColumns ? targetRow : targetColumn;
+        int minorCells = alongColumns ? cellsZ : cellsX;
+        int steps = sign > 0 ? (alongColumns ? cellsX : cellsZ) - 1 - majorTarget : majorTarget;
+        int diagonal = alongColumns ? 0 : 1;  // Cells on the diagonals belong to the quarters stepped along columns
+
+        shadowCount = 0;
+        for (int a = 0; a <= steps; a++) {
+            int major = majorTarget + sign * a;
+
+            if (a > 0) {
+                int first = Math.max(diagonal - a, -minorTarget);
+                int last = Math.min(a - diagonal, minorCells - 1 - minorTarget);
+
+                // From the lowest slope to the highest, skipping past every shadow that ends before each cell's slope b / a
+                for (int b = first, s = 0; b <= last; b++) {
+                    while (s < shadowCount && compare(shadows[s * 4 + 2], shadows[s * 4 + 3], b, a) <= 0) {s++;}
+
+                    int cell = cellAt(alongColumns, major, minorTarget + b);
+                    boolean hidden = blocked[cell]
+                            || (s < shadowCount && compare(shadows[s * 4], shadows[s * 4 + 1], b, a) < 0)
+                            || (b != 0 && blocked[cellAt(alongColumns, major, minorTarget + b - Integer.signum(b))]);
+
+                    if (hidden) {
+                        distance[cell] = UNREACHABLE;
+                        direction[cell] = HIDDEN;
+                    } else {
+                        distance[cell] = STRAIGHTCOST * a + (DIAGONALCOST - STRAIGHTCOST) * Math.abs(b);
+                        direction[cell] = -1;
+                    }
+                }
+            }
+
+            addShadows(alongColumns, major, a, minorTarget, minorCells);
+        }
+    }
+
+    /**
+     * Merges the shadows cast by the blocked cells on one step into {@link #shadows}, every line longer than the step is checked against them
+     * @param alongColumns whether steps are columns or rows
+     * @param major column (or row) of the step
+     * @param i number of steps from the target
+     * @param minorTarget row (or column) of the target
+     * @param minorCells number of cells along a step
+     */
+    private void addShadows(boolean alongColumns, int major, int i, int minorTarget, int minorCells) {
+        int stepCount = 0;
+
+        for (int j = -minorTarget; j < minorCells - minorTarget; j++) {
+            if (!blocked[cellAt(alongColumns, major, minorTarget + j)]) {continue;}
+
+            // Steepest and shallowest corners of the square, a corner level with the target is as steep as can be, which is clamped to 2
+            int lowNumerator = j - 1, lowDenominator = j - 1 >= 0 ? i + 1 : i - 1;
+            if (lowDenominator <= 0) {lowNumerator = -2; lowDenominator = 1;}
+            int highNumerator = j + 1, highDenominator = j + 1 <= 0 ? i + 1 : i - 1;
+            if (highDenominator <= 0) {highNumerator = 2; highDenominator = 1;}
+
+            // Only slopes from -1 to 1 are ever checked
+            if (highNumerator <= -highDenominator || lowNumerator >= lowDenominator) {continue;}
+
+            // The squares of neighbouring blocked cells overlap, and come in order of slope, so each one either grows the last shadow or starts the next
+            int last = (stepCount - 1) * 4;
+            if (stepCount > 0 && compare(lowNumerator, lowDenominator, stepShadows[last + 2], stepShadows[last + 3]) < 0) {
+                stepShadows[last + 2] = highNumerator;
+                stepShadows[last + 3] = highDenominator;
+            } else {
+                stepShadows[stepCount * 4] = lowNumerator;
+                stepShadows[stepCount * 4 + 1] = lowDenominator;
+                stepShadows[stepCount * 4 + 2] = highNumerator;
+                stepShadows[stepCount * 4 + 3] = highDenominator;
+                stepCount++;
+            }
+        }
+        if (stepCount == 0) {return;}
+
+        int merged = 0;
+        for (int s = 0, n = 0; s < shadowCount || n < stepCount; ) {
+            int[] from;
+            int at;
+            if (n >= stepCount || (s < shadowCount && compare(shadows[s * 4], shadows[s * 4 + 1], stepShadows[n * 4], stepShadows[n * 4 + 1]) <= 0)) {
+                from = shadows;
+                at = s++ * 4;
+            } else {
+                from = stepShadows;
+                at = n++ * 4;
+            }
+
+            int last = (merged - 1) * 4;
+            if (merged > 0 && compare(from[at], from[at + 1], mergedShadows[last + 2], mergedShadows[last + 3]) < 0) {
+                if (compare(from[at + 2], from[at + 3], mergedShadows[last + 2], mergedShadows[last + 3]) > 0) {
+                    mergedShadows[last + 2] = from[at + 2];
+                    mergedShadows[last + 3] = from[at + 3];
+                }
+            } else {
+                System.arraycopy(from, at, mergedShadows, merged++ * 4, 4);
+            }
+        }
+
+        int[] swap = shadows;
+        shadows = mergedShadows;
+        mergedShadows = swap;
+        shadowCount = merged;
+    }
+
+    /**
+     * Gets a cell by its position along and across the steps of a quarter
+     */
+    private int cellAt(boolean alongColumns, int major, int minor) { return alongColumns ? minor * cellsX + major : major * cellsX + minor; }
+
+    /**
+     * Compares two fractions with positive denominators
+     * @return negative, zero, or positive as the first is less than, equal to, or more than the second
+     */
+    private static int compare(int numerator, int denominator, int otherNumerator, int otherDenominator) {
+        return Integer.compare(numerator * otherDenominator, otherNumerator * denominator);
+    }
+
+    /**
+     * Finds the neighbour on the shortest path from an open cell to the target
+     * @return which of the 8 neighbours to head for, or -1 if none of them lead to the target
+     */
+    private int bestNeighbour(int cell) {
+        int c = cell % cellsX;
+        int r = cell / cellsX;
+
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+
+        for (int n = 0; n < 8; n++) {
+            int neighbour = step(c, r, n);
+            if (neighbour < 0 || distance[neighbour] == UNREACHABLE) {continue;}
+
+            long viaNeighbour = (long) distance[neighbour] + (n < 4 ? STRAIGHTCOST : DIAGONALCOST);
+            if (viaNeighbour < bestDistance) {
+                best = n;
+                bestDistance = viaNeighbour;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Gets the cell one step away in a direction
+     * @return index of the neighbouring cell, or -1 if it's off the grid or a diagonal that would cut the corner of a blocked cell
+     */
+    private int step(int c, int r, int n) {
+        int neighbour = neighbour(c, r, n);
+        if (neighbour < 0) {return -1;}
+
+        if (n >= 4 && (blocked[r * cellsX + c + NEIGHBOURCOLUMN[n]] || blocked[(r + NEIGHBOURROW[n]) * cellsX + c])) {return -1;}
+
+        return neighbour;
+    }
+
+    /**
+     * Gets the cell one step away in a direction, diagonals included even if they cut a corner
+     * @return index of the neighbouring cell, or -1 if it's off the grid
+     */
+    private int neighbour(int c, int r, int n) {
+        int nc = c + NEIGHBOURCOLUMN[n];
+        int nr = r + NEIGHBOURROW[n];
+        if (nc < 0 || nc >= cellsX || nr < 0 || nr >= cellsZ) {return -1;}
+
+        return nr * cellsX + nc;
+    }
+
+    /**
+     * Adds a cell to the heap
+     */
+    private void push(int cellDistance, int cell) {
+        long entry = (long) cellDistance << 32 | cell;
+        int i = heapSize++;
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {break;}
+            heap[i] = heap[parent];
+            i = parent;
+        }
+
+        heap[i] = entry;
+    }
+
+    /**
+     * Takes the closest cell off the heap
+     */
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= heapSize) {break;}
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {child++;}
+            if (last <= heap[child]) {break;}
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = last;
+        return top;
+    }
+}
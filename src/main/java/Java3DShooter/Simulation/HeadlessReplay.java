@@ -0,0 +1,114 @@
+package Java3DShooter.Simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays an {@link InputRecording} as fast as possible with no display, then reports how long it took and whether it stayed in step
+ * <p>
+ * Every hash stored in the recording is checked against the replayed world, so the same recording gives the same hashes on any machine.
+ * The process exits with status 1 if any of them differ, which makes this usable as a CI check as well as a load test:
+ * <pre>
+ * java -cp build/classes/java/main Java3DShooter.Simulation.HeadlessReplay session.rec [repeats]
+ * </pre>
+ * The replay is run repeats times (default 5) in the same JVM, the later runs are what to look at once the JIT has warmed up
+ */
+public class HeadlessReplay {
+
+    /**
+     * Result of replaying a recording once
+     */
+    private static final class Result {
+        long nanos;
+        long finalHash;
+        TickProfiler profiler;
+        int checkpointsMatched;
+        int checkpointsFailed;
+    }
+
+    /**
+     * Replays a recording into a fresh world
+     * @param recording the recording to replay
+     * @return how long the replay took and how its hashes compared
+     */
+    private static Result replay(InputRecording recording) {
+        World world = recording.createWorld();
+        Result result = new Result();
+        long tick = 0;
+
+        long allocatedBefore = TickProfiler.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int run = 0; run < recording.getRunCount(); run++) {
+            long actions = recording.getRunActions(run);
+            for (int i = recording.getRunLength(run); i > 0; i--) {
+                world.tick(actions);
+                tick++;
+
+                Long expected = recording.getCheckpoint(tick);
+                if (expected == null) {continue;}
+
+                long hash = world.stateHash();
+                if (hash == expected) {
+                    result.checkpointsMatched++;
+                } else {
+                    result.checkpointsFailed++;
+                    System.out.printf("  tick %d: expected hash %016x but got %016x%n", tick, expected, hash);
+                }
+            }
+        }
+        result.nanos = System.nanoTime() - start;
+        result.finalHash = world.stateHash();
+        result.profiler = world.getProfiler();
+        result.profiler.setSimulationAllocatedBytes(TickProfiler.currentThreadAllocatedBytes() - allocatedBefore);
+
+        return result;
+    }
+
+    /**
+     * Driver code for the replay
+     * @param args path to the recording, then optionally how many times to replay it
+     * @throws IOException if the recording can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessReplay <recording> [repeats]");
+            System.exit(2);
+        }
+
+        InputRecording recording = InputRecording.read(Path.of(args[0]));
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("Replaying %s: %d ticks at %.0f ticks/s, seed %d, %d checkpoints%n",
+                args[0], recording.getTickCount(), recording.getTicksPerSecond(), recording.getSeed(), recording.getCheckpointCount());
+
+        long bestNanos = Long.MAX_VALUE;
+        TickProfiler lastProfiler = null;
+        Long firstHash = null;
+        boolean failed = false;
+
+        for (int i = 1; i <= repeats; i++) {
+            Result result = replay(recording);
+            bestNanos = Math.min(bestNanos, result.nanos);
+            lastProfiler = result.profiler;
+
+            System.out.printf("run %d: %.1f ms (%.2f us/tick), final hash %016x, checkpoints %d/%d matched%n",
+                    i, result.nanos / 1e6, result.nanos / 1e3 / Math.max(recording.getTickCount(), 1), result.finalHash,
+                    result.checkpointsMatched, result.checkpointsMatched + result.checkpointsFailed);
+
+            // Replays of the same recording in the same JVM should never disagree with each other either
+            if (firstHash == null) {firstHash = result.finalHash;}
+            failed |= result.checkpointsFailed > 0 || result.finalHash != firstHash;
+        }
+
+        System.out.printf("best: %.2f us/tick%n", bestNanos / 1e3 / Math.max(recording.getTickCount(), 1));
+        if (lastProfiler != null) {
+            System.out.println();
+            System.out.println(lastProfiler.summary());  // Per-phase breakdown of the last (warmest) run, the frame phases stay empty without a display
+        }
+
+        if (failed) {
+            System.out.println("FAILED: replay did not match the recording");
+            System.exit(1);
+        }
+    }
+}
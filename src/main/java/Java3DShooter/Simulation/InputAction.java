@@ -0,0 +1,97 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Everything the player can do, each bound to the key that does it by default
+ * <p>
+ * The simulation only ever sees actions, never keys, so which key does what is up to whoever is feeding input in. A set of actions is stored as
+ * a bitmask with one bit per action ({@code 1L << ordinal()}), which is how an EnumSet stores them too, but a mask can be copied between threads
+ * and from tick to tick without allocating or hashing anything
+ * <p>
+ * Keys are named the way JavaFX names them (KeyCode.getName()), which is also how they're written in an {@link InputRecording}
+ */
+public enum InputAction {
+    /** Tilt the camera up */
+    LOOKUP("Up"),
+    /** Tilt the camera down */
+    LOOKDOWN("Down"),
+    /** Turn the camera left */
+    LOOKLEFT("Left"),
+    /** Turn the camera right */
+    LOOKRIGHT("Right"),
+    /** Move the way the camera is facing */
+    FORWARD("W"),
+    /** Move away from the way the camera is facing */
+    BACKWARD("S"),
+    /** Move to the camera's left */
+    STRAFELEFT("A"),
+    /** Move to the camera's right */
+    STRAFERIGHT("D"),
+    /** Move up */
+    ASCEND("Space"),
+    /** Move down */
+    DESCEND("Shift"),
+    /** Fire a bullet the way the camera is facing */
+    SHOOT("Y");
+
+    /**
+     * Every action, cached since values() copies its array on every call
+     */
+    private static final InputAction[] ACTIONS = values();
+
+    /**
+     * Name of the key bound to the action by default
+     */
+    private final String keyName;
+
+    /**
+     * Bit of the action in a mask of actions
+     */
+    private final long bit;
+
+    /**
+     * Creates an action
+     * @param keyName name of the key bound to it by default
+     */
+    InputAction(String keyName) {
+        this.keyName = keyName;
+        this.bit = 1L << ordinal();
+    }
+
+    /**
+     * Gets the name of the key bound to the action by default
+     * @return name of the key as given by KeyCode.getName()
+     */
+    public String getKeyName() { return keyName; }
+
+    /**
+     * Gets the bit of the action in a mask of actions
+     * @return mask with only this action set
+     */
+    public long bit() { return bit; }
+
+    /**
+     * Checks whether a mask holds the action
+     * @param mask mask of actions
+     * @return whether the action's bit is set
+     */
+    public boolean in(long mask) { return (mask & bit) != 0; }
+
+    /**
+     * Finds the action a key is bound to by default
+     * @param keyName name of the key as given by KeyCode.getName()
+     * @return the action, or null if the key isn't bound to anything
+     */
+    public static InputAction forKey(String keyName) {
+        for (InputAction action : ACTIONS) {
+            if (action.keyName.equals(keyName)) {return action;}
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets every action there is, the index of each action is its ordinal
+     * @return the actions, don't modify this
+     */
+    static InputAction[] all() { return ACTIONS; }
+}
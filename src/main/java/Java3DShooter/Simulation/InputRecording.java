@@ -0,0 +1,397 @@
+package Java3DShooter.Simulation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every action held on every tick of a session, along with everything needed to build the same world again (seed, tick rate, ground, player start,
+ * obstacles, spawn zones, and wave curve)
+ * <p>
+ * Since the World only changes through the actions it's ticked with, replaying a recording into a fresh world plays the session out exactly the same way.
+ * Every so often the hash of the world is stored too ({@link World#stateHash()}), so a replay can check it's still in step with the original
+ * <p>
+ * Recordings are saved as plain text. Ticks in a row with the same actions held are stored as a single run, so a long session stays small:
+ * <pre>
+ * # Java3DShooter input recording
+ * seed 1234
+ * tickrate 60
+ * ground -1500 1500 0 10 -1500 1500
+ * player 0 -10 -200
+ * obstacle -50 50 -100 -20 -50 50
+ * spawnzone -1500 -1500 1500 -1000
+ * waves 5 1 0 1 1
+ * keys 1 Left W +Left +W
+ * keys 119 Left W
+ * keys 1 -Left -W
+ * keys 29
+ * hash 150 8c1f0e6a3b2d4c59
+ * </pre>
+ * "obstacle" lines are the bounding boxes of any obstacles added to the world in the same layout as "ground", there can be any number of them.
+ * "spawnzone xMin zMin xMax zMax" lines are the areas enemies were limited to spawning in, recordings without any let enemies spawn anywhere.
+ * "waves" is the {@link WaveCurve} enemies spawned by ({@link WaveCurve#format()}), recordings without one used {@link WaveCurve#DEFAULT}.
+ * "keys n k1 k2 ..." means the actions bound to the keys k1, k2, ... by default ({@link InputAction#getKeyName()}) were held for the next n ticks
+ * (spaces in key names are written as underscores), a key written as +k was pressed since the tick before and one written as -k was released. Keys that aren't bound to an action are skipped when reading, they never changed the world anyway.
+ * "hash t h" is the world's hash in hex after t ticks
+ */
+public class InputRecording {
+
+    /**
+     * First line of every recording file
+     */
+    private static final String HEADER = "# Java3DShooter input recording";
+
+    /**
+     * Seed of the recorded world's random number generator
+     */
+    private final long seed;
+
+    /**
+     * Number of times the recorded world was ticked per second
+     */
+    private final double ticksPerSecond;
+
+    /**
+     * The bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     */
+    private final double[][] groundPlaneBoundingBox;
+
+    /**
+     * Where the player started as {x, y, z}
+     */
+    private final double[] playerStart;
+
+    /**
+     * Bounding box of every obstacle in the world, each defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     */
+    private final List<double[][]> obstacles = new ArrayList<>();
+
+    /**
+     * Every area enemies were limited to spawning in, each as {minX, minZ, maxX, maxZ}
+     */
+    private final List<double[]> spawnZones = new ArrayList<>();
+
+    /**
+     * How many enemies spawned and how often
+     */
+    private WaveCurve waves = WaveCurve.DEFAULT;
+
+    /**
+     * The {@link InputAction}s held, pressed, and released during each run of ticks, packed by {@link TickInput#pack}
+     */
+    private final List<Long> runActions = new ArrayList<>();
+
+    /**
+     * Number of ticks in each run
+     */
+    private final List<Integer> runLengths = new ArrayList<>();
+
+    /**
+     * Hash of the world after certain ticks, keyed by the number of ticks run
+     */
+    private final TreeMap<Long, Long> checkpoints = new TreeMap<>();
+
+    /**
+     * Total number of ticks recorded
+     */
+    private long tickCount = 0;
+
+    /**
+     * Creates an empty recording for a world
+     * @param seed seed of the world's random number generator
+     * @param ticksPerSecond number of times the world is ticked per second
+     * @param groundPlaneBoundingBox the bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param playerX x position the player starts at
+     * @param playerY y position the player starts at
+     * @param playerZ z position the player starts at
+     */
+    public InputRecording(long seed, double ticksPerSecond, double[][] groundPlaneBoundingBox, double playerX, double playerY, double playerZ) {
+        this.seed = seed;
+        this.ticksPerSecond = ticksPerSecond;
+        this.groundPlaneBoundingBox = groundPlaneBoundingBox;
+        this.playerStart = new double[] {playerX, playerY, playerZ};
+    }
+
+    /**
+     * Builds a fresh world in the same starting state as the recorded one
+     * @return new World, tick it with {@link #getRunActions(int)} for {@link #getRunLength(int)} ticks per run to replay the session
+     */
+    public World createWorld() {
+        World world = new World(groundPlaneBoundingBox, new PlayerState(playerStart[0], playerStart[1], playerStart[2]), ticksPerSecond, seed);
+        for (double[][] obstacle : obstacles) {
+            world.addObstacle(obstacle);
+        }
+        for (double[] zone : spawnZones) {
+            world.addSpawnZone(zone[0], zone[1], zone[2], zone[3]);
+        }
+        world.setWaves(waves);
+
+        return world;
+    }
+
+    /**
+     * Records an obstacle the world was built with, add these before the first tick like the world's own obstacles
+     * @param boundingBox the bounding box of the obstacle as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     */
+    public void addObstacle(double[][] boundingBox) { obstacles.add(boundingBox); }
+
+    /**
+     * Records an area enemies were limited to spawning in, add these before the first tick like the world's own spawn zones
+     * @param minX minimum x coordinate of the area
+     * @param minZ minimum z coordinate of the area
+     * @param maxX maximum x coordinate of the area
+     * @param maxZ maximum z coordinate of the area
+     */
+    public void addSpawnZone(double minX, double minZ, double maxX, double maxZ) { spawnZones.add(new double[] {minX, minZ, maxX, maxZ}); }
+
+    /**
+     * Records the wave curve the world spawned enemies by
+     * @param waves the wave curve
+     */
+    public void setWaves(WaveCurve waves) { this.waves = waves; }
+
+    /**
+     * Records the actions for one tick
+     * @param actions the actions held, pressed, and released, as passed to {@link World#tick}
+     */
+    public void record(long actions) {
+        int last = runActions.size() - 1;
+        if (last >= 0 && runActions.get(last) == actions) {
+            runLengths.set(last, runLengths.get(last) + 1);  // Same actions as last tick, extend the run
+        } else {
+            runActions.add(actions);
+            runLengths.add(1);
+        }
+
+        tickCount++;
+    }
+
+    /**
+     * Stores the world's hash as of the ticks recorded so far
+     * @param hash {@link World#stateHash()} after the last recorded tick
+     */
+    public void checkpoint(long hash) { checkpoints.put(tickCount, hash); }
+
+    /**
+     * Gets the seed of the recorded world
+     * @return seed
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * Gets the tick rate of the recorded world
+     * @return ticks per second
+     */
+    public double getTicksPerSecond() { return ticksPerSecond; }
+
+    /**
+     * Gets the number of ticks recorded
+     * @return number of ticks
+     */
+    public long getTickCount() { return tickCount; }
+
+    /**
+     * Gets the number of runs of ticks with the same actions held
+     * @return number of runs
+     */
+    public int getRunCount() { return runActions.size(); }
+
+    /**
+     * Gets the actions held, pressed, and released during a run
+     * @param run index of the run, less than {@link #getRunCount()}
+     * @return the {@link InputAction}s packed by {@link TickInput#pack}, as passed to {@link World#tick}
+     */
+    public long getRunActions(int run) { return runActions.get(run); }
+
+    /**
+     * Gets the number of ticks in a run
+     * @param run index of the run, less than {@link #getRunCount()}
+     * @return number of ticks
+     */
+    public int getRunLength(int run) { return runLengths.get(run); }
+
+    /**
+     * Gets the hash the world had after a tick, if one was stored
+     * @param tick number of ticks run
+     * @return hash, or null if there's no checkpoint for that tick
+     */
+    public Long getCheckpoint(long tick) { return checkpoints.get(tick); }
+
+    /**
+     * Gets the number of hashes stored
+     * @return number of checkpoints
+     */
+    public int getCheckpointCount() { return checkpoints.size(); }
+
+    /**
+     * Saves the recording to a file, overwriting it if it exists
+     * @param file file to save to
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            out.write("seed " + seed);
+            out.newLine();
+            out.write("tickrate " + ticksPerSecond);
+            out.newLine();
+            writeBox(out, "ground", groundPlaneBoundingBox);
+            out.write("player " + playerStart[0] + " " + playerStart[1] + " " + playerStart[2]);
+            out.newLine();
+            for (double[][] obstacle : obstacles) {
+                writeBox(out, "obstacle", obstacle);
+            }
+            for (double[] zone : spawnZones) {
+                out.write("spawnzone " + zone[0] + " " + zone[1] + " " + zone[2] + " " + zone[3]);
+                out.newLine();
+            }
+            out.write("waves " + waves.format());
+            out.newLine();
+
+            // Interleave the checkpoints with the runs so each one sits next to the run it was taken in
+            long tick = 0;
+            for (int run = 0; run < runActions.size(); run++) {
+                writeCheckpoints(out, tick, tick + runLengths.get(run));
+
+                long actions = runActions.get(run);
+                out.write("keys " + runLengths.get(run));
+                writeKeys(out, "", actions);
+                writeKeys(out, "+", actions >>> TickInput.PRESSEDSHIFT);
+                writeKeys(out, "-", actions >>> TickInput.RELEASEDSHIFT);
+                out.newLine();
+
+                tick += runLengths.get(run);
+            }
+            writeCheckpoints(out, tick, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Writes the key of every action in the low bits of a mask, each one after a space and a prefix
+     */
+    private static void writeKeys(BufferedWriter out, String prefix, long mask) throws IOException {
+        for (InputAction action : InputAction.all()) {
+            if (!action.in(mask)) {continue;}
+            out.write(" " + prefix + action.getKeyName().replace(' ', '_'));  // Some key names have spaces in them ("Page Up")
+        }
+    }
+
+    /**
+     * Writes a line holding a bounding box as {xMin xMax yMin yMax zMin zMax}
+     */
+    private static void writeBox(BufferedWriter out, String name, double[][] boundingBox) throws IOException {
+        out.write(name);
+        for (double[] axis : boundingBox) {
+            out.write(" " + axis[0] + " " + axis[1]);
+        }
+        out.newLine();
+    }
+
+    /**
+     * Reads a bounding box written by {@link #writeBox}
+     */
+    private static double[][] readBox(String[] parts) {
+        double[][] boundingBox = new double[3][2];
+        for (int i = 0; i < 6; i++) {
+            boundingBox[i / 2][i % 2] = Double.parseDouble(parts[i + 1]);
+        }
+        return boundingBox;
+    }
+
+    /**
+     * Writes every checkpoint taken after at least from ticks and before to ticks
+     */
+    private void writeCheckpoints(BufferedWriter out, long from, long to) throws IOException {
+        for (Map.Entry<Long, Long> checkpoint : checkpoints.subMap(from, true, to, false).entrySet()) {
+            out.write("hash " + checkpoint.getKey() + " " + Long.toHexString(checkpoint.getValue()));
+            out.newLine();
+        }
+    }
+
+    /**
+     * Loads a recording saved by {@link #write(Path)}
+     * @param file file to load
+     * @return the recording
+     * @throws IOException if the file can't be read or isn't a recording
+     */
+    public static InputRecording read(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {throw new IOException(file + " is not an input recording");}
+
+            long seed = Long.parseLong(field(in, "seed")[1]);
+            double ticksPerSecond = Double.parseDouble(field(in, "tickrate")[1]);
+
+            double[][] groundPlaneBoundingBox = readBox(field(in, "ground"));
+
+            String[] player = field(in, "player");
+            InputRecording recording = new InputRecording(seed, ticksPerSecond, groundPlaneBoundingBox,
+                    Double.parseDouble(player[1]), Double.parseDouble(player[2]), Double.parseDouble(player[3]));
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {continue;}
+                String[] parts = line.trim().split(" +");
+
+                switch (parts[0]) {
+                    case "obstacle":
+                        recording.addObstacle(readBox(parts));
+                        break;
+                    case "spawnzone":
+                        recording.addSpawnZone(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                                Double.parseDouble(parts[3]), Double.parseDouble(parts[4]));
+                        break;
+                    case "waves":
+                        recording.setWaves(WaveCurve.parse(line.trim().substring("waves".length())));
+                        break;
+                    case "keys":
+                        int length = Integer.parseInt(parts[1]);
+                        long actions = 0;
+                        for (int i = 2; i < parts.length; i++) {
+                            String key = parts[i];
+                            int shift = 0;
+                            if (key.length() > 1 && key.charAt(0) == '+') {
+                                shift = TickInput.PRESSEDSHIFT;
+                                key = key.substring(1);
+                            } else if (key.length() > 1 && key.charAt(0) == '-') {
+                                shift = TickInput.RELEASEDSHIFT;
+                                key = key.substring(1);
+                            }
+
+                            InputAction action = InputAction.forKey(key.replace('_', ' '));
+                            if (action != null) {actions |= action.bit() << shift;}
+                        }
+
+                        recording.runActions.add(actions);
+                        recording.runLengths.add(length);
+                        recording.tickCount += length;
+                        break;
+                    case "hash":
+                        recording.checkpoints.put(Long.parseLong(parts[1]), Long.parseUnsignedLong(parts[2], 16));
+                        break;
+                    default:
+                        throw new IOException("Unknown line in " + file + ": " + line);
+                }
+            }
+
+            return recording;
+        }
+    }
+
+    /**
+     * Reads the next line and checks it's the field we expect
+     */
+    private static String[] field(BufferedReader in, String name) throws IOException {
+        String line = in.readLine();
+        String[] parts = line == null ? new String[0] : line.trim().split(" +");
+        if (parts.length < 2 || !parts[0].equals(name)) {throw new IOException("Expected '" + name + "' but found: " + line);}
+        return parts;
+    }
+}
@@ -0,0 +1,52 @@
+package Java3DShooter.Simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The actions currently held, written by whichever thread handles input and read by the simulation thread once per tick
+ * <p>
+ * The actions held, pressed since the last tick, and released since the last tick are packed into one AtomicLong the same way as a tick's input
+ * ({@link TickInput#pack}), so pressing and releasing keys never locks, hashes, or allocates. Presses and releases are recorded as the key events
+ * arrive and cleared when the next tick picks them up through {@link #latch()}, so a key tapped faster than a tick still counts as held for one tick,
+ * and a key let go and pressed again between two ticks is seen as both released and pressed instead of as held the whole time
+ */
+public class InputState {
+
+    /**
+     * Actions held right now, with the actions pressed and released since the last {@link #latch()} above them
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Marks an action as held. Key repeat while it's already held isn't another press
+     * @param action the action pressed
+     */
+    public void press(InputAction action) {
+        // Non-capturing lambdas so these don't allocate
+        state.getAndAccumulate(action.bit(), (actions, bit) -> (actions & bit) != 0 ? actions : actions | bit | bit << TickInput.PRESSEDSHIFT);
+    }
+
+    /**
+     * Marks an action as no longer held. If it was pressed since the last tick the next tick still sees it
+     * @param action the action released
+     */
+    public void release(InputAction action) {
+        state.getAndAccumulate(action.bit(), (actions, bit) -> (actions & bit) == 0 ? actions : actions & ~bit | bit << TickInput.RELEASEDSHIFT);
+    }
+
+    /**
+     * Lets go of every action, such as when the window loses focus and the key releases would never arrive
+     */
+    public void releaseAll() {
+        state.getAndUpdate(actions -> actions & ~TickInput.ACTIONSMASK | (actions & TickInput.ACTIONSMASK) << TickInput.RELEASEDSHIFT);
+    }
+
+    /**
+     * Takes the actions for the next tick and clears the buffered presses and releases. Only call this from the simulation thread
+     * @return the tick's input ({@link TickInput#pack}), every action pressed since the last call counts as held even if it's been released again
+     */
+    public long latch() {
+        long actions = state.getAndUpdate(held -> held & TickInput.ACTIONSMASK);
+        return actions | actions >>> TickInput.PRESSEDSHIFT & TickInput.ACTIONSMASK;
+    }
+}
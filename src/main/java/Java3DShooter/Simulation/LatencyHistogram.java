@@ -0,0 +1,153 @@
+package Java3DShooter.Simulation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long something took, over and over, and answers percentile questions about it (in the style of HdrHistogram)
+ * <p>
+ * Values are sorted into buckets that get wider as values get larger: every power of two is split into {@link #SUBBUCKETS} buckets, so any value is
+ * reported within about 6% of what was recorded while the whole range from 1ns to centuries fits in under a thousand counters. Recording a value is a
+ * couple of bit operations and an array write, it never allocates or locks
+ * <p>
+ * Only one thread may record into a histogram, but any thread can read it (such as JMX or the on-screen overlay) while it's being recorded into
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    /**
+     * Number of bits used to split each power of two into buckets
+     */
+    private static final int SUBBUCKETBITS = 4;
+
+    /**
+     * Number of buckets each power of two is split into
+     */
+    private static final int SUBBUCKETS = 1 << SUBBUCKETBITS;
+
+    /**
+     * Number of values recorded into each bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUBBUCKETBITS + 1) * SUBBUCKETS);
+
+    /**
+     * Number of values recorded
+     */
+    private volatile long count = 0;
+
+    /**
+     * Sum of every value recorded, used for the mean
+     */
+    private volatile long total = 0;
+
+    /**
+     * Largest value recorded
+     */
+    private volatile long max = 0;
+
+    /**
+     * Set by a reader to ask the recording thread to clear the histogram before its next value, so readers never write over the recording thread
+     */
+    private volatile boolean resetRequested = false;
+
+    /**
+     * Gets the bucket a value falls into
+     */
+    private static int bucket(long value) {
+        if (value < SUBBUCKETS) {return (int) Math.max(value, 0);}  // Small values get a bucket each
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);  // Position of the highest set bit, at least SUBBUCKETBITS here
+        int subBucket = (int) (value >>> (exponent - SUBBUCKETBITS)) & (SUBBUCKETS - 1);
+        return (exponent - SUBBUCKETBITS + 1) * SUBBUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < SUBBUCKETS) {return bucket;}
+
+        int exponent = bucket / SUBBUCKETS + SUBBUCKETBITS - 1;
+        long subBucket = bucket % SUBBUCKETS;
+        return ((SUBBUCKETS + subBucket + 1) << (exponent - SUBBUCKETBITS)) - 1;
+    }
+
+    /**
+     * Records a value. Only ever call this from one thread
+     * @param value value to record, such as a duration in nanoseconds
+     */
+    public void record(long value) {
+        if (resetRequested) {clear();}
+
+        int bucket = bucket(value);
+        counts.lazySet(bucket, counts.get(bucket) + 1);  // Only this thread writes so there's no need for an atomic increment
+        count++;
+        total += value;
+        if (value > max) {max = value;}
+    }
+
+    /**
+     * Empties the histogram, run on the recording thread
+     */
+    private void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.lazySet(i, 0);
+        }
+        count = 0;
+        total = 0;
+        max = 0;
+        resetRequested = false;
+    }
+
+    /**
+     * Empties the histogram. The recording thread does the actual clearing right before it records its next value
+     */
+    @Override
+    public void reset() { resetRequested = true; }
+
+    @Override
+    public long getCount() { return count; }
+
+    @Override
+    public long getMax() { return max; }
+
+    @Override
+    public double getMean() {
+        long n = count;
+        return n == 0 ? 0 : (double) total / n;
+    }
+
+    /**
+     * Gets the value that a certain percentage of recorded values are at or below
+     * @param percentile percentage in [0, 100], such as 99 for the 99th percentile
+     * @return the value at that percentile (rounded up to the top of its bucket, but never past the max), 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            recorded += counts.get(i);
+        }
+        if (recorded == 0) {return 0;}
+
+        // Rank of the value we're after, at least 1 so the 0th percentile is the smallest value rather than nothing
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {return Math.min(highestValue(i), max);}
+        }
+
+        return max;
+    }
+
+    @Override
+    public long getP50() { return getValueAtPercentile(50); }
+
+    @Override
+    public long getP90() { return getValueAtPercentile(90); }
+
+    @Override
+    public long getP99() { return getValueAtPercentile(99); }
+
+    @Override
+    public long getP999() { return getValueAtPercentile(99.9); }
+}
@@ -0,0 +1,54 @@
+package Java3DShooter.Simulation;
+
+/**
+ * What a {@link LatencyHistogram} shows over JMX (in JConsole, VisualVM, or Mission Control). Durations are in nanoseconds
+ */
+public interface LatencyHistogramMXBean {
+
+    /**
+     * Gets the number of values recorded since the last reset
+     * @return number of values
+     */
+    long getCount();
+
+    /**
+     * Gets the average of the values recorded
+     * @return mean value
+     */
+    double getMean();
+
+    /**
+     * Gets the value half of the recorded values are at or below
+     * @return median
+     */
+    long getP50();
+
+    /**
+     * Gets the value 90% of the recorded values are at or below
+     * @return 90th percentile
+     */
+    long getP90();
+
+    /**
+     * Gets the value 99% of the recorded values are at or below
+     * @return 99th percentile
+     */
+    long getP99();
+
+    /**
+     * Gets the value 99.9% of the recorded values are at or below
+     * @return 99.9th percentile
+     */
+    long getP999();
+
+    /**
+     * Gets the largest value recorded
+     * @return max value
+     */
+    long getMax();
+
+    /**
+     * Throws away everything recorded so far, useful to only look at what happens from now on
+     */
+    void reset();
+}
@@ -0,0 +1,331 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Plain-Java state of the player. This holds the player's position, the camera's tilt angles, health, and every bullet fired by the player.
+ * Holds no JavaFX types so the player can be simulated without a toolkit, the Player node simply mirrors these values onto its camera and hitbox
+ */
+public class PlayerState {
+    /**
+     * Height of the player's hitbox in pixels
+     */
+    public static final int PLAYERHEIGHT = 20;
+
+    /**
+     * Width of the player's hitbox in pixels
+     */
+    public static final int PLAYERWIDTH = 10;
+
+    /**
+     * Depth of the player's hitbox in pixels
+     */
+    public static final int PLAYERDEPTH = 10;
+
+    /**
+     * The maximum amount of hitpoints for the player
+     */
+    private static final double MAXHP = 5;
+
+    /**
+     * Current hitpoints of the player
+     */
+    private double HP = MAXHP;
+
+    /**
+     * Number of seconds between shots
+     */
+    private static final double SHOTCOOLDOWN = 1;
+
+    /**
+     * Seconds left before the player can shoot again
+     */
+    private double nextShot = 0;
+
+    /**
+     * Whether shoot was pressed while the player was still on cooldown, the shot goes off as soon as the cooldown is over even if it was let go
+     */
+    private boolean shotQueued = false;
+
+    /**
+     * The most bullets the player can have alive at once. Shots fired while this many bullets are alive are dropped
+     */
+    public static final int MAXPROJECTILES = 4096;
+
+    /**
+     * All the current projectiles fired by the player
+     */
+    private final ProjectilePool projectiles = new ProjectilePool(MAXPROJECTILES);
+
+    /**
+     * The speed at which the camera can move in units per second. Serves as a magnitude for our motion vectors
+     */
+    private static final double SPEED = 90;
+
+    /**
+     * How much to scale the speed by when moving forward and sideways at once, so the combined motion vector is still SPEED long
+     */
+    private static final double DIAGONALSCALE = Math.sqrt(0.5);
+
+    /**
+     * Look speed for the camera in degrees per second, impacts how fast the camera will tilt
+     */
+    private static final double LOOKSPEED = 60;
+
+    /**
+     * Current speed at which our camera is tilting, this value is used when updating the angle of the camera (x, y, z)
+     */
+    private final double[] turnVelocity = {0, 0, 0};
+
+    /**
+     * Current speed at which our camera is moving, this value is determined by the lateral angle of the camera (xTilt) and is multiplied by the SPEED
+     */
+    private final double[] velocity = {0, 0, 0};  // x, y, z move velocity
+
+    /**
+     * Position of the player (hitbox and camera) as {x, y, z}
+     */
+    private final double[] position = {0, 0, 0};
+
+    /**
+     * Position of the player as of the previous tick, used to draw the player between ticks
+     */
+    private final double[] prevPosition = {0, 0, 0};
+
+    /**
+     * Lateral angle of the camera in degrees, mirrored onto the camera's xTilt rotation
+     */
+    private double xTilt = 0;
+
+    /**
+     * Vertical angle of the camera in degrees, mirrored onto the camera's yTilt rotation
+     */
+    private double yTilt = 0;
+
+    /**
+     * Lateral angle of the camera as of the previous tick
+     */
+    private double prevXTilt = 0;
+
+    /**
+     * Vertical angle of the camera as of the previous tick
+     */
+    private double prevYTilt = 0;
+
+    /**
+     * Sine and cosine of xTilt and sine of yTilt. These only change when the camera turns so they're worked out then rather than on every tick
+     */
+    private double sinXTilt = 0, cosXTilt = 1, sinYTilt = 0;
+
+    /**
+     * Initializes the player's state at a set position
+     * @param x x position
+     * @param y y position
+     * @param z z position
+     */
+    public PlayerState(double x, double y, double z) {
+        position[0] = x;
+        position[1] = y;
+        position[2] = z;
+        System.arraycopy(position, 0, prevPosition, 0, 3);
+    }
+
+    /**
+     * Gets the x position of the player (hitbox and camera)
+     * @return x position
+     */
+    public double getX() { return position[0]; }
+
+    /**
+     * Gets the y position of the player (hitbox and camera)
+     * @return y position
+     */
+    public double getY() { return position[1]; }
+
+    /**
+     * Gets the z position of the player (hitbox and camera)
+     * @return z position
+     */
+    public double getZ() { return position[2]; }
+
+    /**
+     * Gets the lateral angle of the camera
+     * @return xTilt in degrees
+     */
+    public double getXTilt() { return xTilt; }
+
+    /**
+     * Gets the vertical angle of the camera
+     * @return yTilt in degrees
+     */
+    public double getYTilt() { return yTilt; }
+
+    /**
+     * Blends between a value at the previous tick and the latest tick
+     */
+    private static double lerp(double previous, double latest, double alpha) { return previous + (latest - previous) * alpha; }
+
+    /**
+     * Gets the x position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getX(double alpha) { return lerp(prevPosition[0], position[0], alpha); }
+
+    /**
+     * Gets the y position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return y position
+     */
+    public double getY(double alpha) { return lerp(prevPosition[1], position[1], alpha); }
+
+    /**
+     * Gets the z position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getZ(double alpha) { return lerp(prevPosition[2], position[2], alpha); }
+
+    /**
+     * Gets the lateral angle of the camera blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return xTilt in degrees
+     */
+    public double getXTilt(double alpha) { return lerp(prevXTilt, xTilt, alpha); }
+
+    /**
+     * Gets the vertical angle of the camera blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return yTilt in degrees
+     */
+    public double getYTilt(double alpha) { return lerp(prevYTilt, yTilt, alpha); }
+
+    /**
+     * Gets the pool holding all the currently living bullets
+     * @return ProjectilePool
+     */
+    public ProjectilePool getBullets() { return projectiles; }
+
+    /**
+     * Works out the sines and cosines of the camera's angles again, only needed after the camera has turned
+     * <p>
+     * These make up the vectors of motion < cos(angle), sin(angle) > which allow forward movement to take you in the direction of view.
+     * Strafing uses xTilt + 90 whose vector is < -sin(xTilt), cos(xTilt) > so it doesn't need its own trig
+     */
+    private void updateHeading() {
+        // StrictMath gives the same bits on every machine, which keeps replays in step with the session they were recorded from
+        double xRadians = Math.toRadians(xTilt);
+        sinXTilt = StrictMath.sin(xRadians);
+        cosXTilt = StrictMath.cos(xRadians);
+        sinYTilt = StrictMath.sin(Math.toRadians(yTilt));
+    }
+
+    /**
+     * Creates a new bullet at the player's position
+     */
+    private void shoot() {
+        if (nextShot > 0) {return;}  // They are still on cooldown
+
+        // Add a new bullet to the projectiles pool with the camera's coordinates then the velocity of the x, y, and z axis
+        // Y-axis is negative here because of how the y-axis is reversed in the world of programming
+        projectiles.spawn(
+                position[0], position[1], position[2],
+                sinXTilt, -sinYTilt, cosXTilt
+        );
+
+        // Set the cooldown before their next shot
+        nextShot = SHOTCOOLDOWN;
+        shotQueued = false;
+    }
+
+    /**
+     * Reduces the player's health by the damage taken unless the player is already dead
+     * @param damage damage taken
+     */
+    public void takeDamage(int damage) {
+        if (isDead()) {return;}  // Player is already dead
+        this.HP -= damage;
+    }
+
+    /**
+     * Returns whether the player is dead
+     * @return isDead?
+     */
+    public boolean isDead() { return this.HP <= 0; }
+
+    /**
+     * Mixes everything about the player (and their bullets) that affects later ticks into a hash
+     * @param hash hash so far
+     * @return new hash
+     */
+    long hash(long hash) {
+        for (int i = 0; i < 3; i++) {hash = StateHash.mix(hash, position[i]);}
+        hash = StateHash.mix(hash, xTilt);
+        hash = StateHash.mix(hash, yTilt);
+        hash = StateHash.mix(hash, HP);
+        hash = StateHash.mix(hash, nextShot);
+        hash = StateHash.mix(hash, shotQueued ? 1 : 0);
+        return projectiles.hash(hash);
+    }
+
+    /**
+     * Moves the player forward a tick. The player's bullets are moved separately through {@link #getBullets()}
+     * <p>
+     * {@link World#tick} does this every tick, only call it directly for a player that isn't part of a world
+     * @param input the actions held this tick
+     * @param dt length of the tick in seconds
+     */
+    public void move(TickInput input, double dt) {
+        // Remember where we were so the renderer can draw us between this tick and the next
+        System.arraycopy(position, 0, prevPosition, 0, 3);
+        prevXTilt = xTilt;
+        prevYTilt = yTilt;
+
+        // Reduce the cooldown before the next shot
+        // We do this through a conditional so it doesn't keep running down if they don't shoot for too long
+        if (nextShot > 0) {nextShot -= dt;}
+
+        // Opposing actions cancel out, so holding W and S stands still and holding W and D moves diagonally
+        int turn = input.axis(InputAction.LOOKRIGHT, InputAction.LOOKLEFT);
+        int look = input.axis(InputAction.LOOKUP, InputAction.LOOKDOWN);
+        int forward = input.axis(InputAction.FORWARD, InputAction.BACKWARD);
+        int strafe = input.axis(InputAction.STRAFERIGHT, InputAction.STRAFELEFT);
+        int rise = input.axis(InputAction.ASCEND, InputAction.DESCEND);
+
+        // Camera Controls
+        turnVelocity[0] = turn * LOOKSPEED;
+        turnVelocity[1] = look * LOOKSPEED;
+
+        // Movement Controls, forward is along the camera's heading and strafing is perpendicular to it
+        // Moving diagonally is scaled back down so it isn't faster than moving straight
+        double speed = forward != 0 && strafe != 0 ? SPEED * DIAGONALSCALE : SPEED;
+        velocity[0] = (forward * sinXTilt + strafe * cosXTilt) * speed;
+        velocity[1] = -rise * SPEED;  // Y-axis is reversed so up is negative
+        velocity[2] = (forward * cosXTilt - strafe * sinXTilt) * speed;
+
+        // Holding shoot fires every time the cooldown runs out, tapping it during the cooldown fires once as soon as it does
+        if (input.wasPressed(InputAction.SHOOT) && nextShot > 0) {shotQueued = true;}
+        if (input.isHeld(InputAction.SHOOT) || shotQueued) {shoot();}
+
+        // Set the new position, velocities are per second so we scale them down to the length of the tick
+        position[0] += velocity[0] * dt;
+        position[1] += velocity[1] * dt;
+        position[2] += velocity[2] * dt;
+
+        // Camera Movement
+        double newXTilt = xTilt + turnVelocity[0] * dt;
+        double newYTilt = yTilt + turnVelocity[1] * dt;
+
+        // Constrain how far they can look up or down to a 180deg range
+        if (newYTilt > 90) {
+            newYTilt = 90;
+        } else if (newYTilt < -90) {
+            newYTilt = -90;
+        }
+
+        // Only redo the trig if the camera actually turned
+        if (newXTilt != xTilt || newYTilt != yTilt) {
+            xTilt = newXTilt;
+            yTilt = newYTilt;
+            updateHeading();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Fixed-capacity pool holding every bullet in the world
+ * <p>
+ * Rather than one object per bullet the pool keeps each field of every bullet in its own primitive array (position, velocity, and timeToLive),
+ * and the living bullets are always packed into the first {@link #size()} slots. When a bullet dies the last living bullet is moved into its slot,
+ * so firing and culling bullets never allocates anything once the pool is created
+ */
+public class ProjectilePool {
+    /**
+     * Width of the bullet
+     */
+    public static final double WIDTH = 3;
+
+    /**
+     * Height of the bullet
+     */
+    public static final double HEIGHT = 3;
+
+    /**
+     * Depth (z length) of the bullet
+     */
+    public static final double DEPTH = 3;
+
+    /**
+     * Speed of the bullet in units per second, serves as a magnitude for the motion vector
+     */
+    private static final double BULLETSPEED = 60;
+
+    /**
+     * Number of seconds before a bullet dies
+     */
+    private static final double TIMETOLIVE = 50;
+
+    /**
+     * X position of every bullet
+     */
+    private final double[] x;
+
+    /**
+     * Y position of every bullet
+     */
+    private final double[] y;
+
+    /**
+     * Z position of every bullet
+     */
+    private final double[] z;
+
+    /**
+     * X position of every bullet as of the previous tick, used to draw bullets between ticks
+     */
+    private final double[] prevX;
+
+    /**
+     * Y position of every bullet as of the previous tick
+     */
+    private final double[] prevY;
+
+    /**
+     * Z position of every bullet as of the previous tick
+     */
+    private final double[] prevZ;
+
+    /**
+     * X velocity of every bullet - Does not decrease as it travels
+     */
+    private final double[] xVel;
+
+    /**
+     * Y velocity of every bullet - Does not decrease as it travels
+     */
+    private final double[] yVel;
+
+    /**
+     * Z velocity of every bullet - Does not decrease as it travels
+     */
+    private final double[] zVel;
+
+    /**
+     * Number of seconds left before each bullet dies
+     */
+    private final double[] timeToLive;
+
+    /**
+     * Number of living bullets, these are always stored in slots [0, count)
+     */
+    private int count = 0;
+
+    /**
+     * Creates an empty pool
+     * @param capacity the most bullets that can be alive at once
+     */
+    public ProjectilePool(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        prevZ = new double[capacity];
+        xVel = new double[capacity];
+        yVel = new double[capacity];
+        zVel = new double[capacity];
+        timeToLive = new double[capacity];
+    }
+
+    /**
+     * Gets the number of living bullets
+     * @return number of bullets
+     */
+    public int size() { return count; }
+
+    /**
+     * Gets the most bullets that can be alive at once
+     * @return capacity of the pool
+     */
+    public int capacity() { return x.length; }
+
+    /**
+     * Gets the x position of a bullet
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return x position
+     */
+    public double getX(int i) { return x[i]; }
+
+    /**
+     * Gets the y position of a bullet
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return y position
+     */
+    public double getY(int i) { return y[i]; }
+
+    /**
+     * Gets the z position of a bullet
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return z position
+     */
+    public double getZ(int i) { return z[i]; }
+
+    /**
+     * Gets the x position of a bullet blended between the last two ticks
+     * @param i slot of the bullet, less than {@link #size()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getX(int i, double alpha) { return prevX[i] + (x[i] - prevX[i]) * alpha; }
+
+    /**
+     * Gets the y position of a bullet blended between the last two ticks
+     * @param i slot of the bullet, less than {@link #size()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return y position
+     */
+    public double getY(int i, double alpha) { return prevY[i] + (y[i] - prevY[i]) * alpha; }
+
+    /**
+     * Gets the z position of a bullet blended between the last two ticks
+     * @param i slot of the bullet, less than {@link #size()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getZ(int i, double alpha) { return prevZ[i] + (z[i] - prevZ[i]) * alpha; }
+
+    /**
+     * Gets the x position of a bullet as of the previous tick
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return x position
+     */
+    double getPrevX(int i) { return prevX[i]; }
+
+    /**
+     * Gets the y position of a bullet as of the previous tick
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return y position
+     */
+    double getPrevY(int i) { return prevY[i]; }
+
+    /**
+     * Gets the z position of a bullet as of the previous tick
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return z position
+     */
+    double getPrevZ(int i) { return prevZ[i]; }
+
+    /**
+     * Returns a bullet's remaining timeToLive
+     * @param i slot of the bullet, less than {@link #size()}
+     * @return Seconds left before death
+     */
+    public double getTimeToLive(int i) { return timeToLive[i]; }
+
+    /**
+     * Copies the position of every living bullet into packed arrays laid out as {x, y, z} per bullet
+     * @param latest where to write the positions as of the latest tick, needs room for {@link #size()} * 3 values
+     * @param previous where to write the positions as of the tick before, needs room for {@link #size()} * 3 values
+     */
+    void copyPositions(double[] latest, double[] previous) {
+        for (int i = 0, o = 0; i < count; i++, o += 3) {
+            latest[o] = x[i];
+            latest[o + 1] = y[i];
+            latest[o + 2] = z[i];
+            previous[o] = prevX[i];
+            previous[o + 1] = prevY[i];
+            previous[o + 2] = prevZ[i];
+        }
+    }
+
+    /**
+     * Mixes the position, velocity, and timeToLive of every living bullet into a hash
+     * @param hash hash so far
+     * @return new hash
+     */
+    long hash(long hash) {
+        hash = StateHash.mix(hash, count);
+        for (int i = 0; i < count; i++) {
+            hash = StateHash.mix(hash, x[i]);
+            hash = StateHash.mix(hash, y[i]);
+            hash = StateHash.mix(hash, z[i]);
+            hash = StateHash.mix(hash, xVel[i]);
+            hash = StateHash.mix(hash, yVel[i]);
+            hash = StateHash.mix(hash, zVel[i]);
+            hash = StateHash.mix(hash, timeToLive[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Creates a new bullet at the set position
+     * <p>
+     * The base velocity is multiplied by the BULLETSPEED to get the bullet's final velocity
+     * @return whether the bullet was created, false if the pool is full
+     */
+    public boolean spawn(double x, double y, double z, double xVel, double yVel, double zVel) {
+        if (count == this.x.length) {return false;}  // No free slots, drop the shot
+
+        this.x[count] = x;
+        this.y[count] = y;
+        this.z[count] = z;
+        this.prevX[count] = x;
+        this.prevY[count] = y;
+        this.prevZ[count] = z;
+        this.xVel[count] = xVel * BULLETSPEED;
+        this.yVel[count] = yVel * BULLETSPEED;
+        this.zVel[count] = zVel * BULLETSPEED;
+        this.timeToLive[count] = TIMETOLIVE;
+        count++;
+
+        return true;
+    }
+
+    /**
+     * Kills a bullet so it's culled the next time the bullets move. Used once the bullet hits something
+     * <p>
+     * The bullet keeps its slot until then so the slots of other bullets don't shift while they're being iterated over
+     * @param i slot of the bullet, less than {@link #size()}
+     */
+    public void kill(int i) { timeToLive[i] = 0; }
+
+    /**
+     * Moves the last living bullet into a slot, overwriting the bullet that was there
+     */
+    private void swapRemove(int i) {
+        int last = --count;
+
+        x[i] = x[last];
+        y[i] = y[last];
+        z[i] = z[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        prevZ[i] = prevZ[last];
+        xVel[i] = xVel[last];
+        yVel[i] = yVel[last];
+        zVel[i] = zVel[last];
+        timeToLive[i] = timeToLive[last];
+    }
+
+    /**
+     * Moves every bullet forward by one tick and culls any bullets whose timeToLive is expired
+     * @param dt length of the tick in seconds
+     */
+    public void advance(double dt) {
+        int i = 0;
+
+        while (i < count) {
+            // The bullet swapped into this slot hasn't moved yet so we check the same slot again rather than moving on
+            if (timeToLive[i] <= 0) {
+                swapRemove(i);
+                continue;
+            }
+
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            prevZ[i] = z[i];
+
+            x[i] += xVel[i] * dt;
+            y[i] += yVel[i] * dt;
+            z[i] += zVel[i] * dt;
+            timeToLive[i] -= dt;
+            i++;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package Java3DShooter.Simulation;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the World on its own thread so a slow tick never holds up the JavaFX thread (and with it rendering and input)
+ * <p>
+ * After every batch of ticks the simulation thread copies the world into a {@link WorldSnapshot} and publishes it. The JavaFX thread picks up the newest
+ * snapshot through {@link #pollSnapshot()} and draws from that instead of touching the world
+ * <p>
+ * The handoff is a triple buffer: the simulation thread owns one snapshot that it writes to, the JavaFX thread owns one that it reads from, and the third sits
+ * in an AtomicReference between them. Publishing or picking up a snapshot swaps a thread's own snapshot with the one in the middle, so neither thread ever
+ * waits on the other and no snapshots are created after startup
+ */
+public class SimulationThread {
+
+    /**
+     * The world being simulated, only touched by the simulation thread once started
+     */
+    private final World world;
+
+    /**
+     * The actions currently being held. Written by the JavaFX thread and latched by the simulation thread at the start of every tick,
+     * so the actions can't change partway through one
+     */
+    private final InputState input;
+
+    /**
+     * Number of ticks between hashes of the world stored in the recording
+     */
+    private static final int CHECKPOINTTICKS = 600;
+
+    /**
+     * Where the actions held on every tick are recorded, null if the session isn't being recorded
+     */
+    private InputRecording recording;
+
+    /**
+     * Works out how many ticks are owed each time the simulation thread wakes up
+     */
+    private final FixedTimestep timestep;
+
+    /**
+     * The snapshot waiting to be picked up by the JavaFX thread
+     */
+    private final AtomicReference<WorldSnapshot> published = new AtomicReference<>(new WorldSnapshot());
+
+    /**
+     * The snapshot the simulation thread is writing to, only touched by the simulation thread
+     */
+    private WorldSnapshot back = new WorldSnapshot();
+
+    /**
+     * The snapshot the JavaFX thread is reading from, only touched by the JavaFX thread
+     */
+    private WorldSnapshot front = new WorldSnapshot();
+
+    /**
+     * Number of ticks run so far
+     */
+    private long ticks = 0;
+
+    /**
+     * Tick number of the newest published snapshot, lets the JavaFX thread check for a new snapshot without reading one the simulation thread might be writing
+     */
+    private volatile long publishedTick = -1;
+
+    /**
+     * Whether the simulation thread should keep running
+     */
+    private volatile boolean running = false;
+
+    /**
+     * The simulation thread itself
+     */
+    private Thread thread;
+
+    /**
+     * Creates a new simulation, call {@link #start()} to begin ticking
+     * @param world the world to simulate
+     * @param input the actions currently being held
+     * @param maxCatchUpSteps most ticks to run in a row when catching up after falling behind
+     */
+    public SimulationThread(World world, InputState input, int maxCatchUpSteps) {
+        this.world = world;
+        this.input = input;
+        this.timestep = new FixedTimestep(1 / world.getTickLength(), maxCatchUpSteps);
+    }
+
+    /**
+     * Gets the length of a tick
+     * @return nanoseconds per tick
+     */
+    public long getTickNanos() { return timestep.getStepNanos(); }
+
+    /**
+     * Records the actions held on every tick from now on so the session can be replayed later, call this before {@link #start()}
+     * <p>
+     * The recording is only safe to save once {@link #stop()} has returned
+     * @param recording recording to add to, made for this world
+     */
+    public void setRecording(InputRecording recording) { this.recording = recording; }
+
+    /**
+     * Starts ticking the world on a new thread
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);  // Don't keep the application alive once the window is closed
+        thread.start();
+    }
+
+    /**
+     * Stops ticking the world and waits for the thread to finish its current tick
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) {return;}
+
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Main loop of the simulation thread. Runs whatever ticks are owed, publishes a snapshot, then sleeps until the next tick is due
+     */
+    private void run() {
+        while (running) {
+            long now = System.nanoTime();
+            int steps = timestep.update(now);
+
+            for (int i = 0; i < steps; i++) {
+                long actions = input.latch();
+
+                world.tick(actions);
+                ticks++;
+
+                if (recording != null) {
+                    recording.record(actions);
+                    if (ticks % CHECKPOINTTICKS == 0) {recording.checkpoint(world.stateHash());}
+                }
+            }
+
+            if (steps > 0) {
+                publish(now);
+                world.getProfiler().setSimulationAllocatedBytes(TickProfiler.currentThreadAllocatedBytes());
+            }
+
+            // Stop once the player dies, the last snapshot tells the JavaFX thread about it
+            if (world.getPlayer().isDead()) {running = false;}
+
+            LockSupport.parkNanos(timestep.getNanosUntilNextStep());
+        }
+    }
+
+    /**
+     * Copies the world into the back snapshot and swaps it into the middle for the JavaFX thread to pick up
+     */
+    private void publish(long now) {
+        back.capture(world, ticks, now);
+        back = published.getAndSet(back);
+        publishedTick = ticks;
+    }
+
+    /**
+     * Gets the newest snapshot of the world. Only call this from the JavaFX thread
+     * <p>
+     * The snapshot returned stays untouched by the simulation thread until the next call to this method
+     * @return the newest snapshot, its tick is -1 if nothing has been published yet
+     */
+    public WorldSnapshot pollSnapshot() {
+        // Only swap if something newer was published, otherwise the middle is our own old snapshot we handed back last time
+        if (publishedTick > front.getTick()) {
+            front = published.getAndSet(front);
+        }
+
+        return front;
+    }
+}
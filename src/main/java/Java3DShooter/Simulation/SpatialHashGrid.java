@@ -0,0 +1,290 @@
+package Java3DShooter.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid laid over the XZ ground plane used as a broad-phase for collisions
+ * <p>
+ * Every tick the grid is cleared, each entity is inserted by the x and z of its center, and then {@link #build()} sorts the entities by cell.
+ * Asking which entities are near a box then only has to look at the handful of cells under that box instead of at every entity in the world
+ * <p>
+ * Cells are hashed into a table sized from the number of entities rather than from the number of cells, so rebuilding the grid costs the same
+ * whether the ground plane is small or huge
+ * <p>
+ * Entities are stored by an integer id (usually their index in a list) so the grid never allocates once its arrays have grown to fit
+ */
+public class SpatialHashGrid {
+
+    /**
+     * Minimum x coordinate covered by the grid
+     */
+    private final double minX;
+
+    /**
+     * Minimum z coordinate covered by the grid
+     */
+    private final double minZ;
+
+    /**
+     * Width and depth of a single cell
+     */
+    private final double cellSize;
+
+    /**
+     * Number of cells along the x axis
+     */
+    private final int cellsX;
+
+    /**
+     * Number of cells along the z axis
+     */
+    private final int cellsZ;
+
+    /**
+     * Index into {@link #sorted} where each bucket's entities begin. Bucket b holds sorted[bucketStart[b]] up to (but not including) sorted[bucketStart[b + 1]]
+     */
+    private int[] bucketStart = new int[3];
+
+    /**
+     * 32 minus the number of bits in a bucket index. The bucket count is always a power of two so a hash shifted right by this is a bucket,
+     * before the first {@link #build()} there are two empty buckets
+     */
+    private int bucketShift = 31;
+
+    /**
+     * Number of entities inserted since the last {@link #clear()}
+     */
+    private int count = 0;
+
+    /**
+     * The id of every inserted entity, in insertion order
+     */
+    private int[] ids = new int[64];
+
+    /**
+     * The cell every inserted entity landed in, in insertion order
+     */
+    private int[] cells = new int[64];
+
+    /**
+     * The position of every inserted entity, in insertion order
+     */
+    private double[] xs = new double[64], zs = new double[64];
+
+    /**
+     * Entity ids sorted by bucket, filled in by {@link #build()}
+     */
+    private int[] sorted = new int[64];
+
+    /**
+     * The cell of every entity in {@link #sorted}, used to skip entities from other cells that share the same bucket
+     */
+    private int[] sortedCells = new int[64];
+
+    /**
+     * The position of every entity in {@link #sorted}, so entities in the same cell sit next to each other in memory when measuring distances
+     */
+    private double[] sortedXs = new double[64], sortedZs = new double[64];
+
+    /**
+     * Ids found by the last {@link #query(double, double, double, double)}
+     */
+    private int[] results = new int[64];
+
+    /**
+     * Creates a grid covering a bounding box
+     * <p>
+     * Entities outside the bounding box are clamped into the border cells, so they are still found, just less efficiently
+     * @param boundingBox the area to cover as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param cellSize width and depth of each cell. Should be at least as large as the entities being inserted
+     */
+    public SpatialHashGrid(double[][] boundingBox, double cellSize) {
+        this.minX = boundingBox[0][0];
+        this.minZ = boundingBox[2][0];
+        this.cellSize = cellSize;
+        this.cellsX = Math.max(1, (int) Math.ceil((boundingBox[0][1] - boundingBox[0][0]) / cellSize));
+        this.cellsZ = Math.max(1, (int) Math.ceil((boundingBox[2][1] - boundingBox[2][0]) / cellSize));
+    }
+
+    /**
+     * Converts an x coordinate to the column of the cell it falls in
+     */
+    private int column(double x) {
+        int column = (int) Math.floor((x - minX) / cellSize);
+        return Math.min(Math.max(column, 0), cellsX - 1);
+    }
+
+    /**
+     * Converts a z coordinate to the row of the cell it falls in
+     */
+    private int row(double z) {
+        int row = (int) Math.floor((z - minZ) / cellSize);
+        return Math.min(Math.max(row, 0), cellsZ - 1);
+    }
+
+    /**
+     * Scrambles a cell index into a bucket so neighbouring cells don't all pile into neighbouring buckets
+     * <p>
+     * Multiplying by 2^32 / golden ratio mixes every bit of the cell into the high bits of the product, which is where the bucket is taken from,
+     * so however many buckets there are every one of them can be used
+     */
+    private int bucket(int cell) {
+        return (cell * 0x9E3779B1) >>> bucketShift;
+    }
+
+    /**
+     * Removes every entity from the grid
+     */
+    public void clear() { count = 0; }
+
+    /**
+     * Gets the number of entities inserted since the last clear
+     * @return number of entities
+     */
+    public int size() { return count; }
+
+    /**
+     * Inserts an entity into the grid by the position of its center. Call {@link #build()} once every entity is inserted
+     * @param id id of the entity, returned by queries
+     * @param x x position of the entity's center
+     * @param z z position of the entity's center
+     */
+    public void insert(int id, double x, double z) {
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+            cells = Arrays.copyOf(cells, count * 2);
+            xs = Arrays.copyOf(xs, count * 2);
+            zs = Arrays.copyOf(zs, count * 2);
+        }
+
+        ids[count] = id;
+        xs[count] = x;
+        zs[count] = z;
+        cells[count] = row(z) * cellsX + column(x);
+        count++;
+    }
+
+    /**
+     * Sorts the inserted entities by bucket so they can be queried
+     * <p>
+     * This is a counting sort over a table with about two buckets per entity so it runs in O(entities)
+     */
+    public void build() {
+        if (sorted.length < count) {
+            sorted = new int[ids.length];
+            sortedCells = new int[ids.length];
+            sortedXs = new double[ids.length];
+            sortedZs = new double[ids.length];
+        }
+
+        // Size the table to the next power of two with room for two buckets per entity
+        int buckets = Integer.highestOneBit(Math.max(count, 8) * 2 - 1) << 1;
+        if (bucketStart.length < buckets + 1) {bucketStart = new int[buckets + 1];}
+        bucketShift = Integer.numberOfLeadingZeros(buckets) + 1;
+
+        // Count how many entities are in each bucket, offset by one so the prefix sum below gives us where each bucket starts
+        Arrays.fill(bucketStart, 0, buckets + 1, 0);
+        for (int i = 0; i < count; i++) {
+            bucketStart[bucket(cells[i]) + 1]++;
+        }
+
+        for (int b = 1; b <= buckets; b++) {
+            bucketStart[b] += bucketStart[b - 1];
+        }
+
+        // Drop each entity into its bucket's slot, bumping the bucket's start along as we fill it
+        // Once this is done each bucketStart[b] points at the start of bucket b + 1
+        for (int i = 0; i < count; i++) {
+            int slot = bucketStart[bucket(cells[i])]++;
+            sorted[slot] = ids[i];
+            sortedCells[slot] = cells[i];
+            sortedXs[slot] = xs[i];
+            sortedZs[slot] = zs[i];
+        }
+
+        // Shift the starts back up by one bucket so they line up again
+        for (int b = buckets - 1; b > 0; b--) {
+            bucketStart[b] = bucketStart[b - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    /**
+     * Finds every entity whose center is in a cell touched by an area of the XZ plane
+     * <p>
+     * This is only a broad-phase, the entities found are candidates and still need an exact overlap check. To catch entities whose box pokes into the area
+     * but whose center doesn't, grow the area by the entities' half-extents before querying
+     * @param minX minimum x of the area
+     * @param minZ minimum z of the area
+     * @param maxX maximum x of the area
+     * @param maxZ maximum z of the area
+     * @return number of candidates found, read them back through {@link #getResult(int)}
+     */
+    public int query(double minX, double minZ, double maxX, double maxZ) {
+        int found = 0;
+        int lastColumn = column(maxX);
+        int lastRow = row(maxZ);
+
+        for (int r = row(minZ); r <= lastRow; r++) {
+            for (int c = column(minX); c <= lastColumn; c++) {
+                int cell = r * cellsX + c;
+                int bucket = bucket(cell);
+
+                for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                    if (sortedCells[i] != cell) {continue;}  // Another cell that hashed into the same bucket
+
+                    if (found == results.length) {results = Arrays.copyOf(results, found * 2);}
+                    results[found++] = sorted[i];
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds entities whose center is closer than a radius to a point, for neighbour lookups such as keeping enemies apart
+     * <p>
+     * Unlike {@link #query(double, double, double, double)} this checks the distance itself using the positions the entities were inserted with,
+     * which sit next to each other in memory for each cell. Nothing in the grid is changed, so once the grid is built any number of threads can
+     * search it at once as long as each has its own results array
+     * @param x x position of the point
+     * @param z z position of the point
+     * @param radius how close an entity's center has to be, for the fastest searches make the grid's cells at least this big
+     * @param results where to write the id of every entity found (including one sitting right on the point). The search stops once this is full
+     * @return number of ids written to results
+     */
+    public int queryWithin(double x, double z, double radius, int[] results) {
+        int found = 0;
+        double radiusSquared = radius * radius;
+        int lastColumn = column(x + radius);
+        int lastRow = row(z + radius);
+
+        for (int r = row(z - radius); r <= lastRow; r++) {
+            for (int c = column(x - radius); c <= lastColumn; c++) {
+                int cell = r * cellsX + c;
+                int bucket = bucket(cell);
+
+                for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                    if (sortedCells[i] != cell) {continue;}
+
+                    double dx = sortedXs[i] - x;
+                    double dz = sortedZs[i] - z;
+                    if (dx * dx + dz * dz >= radiusSquared) {continue;}
+
+                    results[found++] = sorted[i];
+                    if (found == results.length) {return found;}
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Gets one of the candidates found by the last query
+     * @param i index of the candidate, less than the count returned by the query
+     * @return id of the entity
+     */
+    public int getResult(int i) { return results[i]; }
+}
@@ -0,0 +1,302 @@
+package Java3DShooter.Simulation;
+
+import java.util.Random;
+
+/**
+ * Decides when enemies spawn, how many, and where
+ * <p>
+ * The ground is split into square cells. Whenever a wave is due, every cell an enemy could spawn in right now is gathered into a list of candidates:
+ * cells on the ground, clear of obstacles, inside a spawn zone if the level has any, with no enemy in them, and far enough from the player. Each enemy of the wave then takes a random
+ * candidate and removes it from the list (a partial Fisher-Yates shuffle). No spot is ever picked and then thrown away, so a wave of N enemies
+ * costs one pass over the cells plus O(N) however crowded the ground gets, and it works for ground of any shape rather than only a square
+ * <p>
+ * How big and how often waves are is set by a {@link WaveCurve}. Everything random comes from the Random handed in, so a seeded world spawns
+ * the same enemies in the same places every time
+ */
+public class SpawnScheduler {
+
+    /**
+     * The closest to the player any part of a spawn cell can be
+     */
+    public static final double MINSPAWNDISTANCE = 500;
+
+    /**
+     * Minimum x coordinate covered by the cells
+     */
+    private final double minX;
+
+    /**
+     * Minimum z coordinate covered by the cells
+     */
+    private final double minZ;
+
+    /**
+     * Width and depth of a single cell
+     */
+    private final double cellSize;
+
+    /**
+     * Number of cells along the x and z axes. Only whole cells are used so every spawn is entirely on the ground
+     */
+    private final int cellsX, cellsZ;
+
+    /**
+     * Whether each cell overlaps an obstacle, stored row by row along x
+     */
+    private final boolean[] blocked;
+
+    /**
+     * Whether each cell is in a spawn zone, only looked at once there is at least one
+     */
+    private final boolean[] inZone;
+
+    /**
+     * Whether any spawn zones were added, without any enemies can spawn in every cell
+     */
+    private boolean zoned = false;
+
+    /**
+     * The last burst each cell had an enemy in, so occupancy never has to be cleared between waves
+     */
+    private final int[] occupied;
+
+    /**
+     * Number of times occupancy has been marked, each time marks cells with a new number
+     */
+    private int occupancyStamp = 0;
+
+    /**
+     * Every cell an enemy can spawn in for the wave being spawned, the ones not yet taken are at the front
+     */
+    private final int[] candidates;
+
+    /**
+     * Number of cells in {@link #candidates} as of the last wave
+     */
+    private int candidateCount = 0;
+
+    /**
+     * How many enemies spawn and how often
+     */
+    private WaveCurve waves = WaveCurve.DEFAULT;
+
+    /**
+     * Time left in seconds before the next wave spawns
+     */
+    private double nextWave = WaveCurve.DEFAULT.interval();
+
+    /**
+     * Number of waves spawned so far
+     */
+    private int wave = 0;
+
+    /**
+     * Number of enemies spawned by the last wave
+     */
+    private int lastWaveSize = 0;
+
+    /**
+     * Creates a scheduler with the default wave curve
+     * @param groundPlaneBoundingBox the bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param cellSize width and depth of a spawn cell, at least as big as an enemy
+     */
+    public SpawnScheduler(double[][] groundPlaneBoundingBox, double cellSize) {
+        this.minX = groundPlaneBoundingBox[0][0];
+        this.minZ = groundPlaneBoundingBox[2][0];
+        this.cellSize = cellSize;
+        this.cellsX = Math.max(1, (int) ((groundPlaneBoundingBox[0][1] - minX) / cellSize));
+        this.cellsZ = Math.max(1, (int) ((groundPlaneBoundingBox[2][1] - minZ) / cellSize));
+
+        blocked = new boolean[cellsX * cellsZ];
+        inZone = new boolean[cellsX * cellsZ];
+        occupied = new int[cellsX * cellsZ];
+        candidates = new int[cellsX * cellsZ];
+    }
+
+    /**
+     * Sets how many enemies spawn and how often. The next wave comes one interval from now and starts the curve over
+     * @param waves the wave curve
+     */
+    public void setWaves(WaveCurve waves) {
+        this.waves = waves;
+        this.nextWave = waves.interval();
+        this.wave = 0;
+    }
+
+    /**
+     * Gets how many enemies spawn and how often
+     * @return the wave curve
+     */
+    public WaveCurve getWaves() { return waves; }
+
+    /**
+     * Stops enemies from spawning anywhere in an area
+     * @param minX minimum x coordinate of the area, grown by an enemy's half-width so no part of an enemy can spawn in it
+     * @param minZ minimum z coordinate of the area, grown by an enemy's half-depth
+     * @param maxX maximum x coordinate of the area, grown by an enemy's half-width
+     * @param maxZ maximum z coordinate of the area, grown by an enemy's half-depth
+     */
+    public void addObstacle(double minX, double minZ, double maxX, double maxZ) {
+        // Every cell the area touches at all, a spawn can land anywhere inside a cell
+        int fromColumn = Math.max(0, (int) Math.floor((minX - this.minX) / cellSize));
+        int toColumn = Math.min(cellsX - 1, (int) Math.floor((maxX - this.minX) / cellSize));
+        int fromRow = Math.max(0, (int) Math.floor((minZ - this.minZ) / cellSize));
+        int toRow = Math.min(cellsZ - 1, (int) Math.floor((maxZ - this.minZ) / cellSize));
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                blocked[row * cellsX + column] = true;
+            }
+        }
+    }
+
+    /**
+     * Lets enemies spawn in an area. Once there's a spawn zone enemies only spawn in cells whose center is in one, every other rule still applies
+     * @param minX minimum x coordinate of the area
+     * @param minZ minimum z coordinate of the area
+     * @param maxX maximum x coordinate of the area
+     * @param maxZ maximum z coordinate of the area
+     */
+    public void addSpawnZone(double minX, double minZ, double maxX, double maxZ) {
+        zoned = true;
+
+        // Centers of the first and last cells in the area along each axis
+        int fromColumn = Math.max(0, (int) Math.ceil((minX - this.minX) / cellSize - 0.5));
+        int toColumn = Math.min(cellsX - 1, (int) Math.floor((maxX - this.minX) / cellSize - 0.5));
+        int fromRow = Math.max(0, (int) Math.ceil((minZ - this.minZ) / cellSize - 0.5));
+        int toRow = Math.min(cellsZ - 1, (int) Math.floor((maxZ - this.minZ) / cellSize - 0.5));
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                inZone[row * cellsX + column] = true;
+            }
+        }
+    }
+
+    /**
+     * Counts down to the next wave and spawns it once it's due. Call this once per tick after dead enemies have been removed
+     * @param enemies pool to spawn into
+     * @param px x position of the player
+     * @param pz z position of the player
+     * @param dt length of the tick in seconds
+     * @param rand random number generator used to pick the spawn locations
+     */
+    public void update(EnemyPool enemies, double px, double pz, double dt, Random rand) {
+        if (nextWave <= 0) {
+            lastWaveSize = spawn(enemies, waves.count(wave), px, pz, rand);
+            wave++;
+            nextWave = waves.interval();  // Reset the cooldown
+        }
+
+        nextWave -= dt;  // Reduce the cooldown by 1 tick
+    }
+
+    /**
+     * Spawns a burst of enemies right now, each in its own empty cell while there are empty cells left
+     * <p>
+     * If there are more enemies than empty cells, the cells are handed out again once every one has been used so the whole burst still spawns.
+     * If every cell already has an enemy in it, enemies spawn in cells alongside them
+     * @param enemies pool to spawn into
+     * @param count number of enemies to spawn
+     * @param px x position of the player
+     * @param pz z position of the player
+     * @param rand random number generator used to pick the spawn locations
+     * @return number of enemies spawned, only less than count if the player is too close to every cell
+     */
+    public int spawn(EnemyPool enemies, int count, double px, double pz, Random rand) {
+        if (count <= 0) {return 0;}
+
+        findCandidates(enemies, px, pz, true);
+        if (candidateCount == 0) {findCandidates(enemies, px, pz, false);}  // Every free cell already has an enemy in it, share them
+        if (candidateCount == 0) {return 0;}
+
+        // Only the part of a cell an enemy's center can be in without poking out of the cell
+        double halfWidth = EnemyPool.WIDTH / 2;
+        double halfDepth = EnemyPool.DEPTH / 2;
+        double spreadX = Math.max(cellSize - EnemyPool.WIDTH, 0);
+        double spreadZ = Math.max(cellSize - EnemyPool.DEPTH, 0);
+
+        int remaining = candidateCount;
+        for (int i = 0; i < count; i++) {
+            if (remaining == 0) {remaining = candidateCount;}  // Every cell has been used, start handing them out again
+
+            // Take a random candidate and swap it behind the ones still available so it isn't picked again
+            int pick = rand.nextInt(remaining);
+            int cell = candidates[pick];
+            candidates[pick] = candidates[--remaining];
+            candidates[remaining] = cell;
+
+            int row = cell / cellsX;
+            int column = cell - row * cellsX;
+            enemies.spawn(
+                    minX + column * cellSize + halfWidth + rand.nextDouble() * spreadX,
+                    minZ + row * cellSize + halfDepth + rand.nextDouble() * spreadZ
+            );
+        }
+
+        return count;
+    }
+
+    /**
+     * Fills {@link #candidates} with every unblocked cell in a spawn zone (if there are any) that is far enough from the player, and if skipOccupied
+     * has no enemy in it
+     */
+    private void findCandidates(EnemyPool enemies, double px, double pz, boolean skipOccupied) {
+        // Mark the cells enemies are in with a number no earlier burst used, so the last burst's marks don't count
+        int stamp = ++occupancyStamp;
+        for (int i = 0; skipOccupied && i < enemies.size(); i++) {
+            int column = (int) Math.floor((enemies.getX(i) - minX) / cellSize);
+            int row = (int) Math.floor((enemies.getZ(i) - minZ) / cellSize);
+            if (column >= 0 && column < cellsX && row >= 0 && row < cellsZ) {occupied[row * cellsX + column] = stamp;}
+        }
+
+        double minDistanceSquared = MINSPAWNDISTANCE * MINSPAWNDISTANCE;
+        candidateCount = 0;
+        int cell = 0;
+
+        for (int row = 0; row < cellsZ; row++) {
+            // Distance from the player to the nearest edge of the row along z, the same for every cell in it
+            double rowMinZ = minZ + row * cellSize;
+            double dz = Math.max(0, Math.max(rowMinZ - pz, pz - rowMinZ - cellSize));
+            double dzSquared = dz * dz;
+
+            for (int column = 0; column < cellsX; column++, cell++) {
+                if (blocked[cell] || (zoned && !inZone[cell]) || (skipOccupied && occupied[cell] == stamp)) {continue;}
+
+                double columnMinX = minX + column * cellSize;
+                double dx = Math.max(0, Math.max(columnMinX - px, px - columnMinX - cellSize));
+                if (dx * dx + dzSquared < minDistanceSquared) {continue;}  // Part of the cell is too close to the player
+
+                candidates[candidateCount++] = cell;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cells enemies could spawn in as of the last wave
+     * @return number of cells
+     */
+    public int getCandidateCount() { return candidateCount; }
+
+    /**
+     * Gets the number of waves spawned so far
+     * @return number of waves
+     */
+    public int getWave() { return wave; }
+
+    /**
+     * Gets the number of enemies spawned by the last wave
+     * @return number of enemies
+     */
+    public int getLastWaveSize() { return lastWaveSize; }
+
+    /**
+     * Mixes everything about the scheduler that affects later ticks into a hash
+     * @param hash hash so far
+     * @return new hash
+     */
+    long hash(long hash) {
+        hash = StateHash.mix(hash, nextWave);
+        return StateHash.mix(hash, wave);
+    }
+}
@@ -0,0 +1,46 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Folds the state of the world into a single 64-bit number (FNV-1a over the raw bits of every value)
+ * <p>
+ * Two runs that end up in exactly the same state get the same hash, and any difference at all (even the last bit of a double) almost certainly
+ * changes it. Used by {@link World#stateHash()} to check a replay against the session it was recorded from
+ */
+final class StateHash {
+
+    /**
+     * Starting value of every hash
+     */
+    static final long SEED = 0xcbf29ce484222325L;
+
+    /**
+     * FNV-1a 64-bit prime
+     */
+    private static final long PRIME = 0x100000001b3L;
+
+    /**
+     * Only static helpers, never instantiated
+     */
+    private StateHash() {}
+
+    /**
+     * Mixes a value into a hash
+     * @param hash hash so far
+     * @param value value to mix in
+     * @return new hash
+     */
+    static long mix(long hash, long value) {
+        for (int i = 0; i < 64; i += 8) {
+            hash = (hash ^ ((value >>> i) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a hash by its exact bits
+     * @param hash hash so far
+     * @param value value to mix in
+     * @return new hash
+     */
+    static long mix(long hash, double value) { return mix(hash, Double.doubleToLongBits(value)); }
+}
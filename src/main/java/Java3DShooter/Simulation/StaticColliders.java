@@ -0,0 +1,108 @@
+package Java3DShooter.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * The bounding box of every solid piece of static scenery, kept to one side so collisions can be checked against scenery that's drawn as one merged
+ * mesh and no longer has a node per prop to ask
+ * <p>
+ * Boxes are packed into one double[] the way {@link Collision#pack} lays them out and put into a {@link SpatialHashGrid} by their centers, which is
+ * built once when the level is loaded. A sweep then grows the area its path covers by the largest half-extents of any collider so the grid finds
+ * every collider that could touch it, and checks just those exactly. Nothing ever moves so the grid is only built again if more colliders are added,
+ * and sweeps never allocate
+ */
+public class StaticColliders {
+
+    /**
+     * Broad-phase over the colliders' centers
+     */
+    private final SpatialHashGrid grid;
+
+    /**
+     * Every collider packed back to back, see {@link Collision#pack}
+     */
+    private double[] boxes = new double[16 * Collision.STRIDE];
+
+    /**
+     * Number of colliders added
+     */
+    private int count = 0;
+
+    /**
+     * Largest half-width and half-depth of any collider, how far a sweep has to reach past its path to find colliders centered outside it
+     */
+    private double maxHalfWidth = 0, maxHalfDepth = 0;
+
+    /**
+     * Creates a table with no colliders
+     * @param boundingBox the area most colliders are in as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}, ones outside it still work
+     * @param cellSize width and depth of each cell of the grid, about the size of a typical collider
+     */
+    public StaticColliders(double[][] boundingBox, double cellSize) {
+        this.grid = new SpatialHashGrid(boundingBox, cellSize);
+    }
+
+    /**
+     * Adds a collider. Call {@link #build()} once the colliders are added, before the next sweep
+     * @param x x position of the collider's center
+     * @param y y position of the collider's center
+     * @param z z position of the collider's center
+     * @param halfWidth half the collider's width
+     * @param halfHeight half the collider's height
+     * @param halfDepth half the collider's depth
+     * @return id of the collider, colliders are numbered in the order they're added
+     */
+    public int add(double x, double y, double z, double halfWidth, double halfHeight, double halfDepth) {
+        if ((count + 1) * Collision.STRIDE > boxes.length) {boxes = Arrays.copyOf(boxes, boxes.length * 2);}
+
+        Collision.pack(boxes, count, x, y, z, halfWidth, halfHeight, halfDepth);
+        grid.insert(count, x, z);
+        maxHalfWidth = Math.max(maxHalfWidth, halfWidth);
+        maxHalfDepth = Math.max(maxHalfDepth, halfDepth);
+
+        return count++;
+    }
+
+    /**
+     * Sorts the colliders into the grid so they can be swept against
+     */
+    public void build() { grid.build(); }
+
+    /**
+     * Gets the number of colliders
+     * @return number of colliders
+     */
+    public int size() { return count; }
+
+    /**
+     * Finds how far along a path a moving box first touches any collider, only call this after {@link #build()}
+     * @param x0 x position the box's center starts at
+     * @param y0 y position the box's center starts at
+     * @param z0 z position the box's center starts at
+     * @param x1 x position the box's center ends at
+     * @param y1 y position the box's center ends at
+     * @param z1 z position the box's center ends at
+     * @param halfWidth half the moving box's width
+     * @param halfHeight half the moving box's height
+     * @param halfDepth half the moving box's depth
+     * @return fraction of the way along the path where it first touches a collider (0 if it starts inside one), or -1 if it never touches one
+     */
+    public double sweep(double x0, double y0, double z0, double x1, double y1, double z1, double halfWidth, double halfHeight, double halfDepth) {
+        if (count == 0) {return -1;}
+
+        double reachX = halfWidth + maxHalfWidth;
+        double reachZ = halfDepth + maxHalfDepth;
+        int candidates = grid.query(Math.min(x0, x1) - reachX, Math.min(z0, z1) - reachZ, Math.max(x0, x1) + reachX, Math.max(z0, z1) + reachZ);
+        double first = -1;
+
+        for (int i = 0; i < candidates; i++) {
+            int o = grid.getResult(i) * Collision.STRIDE;
+            double time = Collision.sweep(x0, y0, z0, x1, y1, z1,
+                    boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3] + halfWidth, boxes[o + 4] + halfHeight, boxes[o + 5] + halfDepth);
+
+            if (time >= 0 && (first < 0 || time < first)) {first = time;}
+        }
+
+        return first;
+    }
+}
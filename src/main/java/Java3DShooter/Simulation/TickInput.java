@@ -0,0 +1,109 @@
+package Java3DShooter.Simulation;
+
+/**
+ * The actions held during one tick, along with which of them were pressed or released since the tick before
+ * <p>
+ * A tick's input is one long holding three masks of {@link InputAction}s: the actions held in the low bits, the actions pressed since the last tick
+ * from {@link #PRESSEDSHIFT}, and the actions released since the last tick from {@link #RELEASEDSHIFT} ({@link #pack}). Presses and releases are
+ * recorded by {@link InputState} as the key events arrive, so a key let go and pressed again between two ticks still shows both, and they're stored
+ * in an {@link InputRecording} along with what was held so a replay sees the same ones
+ */
+public class TickInput {
+
+    /**
+     * Bits each mask takes up in a tick's input, one for each action
+     */
+    static final int MASKBITS = 21;
+
+    /**
+     * Where the mask of actions pressed since the last tick starts in a tick's input
+     */
+    static final int PRESSEDSHIFT = MASKBITS;
+
+    /**
+     * Where the mask of actions released since the last tick starts in a tick's input
+     */
+    static final int RELEASEDSHIFT = MASKBITS * 2;
+
+    /**
+     * Mask of the bits one mask of actions takes up, which is also where the held actions are in a tick's input
+     */
+    static final long ACTIONSMASK = (1L << MASKBITS) - 1;
+
+    static {
+        if (InputAction.all().length > MASKBITS) {throw new IllegalStateException("More InputActions than fit in a tick's input");}
+    }
+
+    /**
+     * Actions held this tick
+     */
+    private long held = 0;
+
+    /**
+     * Actions pressed since the last tick
+     */
+    private long pressed = 0;
+
+    /**
+     * Actions released since the last tick
+     */
+    private long released = 0;
+
+    /**
+     * Packs the actions held, pressed, and released during a tick into the long the world is ticked with
+     * @param held mask of the actions held
+     * @param pressed mask of the actions pressed since the last tick
+     * @param released mask of the actions released since the last tick
+     * @return the tick's input
+     */
+    public static long pack(long held, long pressed, long released) {
+        return held | pressed << PRESSEDSHIFT | released << RELEASEDSHIFT;
+    }
+
+    /**
+     * Moves on to the next tick
+     * @param actions the actions held, pressed, and released this tick ({@link #pack}), a plain mask of held actions has nothing pressed or released
+     */
+    public void advance(long actions) {
+        held = actions & ACTIONSMASK;
+        pressed = actions >>> PRESSEDSHIFT & ACTIONSMASK;
+        released = actions >>> RELEASEDSHIFT & ACTIONSMASK;
+    }
+
+    /**
+     * Gets every action held this tick
+     * @return mask of {@link InputAction}s
+     */
+    public long getHeld() { return held; }
+
+    /**
+     * Checks whether an action is held this tick
+     * @param action the action
+     * @return whether it's held
+     */
+    public boolean isHeld(InputAction action) { return action.in(held); }
+
+    /**
+     * Checks whether an action was pressed since the last tick
+     * @param action the action
+     * @return whether its key went down since the last tick, even if it's been let go again since
+     */
+    public boolean wasPressed(InputAction action) { return action.in(pressed); }
+
+    /**
+     * Checks whether an action was released since the last tick
+     * @param action the action
+     * @return whether its key came up since the last tick, even if it's been pressed again since
+     */
+    public boolean wasReleased(InputAction action) { return action.in(released); }
+
+    /**
+     * Works out which way a pair of opposing actions points, so holding both cancels out instead of whichever was checked last winning
+     * @param positive action pointing the positive way
+     * @param negative action pointing the negative way
+     * @return 1, 0, or -1
+     */
+    public int axis(InputAction positive, InputAction negative) {
+        return (positive.in(held) ? 1 : 0) - (negative.in(held) ? 1 : 0);
+    }
+}
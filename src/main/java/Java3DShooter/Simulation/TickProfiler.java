@@ -0,0 +1,307 @@
+package Java3DShooter.Simulation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Keeps track of where the time goes each tick and each frame, how many entities there are, and how much memory the game threads allocate
+ * <p>
+ * Each {@link Phase} has its own {@link LatencyHistogram} so rare spikes show up in the 99th percentile instead of getting lost in an average.
+ * The simulation thread records the tick phases and the JavaFX thread records the frame phases, each histogram only ever has one writer
+ * <p>
+ * Everything here can be watched live through JMX (see {@link #registerMBeans()}) or on screen through the overlay in Main
+ */
+public class TickProfiler implements TickProfilerMXBean {
+
+    /**
+     * The parts of a tick (and of a frame) that get timed
+     */
+    public enum Phase {
+        /** Reading input and moving the player, including shooting */
+        PLAYERMOVE("player move"),
+        /** Moving every bullet and culling expired ones */
+        BULLETMOVE("bullet move"),
+        /** Steering every enemy towards the player */
+        ENEMYMOVE("enemy move"),
+        /** Finding and resolving collisions, then dropping dead enemies */
+        COLLISIONS("collisions"),
+        /** Spawning new enemies */
+        SPAWNING("spawning"),
+        /** A whole tick, every phase above together */
+        TICK("tick"),
+        /** Copying a snapshot of the world onto the JavaFX nodes, on the JavaFX thread */
+        SCENESYNC("scene sync"),
+        /** Time between one frame and the next, on the JavaFX thread */
+        FRAME("frame");
+
+        /**
+         * Name shown on the overlay
+         */
+        private final String label;
+
+        Phase(String label) { this.label = label; }
+
+        /**
+         * Gets the name of the phase as shown on the overlay
+         * @return label
+         */
+        public String getLabel() { return label; }
+    }
+
+    /**
+     * The JVM's thread bean if it can report how much each thread allocates (HotSpot and OpenJ9 can), otherwise null
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    /**
+     * One histogram of durations in nanoseconds per phase, indexed by {@link Phase#ordinal()}
+     */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+    /**
+     * Number of living enemies as of the last tick
+     */
+    private volatile int enemyCount = 0;
+
+    /**
+     * Number of living bullets as of the last tick
+     */
+    private volatile int bulletCount = 0;
+
+    /**
+     * Number of ticks run
+     */
+    private volatile long tickCount = 0;
+
+    /**
+     * Bytes allocated by the simulation thread since it started
+     */
+    private volatile long simulationAllocatedBytes = 0;
+
+    /**
+     * Bytes allocated by the JavaFX thread since the game loop started
+     */
+    private volatile long renderAllocatedBytes = 0;
+
+    /**
+     * Number of distinct materials the renderer has live
+     */
+    private volatile int materialCount = 0;
+
+    /**
+     * Number of enemies and bullets checked against the camera's view in the last frame
+     */
+    private volatile int visibilityTested = 0;
+
+    /**
+     * Number of enemies and bullets out of view (and so not drawn) in the last frame
+     */
+    private volatile int visibilityCulled = 0;
+
+    /**
+     * Number of enemies drawn with less detail for being far away in the last frame
+     */
+    private volatile int distantCount = 0;
+
+    /**
+     * Number of world chunks in the scene, in memory, and being loaded as of the last frame
+     */
+    private volatile int chunksShown = 0, chunksCached = 0, chunksLoading = 0;
+
+    /**
+     * Number of static props in the level and the number of meshes they're merged into
+     */
+    private volatile int sceneryProps = 0, sceneryMeshes = 0;
+
+    /**
+     * Creates a profiler with empty histograms
+     */
+    public TickProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Gets the histogram for a phase
+     * @param phase phase to look at
+     * @return histogram of durations in nanoseconds
+     */
+    public LatencyHistogram get(Phase phase) { return histograms[phase.ordinal()]; }
+
+    /**
+     * Records how long a phase took. Each phase must only be recorded from one thread
+     * @param phase phase that was timed
+     * @param nanos how long it took in nanoseconds
+     */
+    public void record(Phase phase, long nanos) { histograms[phase.ordinal()].record(nanos); }
+
+    /**
+     * Records the number of entities after a tick, run on the simulation thread
+     * @param enemies number of living enemies
+     * @param bullets number of living bullets
+     */
+    void recordTick(int enemies, int bullets) {
+        enemyCount = enemies;
+        bulletCount = bullets;
+        tickCount++;
+    }
+
+    /**
+     * Updates how much the simulation thread has allocated, run on the simulation thread
+     * @param bytes bytes allocated by the thread since it started, from {@link #currentThreadAllocatedBytes()}
+     */
+    public void setSimulationAllocatedBytes(long bytes) { simulationAllocatedBytes = bytes; }
+
+    /**
+     * Updates how much the JavaFX thread has allocated, run on the JavaFX thread
+     * @param bytes bytes allocated by the thread, from {@link #currentThreadAllocatedBytes()}
+     */
+    public void setRenderAllocatedBytes(long bytes) { renderAllocatedBytes = bytes; }
+
+    /**
+     * Updates how many distinct materials the renderer has live, run on the JavaFX thread
+     * @param count number of materials
+     */
+    public void setMaterialCount(int count) { materialCount = count; }
+
+    /**
+     * Updates how many entities were in view in the last frame, run on the JavaFX thread
+     * @param tested number of entities checked against the camera's view
+     * @param culled number of those out of view
+     * @param distant number of those drawn with less detail for being far away
+     */
+    public void setVisibility(int tested, int culled, int distant) {
+        visibilityTested = tested;
+        visibilityCulled = culled;
+        distantCount = distant;
+    }
+
+    /**
+     * Updates how many world chunks are loaded, run on the JavaFX thread
+     * @param shown number of chunks in the scene
+     * @param cached number of chunks in memory, shown or not
+     * @param loading number of chunks being built in the background
+     */
+    public void setChunks(int shown, int cached, int loading) {
+        chunksShown = shown;
+        chunksCached = cached;
+        chunksLoading = loading;
+    }
+
+    /**
+     * Updates how the level's static props are drawn, run on the JavaFX thread once the level is loaded
+     * @param props number of static props
+     * @param meshes number of meshes they're merged into
+     */
+    public void setScenery(int props, int meshes) {
+        sceneryProps = props;
+        sceneryMeshes = meshes;
+    }
+
+    /**
+     * Gets how many bytes the calling thread has allocated since it started. This is cheap enough to call every tick
+     * @return bytes allocated, or -1 if the JVM can't tell us
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREADS != null && THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    @Override
+    public int getEnemyCount() { return enemyCount; }
+
+    @Override
+    public int getBulletCount() { return bulletCount; }
+
+    @Override
+    public long getTickCount() { return tickCount; }
+
+    @Override
+    public long getSimulationAllocatedBytes() { return simulationAllocatedBytes; }
+
+    @Override
+    public long getRenderAllocatedBytes() { return renderAllocatedBytes; }
+
+    @Override
+    public int getMaterialCount() { return materialCount; }
+
+    @Override
+    public double getCullRatio() {
+        int tested = visibilityTested;
+        return tested == 0 ? 0 : (double) visibilityCulled / tested;
+    }
+
+    @Override
+    public int getDistantCount() { return distantCount; }
+
+    @Override
+    public int getChunksShown() { return chunksShown; }
+
+    @Override
+    public int getChunksCached() { return chunksCached; }
+
+    @Override
+    public int getSceneryMeshes() { return sceneryMeshes; }
+
+    @Override
+    public double getSimulationAllocatedBytesPerTick() {
+        long ticks = tickCount;
+        return ticks == 0 ? 0 : (double) simulationAllocatedBytes / ticks;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Registers this profiler and a histogram per phase with the platform MBeanServer, under Java3DShooter:type=Profiler and
+     * Java3DShooter:type=Phase,name=&lt;phase&gt;. Anything already registered under those names (from an earlier world) is replaced
+     * @throws JMException if the beans couldn't be registered
+     */
+    public void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, new ObjectName("Java3DShooter:type=Profiler"), this);
+
+        for (Phase phase : Phase.values()) {
+            register(server, new ObjectName("Java3DShooter:type=Phase,name=" + phase.name()), get(phase));
+        }
+    }
+
+    /**
+     * Registers a bean, replacing whatever was registered under the name before
+     */
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (server.isRegistered(name)) {server.unregisterMBean(name);}
+        server.registerMBean(bean, name);
+    }
+
+    /**
+     * Writes a short table of every phase's percentiles in microseconds along with the entity counts, as shown on the overlay
+     * @return multi-line summary
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-12s %8s %8s %8s %8s%n", "us", "p50", "p99", "p99.9", "max"));
+
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = get(phase);
+            text.append(String.format("%-12s %8.1f %8.1f %8.1f %8.1f%n", phase.getLabel(),
+                    histogram.getP50() / 1e3, histogram.getP99() / 1e3, histogram.getP999() / 1e3, histogram.getMax() / 1e3));
+        }
+
+        text.append(String.format("enemies %d  bullets %d  ticks %d  materials %d%n", enemyCount, bulletCount, tickCount, materialCount));
+        text.append(String.format("culled %d/%d (%.0f%%)  distant %d%n", visibilityCulled, visibilityTested, getCullRatio() * 100, distantCount));
+        text.append(String.format("chunks %d shown  %d cached  %d loading%n", chunksShown, chunksCached, chunksLoading));
+        text.append(String.format("scenery %d props in %d meshes%n", sceneryProps, sceneryMeshes));
+        text.append(String.format("allocated: simulation %.1f MB (%.0f B/tick)  render %.1f MB",
+                simulationAllocatedBytes / 1e6, getSimulationAllocatedBytesPerTick(), renderAllocatedBytes / 1e6));
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package Java3DShooter.Simulation;
+
+/**
+ * What a {@link TickProfiler} shows over JMX. The timings of each phase are registered separately as {@link LatencyHistogramMXBean}s
+ */
+public interface TickProfilerMXBean {
+
+    /**
+     * Gets the number of living enemies as of the last tick
+     * @return number of enemies
+     */
+    int getEnemyCount();
+
+    /**
+     * Gets the number of living bullets as of the last tick
+     * @return number of bullets
+     */
+    int getBulletCount();
+
+    /**
+     * Gets the number of ticks run
+     * @return number of ticks
+     */
+    long getTickCount();
+
+    /**
+     * Gets how many bytes the simulation thread has allocated since it started
+     * @return bytes allocated, -1 if the JVM can't measure it
+     */
+    long getSimulationAllocatedBytes();
+
+    /**
+     * Gets how many bytes the JavaFX thread has allocated
+     * @return bytes allocated, -1 if the JVM can't measure it
+     */
+    long getRenderAllocatedBytes();
+
+    /**
+     * Gets how many distinct materials the renderer has live, which stays small as long as everything shares them
+     * @return number of materials
+     */
+    int getMaterialCount();
+
+    /**
+     * Gets how much of the enemies and bullets were out of the camera's view (and so not drawn) in the last frame
+     * @return culled entities over entities checked, 0 if nothing was checked
+     */
+    double getCullRatio();
+
+    /**
+     * Gets the number of enemies drawn with less detail for being far away in the last frame
+     * @return number of enemies
+     */
+    int getDistantCount();
+
+    /**
+     * Gets the number of world chunks in the scene as of the last frame, bounded by the view distance however big the arena is
+     * @return number of chunks
+     */
+    int getChunksShown();
+
+    /**
+     * Gets the number of world chunks in memory as of the last frame, shown or not
+     * @return number of chunks
+     */
+    int getChunksCached();
+
+    /**
+     * Gets the number of meshes the level's static props are merged into, one per material however many props there are
+     * @return number of meshes
+     */
+    int getSceneryMeshes();
+
+    /**
+     * Gets the average number of bytes the simulation thread allocated per tick
+     * @return bytes per tick
+     */
+    double getSimulationAllocatedBytesPerTick();
+
+    /**
+     * Throws away the timings recorded so far for every phase
+     */
+    void reset();
+}
@@ -0,0 +1,47 @@
+package Java3DShooter.Simulation;
+
+/**
+ * Small vector helpers for steering and movement that never allocate
+ * <p>
+ * A direction is kept as the two parts of a unit vector rather than as an angle. Pointing something at a target then only needs a square root
+ * instead of an atan2 followed by a sin and a cos of the same angle, which works out to the exact same direction
+ */
+public final class VectorMath {
+
+    /**
+     * Only static helpers, never instantiated
+     */
+    private VectorMath() {}
+
+    /**
+     * Gets the squared length of a 2D vector, cheaper than the length when only comparing distances
+     * @return x^2 + y^2
+     */
+    public static double lengthSquared(double x, double y) { return x * x + y * y; }
+
+    /**
+     * Gets the squared length of a 3D vector
+     * @return x^2 + y^2 + z^2
+     */
+    public static double lengthSquared(double x, double y, double z) { return x * x + y * y + z * z; }
+
+    /**
+     * Gets what a 2D vector has to be multiplied by to become length 1. Multiply both parts of the vector by this to normalise it
+     * <p>
+     * A zero vector has no direction so 0 is returned rather than infinity, check for it if the caller needs a fallback direction
+     * @return 1 / length, or 0 for a zero vector
+     */
+    public static double inverseLength(double x, double y) {
+        double lengthSquared = lengthSquared(x, y);
+        return lengthSquared == 0 ? 0 : 1 / Math.sqrt(lengthSquared);
+    }
+
+    /**
+     * Gets what a 3D vector has to be multiplied by to become length 1
+     * @return 1 / length, or 0 for a zero vector
+     */
+    public static double inverseLength(double x, double y, double z) {
+        double lengthSquared = lengthSquared(x, y, z);
+        return lengthSquared == 0 ? 0 : 1 / Math.sqrt(lengthSquared);
+    }
+}
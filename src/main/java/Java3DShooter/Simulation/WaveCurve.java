@@ -0,0 +1,63 @@
+package Java3DShooter.Simulation;
+
+/**
+ * How many enemies spawn and how often. Enemies come in waves every interval seconds, and the n-th wave (counting from 0) is
+ * {@code first * scale^n + growth * n} enemies, never more than max
+ * <p>
+ * The default is one enemy every 5 seconds forever. Stress tests can ramp the horde up as fast as they like, for example
+ * {@code 1,50,50,1,10000} spawns 50 more enemies every second than the second before
+ * @param interval seconds between waves
+ * @param first enemies in the first wave
+ * @param growth enemies added to every wave after the first
+ * @param scale how much every wave is multiplied by compared to the one before it, 1 to only grow by growth
+ * @param max most enemies in a single wave
+ */
+public record WaveCurve(double interval, double first, double growth, double scale, int max) {
+
+    /**
+     * One enemy every 5 seconds
+     */
+    public static final WaveCurve DEFAULT = new WaveCurve(5, 1, 0, 1, 1);
+
+    /**
+     * Checks the curve makes sense
+     */
+    public WaveCurve {
+        if (!(interval > 0)) {throw new IllegalArgumentException("Wave interval must be positive: " + interval);}
+        // Written so NaN fails too, it compares false against everything
+        if (!(first >= 0) || !(growth >= 0) || !(scale >= 0) || max < 0) {
+            throw new IllegalArgumentException("Wave sizes must be numbers that aren't negative: " + first + ", " + growth + ", " + scale + ", " + max);
+        }
+    }
+
+    /**
+     * Gets the number of enemies in a wave
+     * @param wave number of waves before this one
+     * @return number of enemies to spawn
+     */
+    public int count(long wave) {
+        // StrictMath so a replay spawns the same number of enemies on any machine
+        double enemies = first * StrictMath.pow(scale, wave) + growth * wave;
+        return (int) Math.min(max, Math.floor(enemies));
+    }
+
+    /**
+     * Reads a curve written by {@link #format()}
+     * @param curve interval, first, growth, scale, and max separated by commas or spaces
+     * @return the curve
+     * @throws IllegalArgumentException if the curve doesn't have all five numbers or they don't make sense
+     */
+    public static WaveCurve parse(String curve) {
+        String[] parts = curve.trim().split("[,\\s]+");
+        if (parts.length != 5) {throw new IllegalArgumentException("Expected interval,first,growth,scale,max but found: " + curve);}
+
+        return new WaveCurve(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                Double.parseDouble(parts[3]), Integer.parseInt(parts[4]));
+    }
+
+    /**
+     * Writes the curve in the form {@link #parse(String)} reads
+     * @return interval, first, growth, scale, and max separated by spaces
+     */
+    public String format() { return interval + " " + first + " " + growth + " " + scale + " " + max; }
+}
@@ -0,0 +1,369 @@
+package Java3DShooter.Simulation;
+
+import java.util.Random;
+
+/**
+ * The World class is the headless core of the game. It holds the state of the player, every bullet, and every enemy as plain Java fields
+ * and advances all of them one fixed-length tick at a time through {@link #tick(long)}
+ * <p>
+ * Every speed and cooldown is measured in seconds, so changing the tick rate changes how smooth the simulation is but not how fast the game plays
+ * <p>
+ * Nothing in here touches JavaFX, so the game can be simulated on a machine without a display. The scene graph in Main only mirrors
+ * whatever state the World is in after each tick
+ */
+public class World {
+
+    /**
+     * State of the player and their bullets
+     */
+    private final PlayerState player;
+
+    /**
+     * The actions held this tick and the tick before, so presses and releases can be told apart from holds
+     */
+    private final TickInput input = new TickInput();
+
+    /**
+     * Number of enemies to make room for up front, the pool grows past this if needed
+     */
+    private static final int ENEMYCAPACITY = 1024;
+
+    /**
+     * Stores all the enemies
+     */
+    private final EnemyPool enemies;
+
+    /**
+     * Size of a cell in the enemy collision grid. Needs to be at least as large as an enemy so an enemy is never spread over more than the cells we search
+     */
+    private static final double CELLSIZE = 20;
+
+    /**
+     * Broad-phase for collisions against enemies, rebuilt from the enemies' positions every tick
+     */
+    private final SpatialHashGrid enemyGrid;
+
+    /**
+     * Smallest size of a cell in the flow field enemies path along, smaller cells path more tightly around obstacles but take longer to rebuild
+     */
+    private static final double FLOWCELLSIZE = 20;
+
+    /**
+     * Most cells along either side of the flow field and spawn grids. On bigger arenas the cells get bigger instead, so rebuilding the flow field
+     * and finding spawn cells cost the same however big the arena is
+     */
+    private static final int MAXGRIDCELLS = 150;
+
+    /**
+     * Which way enemies head from each part of the ground to reach the player around obstacles, rebuilt only when the player moves into another cell
+     */
+    private final FlowField flowField;
+
+    /**
+     * Size of a cell in the obstacles' grid, about the size of a typical obstacle
+     */
+    private static final double OBSTACLECELLSIZE = 100;
+
+    /**
+     * Bounding box of every obstacle, bullets stop at the first one along their path
+     */
+    private final StaticColliders obstacles;
+
+    /**
+     * Whether obstacles were added since {@link #obstacles} was last built
+     */
+    private boolean obstaclesAdded = false;
+
+    /**
+     * Smallest size of a cell enemies can spawn in, big enough to hold an enemy with room to place it anywhere in the cell
+     */
+    private static final double SPAWNCELLSIZE = 20;
+
+    /**
+     * Decides when enemies spawn, how many, and where
+     */
+    private final SpawnScheduler spawner;
+
+    /**
+     * Times every phase of every tick
+     */
+    private final TickProfiler profiler = new TickProfiler();
+
+    /**
+     * Length of a single tick in seconds
+     */
+    private final double dt;
+
+    /**
+     * Serves as the random number generator for the world, used to determine spawn locations
+     */
+    private final Random rand;
+
+    /**
+     * Seed the random number generator was created with. The same seed and the same input always play out the same way
+     */
+    private final long seed;
+
+    /**
+     * Creates a new world
+     * @param groundPlaneBoundingBox the bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}, this is used to know where enemies can spawn
+     * @param player state of the player
+     * @param ticksPerSecond how many times {@link #tick(long)} is called per second of game time
+     * @param seed seed for the random number generator, see {@link #getSeed()}
+     */
+    public World(double[][] groundPlaneBoundingBox, PlayerState player, double ticksPerSecond, long seed) {
+        this.player = player;
+        this.seed = seed;
+        this.rand = new Random(seed);
+        this.dt = 1 / ticksPerSecond;
+        this.enemies = new EnemyPool(groundPlaneBoundingBox, ENEMYCAPACITY);
+        this.enemyGrid = new SpatialHashGrid(groundPlaneBoundingBox, CELLSIZE);
+        this.flowField = new FlowField(groundPlaneBoundingBox, gridCellSize(groundPlaneBoundingBox, FLOWCELLSIZE));
+        this.spawner = new SpawnScheduler(groundPlaneBoundingBox, gridCellSize(groundPlaneBoundingBox, SPAWNCELLSIZE));
+        this.obstacles = new StaticColliders(groundPlaneBoundingBox, OBSTACLECELLSIZE);
+    }
+
+    /**
+     * Works out how big the cells of a grid over the ground need to be so there are no more than {@link #MAXGRIDCELLS} along either side
+     * @param groundPlaneBoundingBox the bounding box of the ground plane as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param minimum smallest the cells can be
+     * @return size of a cell
+     */
+    private static double gridCellSize(double[][] groundPlaneBoundingBox, double minimum) {
+        double longestSide = Math.max(groundPlaneBoundingBox[0][1] - groundPlaneBoundingBox[0][0], groundPlaneBoundingBox[2][1] - groundPlaneBoundingBox[2][0]);
+        return Math.max(minimum, longestSide / MAXGRIDCELLS);
+    }
+
+    /**
+     * Adds something solid, such as the flag. Enemies walk around its footprint on the ground and bullets stop when they hit it
+     * @param boundingBox the bounding box of the obstacle as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     */
+    public void addObstacle(double[][] boundingBox) {
+        // Grown by an enemy's half-extents so an enemy's center staying out of it keeps the whole enemy out
+        double minX = boundingBox[0][0] - EnemyPool.WIDTH / 2;
+        double minZ = boundingBox[2][0] - EnemyPool.DEPTH / 2;
+        double maxX = boundingBox[0][1] + EnemyPool.WIDTH / 2;
+        double maxZ = boundingBox[2][1] + EnemyPool.DEPTH / 2;
+
+        flowField.addObstacle(minX, minZ, maxX, maxZ);
+        spawner.addObstacle(minX, minZ, maxX, maxZ);
+
+        // Bullets hit the whole box, not only its footprint
+        obstacles.add(
+                (boundingBox[0][0] + boundingBox[0][1]) / 2, (boundingBox[1][0] + boundingBox[1][1]) / 2, (boundingBox[2][0] + boundingBox[2][1]) / 2,
+                (boundingBox[0][1] - boundingBox[0][0]) / 2, (boundingBox[1][1] - boundingBox[1][0]) / 2, (boundingBox[2][1] - boundingBox[2][0]) / 2
+        );
+        obstaclesAdded = true;
+    }
+
+    /**
+     * Limits enemies to spawning in an area and any other spawn zones added, add these before the first tick
+     * @param minX minimum x coordinate of the area
+     * @param minZ minimum z coordinate of the area
+     * @param maxX maximum x coordinate of the area
+     * @param maxZ maximum z coordinate of the area
+     */
+    public void addSpawnZone(double minX, double minZ, double maxX, double maxZ) { spawner.addSpawnZone(minX, minZ, maxX, maxZ); }
+
+    /**
+     * Sets how many enemies spawn and how often, call this before the first tick
+     * @param waves the wave curve
+     */
+    public void setWaves(WaveCurve waves) { spawner.setWaves(waves); }
+
+    /**
+     * Gets the scheduler deciding when and where enemies spawn
+     * @return SpawnScheduler
+     */
+    public SpawnScheduler getSpawner() { return spawner; }
+
+    /**
+     * Gets the flow field enemies path along
+     * @return FlowField
+     */
+    public FlowField getFlowField() { return flowField; }
+
+    /**
+     * Gets the state of the player
+     * @return PlayerState
+     */
+    public PlayerState getPlayer() { return player; }
+
+    /**
+     * Gets the pool holding all the currently living enemies
+     * @return EnemyPool
+     */
+    public EnemyPool getEnemies() { return enemies; }
+
+    /**
+     * Damages anything that collided this tick. Bullets damage the enemy they hit and are used up, as are bullets that hit an obstacle first.
+     * Enemies that reach the player damage the player and die
+     * <p>
+     * Enemies are put into {@link #enemyGrid} so each bullet and the player only check the enemies in the cells around them rather than every enemy
+     * <p>
+     * Bullets are checked along the whole path they took this tick ({@link Collision#sweep}) so they can't pass through an enemy between ticks however
+     * fast they go or however slowly the world ticks
+     */
+    private void resolveCollisions() {
+        if (obstaclesAdded) {
+            obstacles.build();
+            obstaclesAdded = false;
+        }
+
+        enemyGrid.clear();
+        for (int i = 0; i < enemies.size(); i++) {
+            if (!enemies.isDead(i)) {enemyGrid.insert(i, enemies.getX(i), enemies.getZ(i));}
+        }
+        enemyGrid.build();
+
+        // Enemies are inserted by their center so we grow every search area by an enemy's half-extents to catch ones that only poke into it
+        double enemyHalfWidth = EnemyPool.WIDTH / 2;
+        double enemyHalfHeight = EnemyPool.HEIGHT / 2;
+        double enemyHalfDepth = EnemyPool.DEPTH / 2;
+
+        // Bullets hitting enemies. A bullet can cover several enemies' worth of ground in a tick (more so at low tick rates), so rather than checking
+        // only where it ended up we check the whole path it took since the last tick, relative to each enemy since the enemies moved as well
+        ProjectilePool bullets = player.getBullets();
+        double hitHalfWidth = ProjectilePool.WIDTH / 2 + enemyHalfWidth;
+        double hitHalfHeight = ProjectilePool.HEIGHT / 2 + enemyHalfHeight;
+        double hitHalfDepth = ProjectilePool.DEPTH / 2 + enemyHalfDepth;
+        double enemyStep = EnemyPool.maxStep(dt);  // The grid holds where enemies are now, they could have been this much closer to the path before they moved
+
+        for (int b = 0; b < bullets.size(); b++) {
+            if (bullets.getTimeToLive(b) <= 0) {continue;}  // Already used up
+
+            double startX = bullets.getPrevX(b);
+            double startY = bullets.getPrevY(b);
+            double startZ = bullets.getPrevZ(b);
+            double endX = bullets.getX(b);
+            double endY = bullets.getY(b);
+            double endZ = bullets.getZ(b);
+
+            int candidates = enemyGrid.query(
+                    Math.min(startX, endX) - hitHalfWidth - enemyStep, Math.min(startZ, endZ) - hitHalfDepth - enemyStep,
+                    Math.max(startX, endX) + hitHalfWidth + enemyStep, Math.max(startZ, endZ) + hitHalfDepth + enemyStep
+            );
+
+            // A bullet can only hit one thing, the first one along its path
+            double wallTime = obstacles.sweep(startX, startY, startZ, endX, endY, endZ,
+                    ProjectilePool.WIDTH / 2, ProjectilePool.HEIGHT / 2, ProjectilePool.DEPTH / 2);
+            int hit = -1;
+            double hitTime = wallTime >= 0 ? wallTime : Double.POSITIVE_INFINITY;
+
+            for (int i = 0; i < candidates; i++) {
+                int enemy = enemyGrid.getResult(i);
+                if (enemies.isDead(enemy)) {continue;}  // Another bullet got to it first this tick
+
+                double time = Collision.sweep(
+                        startX - enemies.getPrevX(enemy), startY, startZ - enemies.getPrevZ(enemy),
+                        endX - enemies.getX(enemy), endY, endZ - enemies.getZ(enemy),
+                        0, enemies.getY(enemy), 0, hitHalfWidth, hitHalfHeight, hitHalfDepth
+                );
+
+                if (time >= 0 && time < hitTime) {
+                    hit = enemy;
+                    hitTime = time;
+                }
+            }
+
+            if (hit >= 0) {
+                enemies.takeDamage(hit, 1);
+                bullets.kill(b);
+            } else if (wallTime >= 0) {
+                bullets.kill(b);
+            }
+        }
+
+        // Enemies reaching the player
+        double playerHalfWidth = PlayerState.PLAYERWIDTH / 2.0;
+        double playerHalfHeight = PlayerState.PLAYERHEIGHT / 2.0;
+        double playerHalfDepth = PlayerState.PLAYERDEPTH / 2.0;
+
+        int candidates = enemyGrid.query(
+                player.getX() - playerHalfWidth - enemyHalfWidth, player.getZ() - playerHalfDepth - enemyHalfDepth,
+                player.getX() + playerHalfWidth + enemyHalfWidth, player.getZ() + playerHalfDepth + enemyHalfDepth
+        );
+
+        for (int i = 0; i < candidates; i++) {
+            int enemy = enemyGrid.getResult(i);
+            if (enemies.isDead(enemy)) {continue;}
+
+            if (Collision.isColliding(player.getX(), player.getY(), player.getZ(), playerHalfWidth, playerHalfHeight, playerHalfDepth,
+                    enemies.getX(enemy), enemies.getY(enemy), enemies.getZ(enemy), enemyHalfWidth, enemyHalfHeight, enemyHalfDepth)) {
+                player.takeDamage(1);
+                enemies.takeDamage(enemy, Integer.MAX_VALUE);  // The enemy is used up on contact, otherwise it would drain the player's HP in a handful of frames
+            }
+        }
+    }
+
+    /**
+     * Gets the length of a tick
+     * @return seconds per tick
+     */
+    public double getTickLength() { return dt; }
+
+    /**
+     * Gets the profiler timing each phase of the world's ticks
+     * @return TickProfiler
+     */
+    public TickProfiler getProfiler() { return profiler; }
+
+    /**
+     * Gets the seed the world's random number generator was created with
+     * @return seed
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * Hashes the entire state of the world: the player, every bullet, every enemy, and the spawn timer and wave
+     * <p>
+     * Two worlds with the same seed fed the same keys tick for tick always have the same hash, this is how replays are checked
+     * @return 64-bit hash of the world's state
+     */
+    public long stateHash() {
+        long hash = player.hash(StateHash.SEED);
+        hash = enemies.hash(hash);
+        return spawner.hash(hash);
+    }
+
+    /**
+     * Advances the world by one tick
+     * @param actions the {@link InputAction}s held, pressed, and released this tick, packed by {@link TickInput#pack}
+     */
+    public void tick(long actions) {
+        long start = System.nanoTime();
+        input.advance(actions);
+
+        // Update the bullet's positions, this also kills any bullets whose timeToLive is expired
+        player.getBullets().advance(dt);
+        long bulletsMoved = System.nanoTime();
+
+        // Player logic
+        player.move(input, dt);
+        long playerMoved = System.nanoTime();
+
+        // Enemy logic, the flow field is only rebuilt if the player has moved into another cell since last tick
+        flowField.update(player.getX(), player.getZ());
+        enemies.move(flowField, player.getX(), player.getZ(), dt);
+        long enemiesMoved = System.nanoTime();
+
+        // Check what got hit now that everything has moved
+        resolveCollisions();
+
+        // Get rid of all dead enemies, their slots get recycled by later spawns
+        enemies.removeDead();
+        long collided = System.nanoTime();
+
+        // Spawns the next wave of enemies if it's due
+        spawner.update(enemies, player.getX(), player.getZ(), dt, rand);
+        long end = System.nanoTime();
+
+        profiler.record(TickProfiler.Phase.BULLETMOVE, bulletsMoved - start);
+        profiler.record(TickProfiler.Phase.PLAYERMOVE, playerMoved - bulletsMoved);
+        profiler.record(TickProfiler.Phase.ENEMYMOVE, enemiesMoved - playerMoved);
+        profiler.record(TickProfiler.Phase.COLLISIONS, collided - enemiesMoved);
+        profiler.record(TickProfiler.Phase.SPAWNING, end - collided);
+        profiler.record(TickProfiler.Phase.TICK, end - start);
+        profiler.recordTick(enemies.size(), player.getBullets().size());
+    }
+}
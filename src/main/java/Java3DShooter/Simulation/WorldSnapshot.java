@@ -0,0 +1,234 @@
+package Java3DShooter.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * A copy of everything the renderer needs from the World after a tick: where the player, every bullet, and every enemy were on the last two ticks
+ * <p>
+ * The simulation thread fills a snapshot and then hands it over to the JavaFX thread through {@link SimulationThread}. Once handed over a snapshot is never
+ * written to until the JavaFX thread hands it back, so the JavaFX thread can read it without any locking. Snapshots are reused rather than created per tick,
+ * the arrays only grow when there are more entities than the snapshot has ever held
+ */
+public class WorldSnapshot {
+
+    /**
+     * Number of the tick this snapshot was taken after, later ticks have larger numbers
+     */
+    private long tick = -1;
+
+    /**
+     * Time in nanoseconds (from System.nanoTime()) that the tick was taken
+     */
+    private long time;
+
+    /**
+     * Position of the player on the latest tick and the tick before as {x, y, z, prevX, prevY, prevZ}
+     */
+    private final double[] player = new double[6];
+
+    /**
+     * Tilt of the camera on the latest tick and the tick before as {xTilt, yTilt, prevXTilt, prevYTilt}
+     */
+    private final double[] tilt = new double[4];
+
+    /**
+     * Whether the player was dead as of this tick
+     */
+    private boolean playerDead;
+
+    /**
+     * Number of living bullets
+     */
+    private int bulletCount;
+
+    /**
+     * Position of every bullet on the latest tick, packed as {x, y, z} per bullet
+     */
+    private double[] bullets = new double[0];
+
+    /**
+     * Position of every bullet on the tick before, packed as {x, y, z} per bullet
+     */
+    private double[] prevBullets = new double[0];
+
+    /**
+     * Number of living enemies
+     */
+    private int enemyCount;
+
+    /**
+     * Y position shared by every enemy
+     */
+    private double enemyY;
+
+    /**
+     * Position of every enemy on the latest tick, packed as {x, z} per enemy
+     */
+    private double[] enemies = new double[0];
+
+    /**
+     * Position of every enemy on the tick before, packed as {x, z} per enemy
+     */
+    private double[] prevEnemies = new double[0];
+
+    /**
+     * Blends between a value at the previous tick and the latest tick
+     */
+    private static double lerp(double previous, double latest, double alpha) { return previous + (latest - previous) * alpha; }
+
+    /**
+     * Copies the current state of a world into this snapshot
+     * @param world the world to copy
+     * @param tick number of the tick that was just run
+     * @param time time in nanoseconds that the tick was run
+     */
+    void capture(World world, long tick, long time) {
+        this.tick = tick;
+        this.time = time;
+
+        PlayerState p = world.getPlayer();
+        player[0] = p.getX(1);
+        player[1] = p.getY(1);
+        player[2] = p.getZ(1);
+        player[3] = p.getX(0);
+        player[4] = p.getY(0);
+        player[5] = p.getZ(0);
+        tilt[0] = p.getXTilt(1);
+        tilt[1] = p.getYTilt(1);
+        tilt[2] = p.getXTilt(0);
+        tilt[3] = p.getYTilt(0);
+        playerDead = p.isDead();
+
+        ProjectilePool b = p.getBullets();
+        bulletCount = b.size();
+        if (bullets.length < bulletCount * 3) {
+            bullets = Arrays.copyOf(bullets, b.capacity() * 3);
+            prevBullets = Arrays.copyOf(prevBullets, b.capacity() * 3);
+        }
+        b.copyPositions(bullets, prevBullets);
+
+        EnemyPool e = world.getEnemies();
+        enemyCount = e.size();
+        enemyY = enemyCount > 0 ? e.getY(0) : 0;
+        if (enemies.length < enemyCount * 2) {
+            enemies = Arrays.copyOf(enemies, enemyCount * 4);
+            prevEnemies = Arrays.copyOf(prevEnemies, enemyCount * 4);
+        }
+        e.copyPositions(enemies, prevEnemies);
+    }
+
+    /**
+     * Gets the number of the tick this snapshot was taken after
+     * @return tick number, -1 if nothing has been captured yet
+     */
+    public long getTick() { return tick; }
+
+    /**
+     * Works out how far between the last two ticks to draw this snapshot at a certain time
+     * @param now current time in nanoseconds (from System.nanoTime())
+     * @param tickNanos length of a tick in nanoseconds
+     * @return alpha in [0, 1]
+     */
+    public double getAlpha(long now, long tickNanos) {
+        return Math.min(Math.max((double) (now - time) / tickNanos, 0), 1);
+    }
+
+    /**
+     * Gets the x position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getPlayerX(double alpha) { return lerp(player[3], player[0], alpha); }
+
+    /**
+     * Gets the y position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return y position
+     */
+    public double getPlayerY(double alpha) { return lerp(player[4], player[1], alpha); }
+
+    /**
+     * Gets the z position of the player blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getPlayerZ(double alpha) { return lerp(player[5], player[2], alpha); }
+
+    /**
+     * Gets the lateral angle of the camera blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return xTilt in degrees
+     */
+    public double getXTilt(double alpha) { return lerp(tilt[2], tilt[0], alpha); }
+
+    /**
+     * Gets the vertical angle of the camera blended between the last two ticks
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return yTilt in degrees
+     */
+    public double getYTilt(double alpha) { return lerp(tilt[3], tilt[1], alpha); }
+
+    /**
+     * Returns whether the player was dead as of this tick
+     * @return isDead?
+     */
+    public boolean isPlayerDead() { return playerDead; }
+
+    /**
+     * Gets the number of living bullets
+     * @return number of bullets
+     */
+    public int getBulletCount() { return bulletCount; }
+
+    /**
+     * Gets the x position of a bullet blended between the last two ticks
+     * @param i index of the bullet, less than {@link #getBulletCount()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getBulletX(int i, double alpha) { return lerp(prevBullets[i * 3], bullets[i * 3], alpha); }
+
+    /**
+     * Gets the y position of a bullet blended between the last two ticks
+     * @param i index of the bullet, less than {@link #getBulletCount()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return y position
+     */
+    public double getBulletY(int i, double alpha) { return lerp(prevBullets[i * 3 + 1], bullets[i * 3 + 1], alpha); }
+
+    /**
+     * Gets the z position of a bullet blended between the last two ticks
+     * @param i index of the bullet, less than {@link #getBulletCount()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getBulletZ(int i, double alpha) { return lerp(prevBullets[i * 3 + 2], bullets[i * 3 + 2], alpha); }
+
+    /**
+     * Gets the number of living enemies
+     * @return number of enemies
+     */
+    public int getEnemyCount() { return enemyCount; }
+
+    /**
+     * Gets the x position of an enemy blended between the last two ticks
+     * @param i index of the enemy, less than {@link #getEnemyCount()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return x position
+     */
+    public double getEnemyX(int i, double alpha) { return lerp(prevEnemies[i * 2], enemies[i * 2], alpha); }
+
+    /**
+     * Gets the y position of the enemies, this is the same for every enemy
+     * @return y position
+     */
+    public double getEnemyY() { return enemyY; }
+
+    /**
+     * Gets the z position of an enemy blended between the last two ticks
+     * @param i index of the enemy, less than {@link #getEnemyCount()}
+     * @param alpha how far between the previous tick (0) and the latest tick (1) to look
+     * @return z position
+     */
+    public double getEnemyZ(int i, double alpha) { return lerp(prevEnemies[i * 2 + 1], enemies[i * 2 + 1], alpha); }
+}
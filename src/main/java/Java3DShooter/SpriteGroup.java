@@ -0,0 +1,76 @@
+package Java3DShooter;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * A Group of interchangeable sprites that mirror the slots of a pool in the simulation (such as the EnemyPool or ProjectilePool)
+ * <p>
+ * The children of the group are always the first {@link #size()} sprites in order. When the number of living entities changes only the sprites
+ * at the end are added or removed, so the group only fires a change event when something spawned or died and the cost of that depends on how many
+ * entities changed rather than on how many are alive
+ * <p>
+ * Sprites that are removed are kept around and reused the next time the group grows
+ * @param <T> type of the sprites
+ */
+public class SpriteGroup<T extends Node> extends Group {
+
+    /**
+     * Creates new sprites when the group grows past every sprite made so far
+     */
+    private final Supplier<T> factory;
+
+    /**
+     * Every sprite ever made, the first {@link #shown} of these are the children of the group
+     */
+    private final ArrayList<T> sprites = new ArrayList<>();
+
+    /**
+     * Number of sprites currently in the group
+     */
+    private int shown = 0;
+
+    /**
+     * Creates an empty group
+     * @param factory creates a new sprite, only called when there are more entities than ever before
+     */
+    public SpriteGroup(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Gets the number of sprites currently in the group
+     * @return number of sprites
+     */
+    public int size() { return shown; }
+
+    /**
+     * Gets one of the sprites currently in the group
+     * @param i index of the sprite, less than {@link #size()}
+     * @return the sprite
+     */
+    public T get(int i) { return sprites.get(i); }
+
+    /**
+     * Adds or removes sprites from the end of the group so there are exactly count sprites showing
+     * <p>
+     * Does nothing to the group's children if the count hasn't changed since the last call
+     * @param count number of sprites that should be showing
+     */
+    public void resize(int count) {
+        if (count == shown) {return;}  // Nothing spawned or died
+
+        while (sprites.size() < count) {sprites.add(factory.get());}
+
+        if (count > shown) {
+            this.getChildren().addAll(sprites.subList(shown, count));
+        } else {
+            this.getChildren().remove(count, shown);
+        }
+
+        shown = count;
+    }
+}
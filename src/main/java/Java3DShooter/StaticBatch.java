@@ -0,0 +1,183 @@
+package Java3DShooter;
+
+import Java3DShooter.Level.Level;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Material;
+import javafx.scene.shape.CullFace;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.shape.VertexFormat;
+
+import java.util.List;
+
+/**
+ * Every static box of a level merged into one mesh per material in each {@link WorldChunk}, built along with the chunk by the {@link ChunkStreamer}
+ * <p>
+ * Props never move, so rather than a Box node each, every box in a chunk sharing a material has its 8 corners and 12 triangles written into one
+ * TriangleMesh (laid out the same way as a {@link CuboidBatch}, but each box keeps its own size). A chunk then holds one node, one transform, and one
+ * material per material its props use, however many props it has. A prop belongs to the chunk its center is in
+ * <p>
+ * Props centered off the edge of the arena aren't on any chunk and are meant to be seen from anywhere, like the default level's sun. They're merged
+ * the same way when the level is loaded and kept in this group, which stays in the scene
+ * <p>
+ * When the level is loaded the boxes are only sorted by chunk and material, the meshes themselves are built on the chunk loading thread and dropped
+ * with the chunk, so only the props near the player are ever in the scene or in memory as meshes
+ * <p>
+ * With no node per prop to read bounds back off, collisions never look at the batch. The level's obstacles are handed to the World, which keeps
+ * their bounding boxes in a {@link Java3DShooter.Simulation.StaticColliders} side table
+ */
+public class StaticBatch extends Group {
+
+    /**
+     * Number of floats making up the corners of one box in a mesh's points
+     */
+    private static final int POINTSPERBOX = CuboidBatch.CORNERS * 3;
+
+    /**
+     * Number of ints making up the triangles of one box in a mesh's faces, each triangle corner is a point, normal, and texcoord index
+     */
+    private static final int FACESPERBOX = CuboidBatch.TRIANGLES.length * 3;
+
+    /**
+     * The level the boxes are read from
+     */
+    private final Level level;
+
+    /**
+     * What each of the level's materials is drawn with, indexed the same as in the level
+     */
+    private final Material[] materials;
+
+    /**
+     * Number of chunks along the x axis
+     */
+    private final int columns;
+
+    /**
+     * Index of every box in the level, sorted by chunk and by material within each chunk
+     */
+    private final int[] boxes;
+
+    /**
+     * Where each run of boxes sharing a chunk and a material starts in {@link #boxes}, indexed by (row * columns + column) * materials + material.
+     * The boxes off the edge of the arena come after every chunk's as if they were one more chunk, and there's one more start at the end so every
+     * run's end is the next run's start
+     */
+    private final int[] runStart;
+
+    /**
+     * Number of runs with any boxes in them, which is how many meshes there'd be if every chunk was built
+     */
+    private final int meshCount;
+
+    /**
+     * Sorts a level's boxes into the chunks they'll be drawn with, and merges the ones off the edge of the arena
+     * @param level the level to read the boxes from
+     * @param materials what each of the level's materials is drawn with, indexed the same as in the level
+     * @param groundPlaneBoundingBox the bounding box of the whole arena's ground as defined by {{xMin, xMax}, {yMin, yMax}, {zMin, zMax}}
+     * @param chunkSize width and depth of a chunk, the same as the {@link ChunkStreamer}'s
+     */
+    public StaticBatch(Level level, Material[] materials, double[][] groundPlaneBoundingBox, double chunkSize) {
+        this.level = level;
+        this.materials = materials;
+
+        // Chunks laid out the same way as the ChunkStreamer's
+        double minX = groundPlaneBoundingBox[0][0], maxX = groundPlaneBoundingBox[0][1];
+        double minZ = groundPlaneBoundingBox[2][0], maxZ = groundPlaneBoundingBox[2][1];
+        this.columns = Math.max(1, (int) Math.ceil((maxX - minX) / chunkSize));
+        int rows = Math.max(1, (int) Math.ceil((maxZ - minZ) / chunkSize));
+
+        // Counting sort on the run each box belongs to, so the boxes of one chunk and material end up next to each other
+        int boxCount = level.getBoxCount();
+        int[] runs = new int[boxCount];
+        this.runStart = new int[(columns * rows + 1) * materials.length + 1];
+        for (int i = 0; i < boxCount; i++) {
+            float x = level.getBoxX(i), z = level.getBoxZ(i);
+            int chunk = columns * rows;
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                // Right on the far edge counts as the last chunk
+                int column = Math.min(columns - 1, (int) Math.floor((x - minX) / chunkSize));
+                int row = Math.min(rows - 1, (int) Math.floor((z - minZ) / chunkSize));
+                chunk = row * columns + column;
+            }
+            runs[i] = chunk * materials.length + level.getBoxMaterial(i);
+            runStart[runs[i] + 1]++;
+        }
+
+        int meshes = 0;
+        for (int run = 1; run < runStart.length; run++) {
+            if (runStart[run] > 0) {meshes++;}
+            runStart[run] += runStart[run - 1];
+        }
+        this.meshCount = meshes;
+
+        this.boxes = new int[boxCount];
+        int[] filled = new int[runStart.length - 1];
+        for (int i = 0; i < boxCount; i++) {
+            boxes[runStart[runs[i]] + filled[runs[i]]++] = i;
+        }
+
+        build(columns * rows, getChildren());
+    }
+
+    /**
+     * Builds the meshes of a chunk's props, one per material they use. Nothing here touches the scene, so this is fine on the chunk loading thread
+     * @param column column of the chunk in the arena
+     * @param row row of the chunk in the arena
+     * @param into list the meshes are added to, chunks without any props add nothing
+     */
+    public void build(int column, int row, List<Node> into) { build(row * columns + column, into); }
+
+    /**
+     * Builds the meshes of the boxes in one chunk, or the boxes off the edge of the arena if the chunk is one past the last
+     */
+    private void build(int chunk, List<Node> into) {
+        int firstRun = chunk * materials.length;
+        for (int m = 0; m < materials.length; m++) {
+            int start = runStart[firstRun + m];
+            int count = runStart[firstRun + m + 1] - start;
+            if (count == 0) {continue;}  // Materials only the ground or other chunks use don't get a mesh
+
+            float[] points = new float[count * POINTSPERBOX];
+            int[] faces = new int[count * FACESPERBOX];
+            for (int box = 0; box < count; box++) {
+                int i = boxes[start + box];
+                float x = level.getBoxX(i), y = level.getBoxY(i), z = level.getBoxZ(i);
+                float halfWidth = level.getBoxWidth(i) / 2, halfHeight = level.getBoxHeight(i) / 2, halfDepth = level.getBoxDepth(i) / 2;
+
+                // Corners numbered so bit 0 is +x, bit 1 is +y, and bit 2 is +z
+                int p = box * POINTSPERBOX;
+                for (int corner = 0; corner < CuboidBatch.CORNERS; corner++) {
+                    points[p++] = (corner & 1) == 0 ? x - halfWidth : x + halfWidth;
+                    points[p++] = (corner & 2) == 0 ? y - halfHeight : y + halfHeight;
+                    points[p++] = (corner & 4) == 0 ? z - halfDepth : z + halfDepth;
+                }
+
+                int f = box * FACESPERBOX;
+                for (int t = 0; t < CuboidBatch.TRIANGLES.length; t++) {
+                    faces[f++] = box * CuboidBatch.CORNERS + CuboidBatch.TRIANGLES[t];  // Point
+                    faces[f++] = t / 6;  // Normal, every 6 corners (2 triangles) is the next side
+                    faces[f++] = 0;  // Texcoord
+                }
+            }
+
+            TriangleMesh mesh = new TriangleMesh(VertexFormat.POINT_NORMAL_TEXCOORD);
+            mesh.getPoints().setAll(points);
+            mesh.getNormals().setAll(CuboidBatch.NORMALS);
+            mesh.getTexCoords().setAll(0, 0);
+            mesh.getFaces().setAll(faces);
+
+            MeshView view = new MeshView(mesh);
+            view.setMaterial(materials[m]);
+            view.setCullFace(CullFace.NONE);  // Same as CuboidBatch, boxes are closed so drawing both sides looks the same
+            into.add(view);
+        }
+    }
+
+    /**
+     * Gets the number of nodes the scenery is drawn with, one per material used by a box in each chunk and off the edge of the arena
+     * @return number of meshes, only the ones in chunks near the player and off the edge of the arena are in the scene at once
+     */
+    public int getMeshCount() { return meshCount; }
+}
@@ -0,0 +1,190 @@
+package Java3DShooter;
+
+/**
+ * Works out which entities the player's camera can actually see, so anything behind the player, off to the side, or too far away never reaches the renderer
+ * <p>
+ * Each frame {@link #update} is handed the camera's position and tilts as they're about to be drawn, then {@link #classify} is asked about each entity.
+ * Entities are tested as spheres around their center against the sides of the camera's view, so an entity only counts as out of view once no part of it
+ * could be on screen. Anything past the cull distance is out of view as well, and anything past the LOD (level of detail) distance is {@link Visibility#DISTANT}
+ * so it can be drawn with something cheaper
+ * <p>
+ * Every call to {@link #classify} is counted, {@link #getCullRatio()} gives how much of what was tested since the last update was culled
+ */
+public class ViewFrustum {
+
+    /**
+     * What an entity looks like from the camera
+     */
+    public enum Visibility {
+        /** Out of view or too far away, don't draw it */
+        CULLED,
+        /** In view and close enough to draw in full */
+        NEAR,
+        /** In view but past the LOD distance, draw it with something cheaper */
+        DISTANT
+    }
+
+    /**
+     * Vertical field of view of the camera in degrees
+     */
+    private final double fieldOfView;
+
+    /**
+     * Nearest distance the camera draws
+     */
+    private final double nearClip;
+
+    /**
+     * Distance past which nothing is drawn
+     */
+    private final double cullDistance;
+
+    /**
+     * Distance past which entities are {@link Visibility#DISTANT}, or infinity to always draw them in full
+     */
+    private double lodDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Position of the camera as of the last update
+     */
+    private double cameraX, cameraY, cameraZ;
+
+    /**
+     * Sines and cosines of the camera's tilts as of the last update
+     */
+    private double sinX = 0, cosX = 1, sinY = 0, cosY = 1;
+
+    /**
+     * Tangents of half the horizontal and vertical fields of view, how far out to the side the view reaches for every unit forward
+     */
+    private double tanHalfWidth, tanHalfHeight;
+
+    /**
+     * How much further to the side a sphere can reach per unit of radius and still touch the view, the secants of half the fields of view
+     */
+    private double secHalfWidth, secHalfHeight;
+
+    /**
+     * Number of entities tested and culled since the last update
+     */
+    private int tested = 0, culled = 0;
+
+    /**
+     * Number of entities found to be {@link Visibility#DISTANT} since the last update
+     */
+    private int distant = 0;
+
+    /**
+     * Creates a view frustum matching a camera
+     * @param fieldOfView vertical field of view of the camera in degrees
+     * @param nearClip nearest distance the camera draws
+     * @param cullDistance distance past which nothing is drawn, at most the camera's far clip
+     */
+    public ViewFrustum(double fieldOfView, double nearClip, double cullDistance) {
+        this.fieldOfView = fieldOfView;
+        this.nearClip = nearClip;
+        this.cullDistance = cullDistance;
+        update(0, 0, 0, 0, 0, 16.0 / 9);
+    }
+
+    /**
+     * Sets the distance past which entities are {@link Visibility#DISTANT}
+     * @param lodDistance distance, 0 or less to always draw entities in full
+     */
+    public void setLodDistance(double lodDistance) { this.lodDistance = lodDistance > 0 ? lodDistance : Double.POSITIVE_INFINITY; }
+
+    /**
+     * Moves the frustum to where the camera is about to be drawn and clears the counts. Call this once per frame before classifying anything
+     * @param x x position of the camera
+     * @param y y position of the camera
+     * @param z z position of the camera
+     * @param xTilt lateral angle of the camera in degrees
+     * @param yTilt vertical angle of the camera in degrees
+     * @param aspect width of the view divided by its height
+     */
+    public void update(double x, double y, double z, double xTilt, double yTilt, double aspect) {
+        cameraX = x;
+        cameraY = y;
+        cameraZ = z;
+
+        double xRadians = Math.toRadians(xTilt);
+        double yRadians = Math.toRadians(yTilt);
+        sinX = Math.sin(xRadians);
+        cosX = Math.cos(xRadians);
+        sinY = Math.sin(yRadians);
+        cosY = Math.cos(yRadians);
+
+        tanHalfHeight = Math.tan(Math.toRadians(fieldOfView) / 2);
+        tanHalfWidth = tanHalfHeight * aspect;
+        secHalfHeight = Math.sqrt(1 + tanHalfHeight * tanHalfHeight);
+        secHalfWidth = Math.sqrt(1 + tanHalfWidth * tanHalfWidth);
+
+        tested = 0;
+        culled = 0;
+        distant = 0;
+    }
+
+    /**
+     * Works out whether an entity is in view and how far away it is
+     * @param x x position of the entity's center
+     * @param y y position of the entity's center
+     * @param z z position of the entity's center
+     * @param radius radius of a sphere around the center that holds the whole entity
+     * @return how the entity should be drawn
+     */
+    public Visibility classify(double x, double y, double z, double radius) {
+        tested++;
+
+        // Turn the offset from the camera into the camera's own axes, undoing the camera's xTilt (about y) and then its yTilt (about x)
+        double dx = x - cameraX;
+        double dy = y - cameraY;
+        double dz = z - cameraZ;
+
+        double right = dx * cosX - dz * sinX;
+        double flatForward = dx * sinX + dz * cosX;
+        double down = dy * cosY + flatForward * sinY;
+        double forward = flatForward * cosY - dy * sinY;
+
+        double distanceSquared = dx * dx + dy * dy + dz * dz;
+        double reach = cullDistance + radius;
+
+        if (forward + radius < nearClip
+                || distanceSquared > reach * reach
+                || Math.abs(right) - radius * secHalfWidth > forward * tanHalfWidth
+                || Math.abs(down) - radius * secHalfHeight > forward * tanHalfHeight) {
+            culled++;
+            return Visibility.CULLED;
+        }
+
+        if (distanceSquared > lodDistance * lodDistance) {
+            distant++;
+            return Visibility.DISTANT;
+        }
+
+        return Visibility.NEAR;
+    }
+
+    /**
+     * Gets the number of entities tested since the last update
+     * @return number of entities
+     */
+    public int getTested() { return tested; }
+
+    /**
+     * Gets the number of entities culled since the last update
+     * @return number of entities
+     */
+    public int getCulled() { return culled; }
+
+    /**
+     * Gets the number of entities found to be {@link Visibility#DISTANT} since the last update
+     * @return number of entities
+     */
+    public int getDistant() { return distant; }
+
+    /**
+     * Gets how much of what was tested since the last update was culled
+     * @return culled entities over tested entities, 0 if nothing was tested
+     */
+    public double getCullRatio() { return tested == 0 ? 0 : (double) culled / tested; }
+}
@@ -0,0 +1,76 @@
+package Java3DShooter;
+
+import javafx.scene.Group;
+import javafx.scene.paint.Material;
+import javafx.scene.shape.Box;
+
+/**
+ * One square piece of the arena's ground along with the level's props on it
+ * <p>
+ * Chunks are built by the {@link ChunkStreamer} on its loading thread, which is fine since nothing is added to the scene until the chunk is handed
+ * back to the JavaFX thread. A chunk is a ground box plus one mesh per material its props use, merged by a {@link StaticBatch}
+ */
+public class WorldChunk extends Group {
+
+    /**
+     * Column and row of the chunk in the arena
+     */
+    private final int column, row;
+
+    /**
+     * Whether the chunk's ground and props were built, chunks the player moved away from before they were loaded are left empty
+     */
+    private boolean built = false;
+
+    /**
+     * Creates an empty chunk, call {@link #build} to fill it
+     * @param column column of the chunk in the arena, counting along x from the arena's minimum x
+     * @param row row of the chunk in the arena, counting along z from the arena's minimum z
+     */
+    public WorldChunk(int column, int row) {
+        this.column = column;
+        this.row = row;
+    }
+
+    /**
+     * Creates the chunk's ground and props. Only call this before the chunk is added to the scene
+     * @param minX minimum x coordinate of the chunk
+     * @param minZ minimum z coordinate of the chunk
+     * @param width width of the chunk, less than a full chunk at the arena's edge
+     * @param depth depth of the chunk, less than a full chunk at the arena's edge
+     * @param groundY y coordinate of the top of the ground
+     * @param groundHeight thickness of the ground
+     * @param groundMaterial what the ground is drawn with
+     * @param scenery the level's props, sorted into chunks laid out the same way as this one
+     */
+    public void build(double minX, double minZ, double width, double depth, double groundY, double groundHeight, Material groundMaterial,
+                      StaticBatch scenery) {
+        Box ground = new Box(width, groundHeight, depth);
+        ground.setMaterial(groundMaterial);
+        ground.setTranslateX(minX + width / 2);
+        ground.setTranslateY(groundY + groundHeight / 2);
+        ground.setTranslateZ(minZ + depth / 2);
+        getChildren().add(ground);
+        scenery.build(column, row, getChildren());
+
+        built = true;
+    }
+
+    /**
+     * Gets the column of the chunk in the arena
+     * @return column, counting along x
+     */
+    public int getColumn() { return column; }
+
+    /**
+     * Gets the row of the chunk in the arena
+     * @return row, counting along z
+     */
+    public int getRow() { return row; }
+
+    /**
+     * Returns whether the chunk's ground and props were built
+     * @return isBuilt?
+     */
+    public boolean isBuilt() { return built; }
+}
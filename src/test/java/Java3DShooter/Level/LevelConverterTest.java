@@ -0,0 +1,212 @@
+package Java3DShooter.Level;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks a level written as text comes back out of {@link Level} the same, and that broken levels are turned away by the converter or the loader
+ */
+class LevelConverterTest {
+
+    /**
+     * A small level using every kind of line
+     */
+    private static final String LEVEL = String.join("\n",
+            "# A comment, and a blank line after it",
+            "",
+            "material grass #008000",
+            "material shiny #FF000080 #FFFFFF 64",
+            "ground -1500 1500 0 10 -1000 1000 grass",
+            "box 0 -90 5 100 20 50 shiny obstacle",
+            "box 12.5 -3 -7 6 6 6 grass",
+            "spawnzone -1500 -1000 1500 -500",
+            "light ambient #FFFFFF",
+            "light point #404040 0 -500 25",
+            "");
+
+    /**
+     * Where each test writes its levels
+     */
+    @TempDir
+    Path dir;
+
+    /**
+     * Converts a text level and loads the result
+     */
+    private Level convert(String text) throws IOException {
+        Path file = dir.resolve("level.lvl");
+        LevelConverter.convert(new BufferedReader(new StringReader(text)), file);
+        return Level.load(file);
+    }
+
+    /**
+     * Everything written in the text is read back the same from the binary level
+     */
+    @Test
+    void roundTrip() throws IOException {
+        Level level = convert(LEVEL);
+
+        assertArrayEquals(new double[][] {{-1500, 1500}, {0, 10}, {-1000, 1000}}, level.getGroundBoundingBox());
+        assertEquals(0, level.getGroundMaterial());
+
+        assertEquals(2, level.getMaterialCount());
+        assertEquals(0xFF008000, level.getMaterialDiffuse(0));
+        assertEquals(0, level.getMaterialSpecular(0));
+        assertEquals(32, level.getMaterialSpecularPower(0));  // The same default as a new PhongMaterial
+        assertEquals(0x80FF0000, level.getMaterialDiffuse(1));
+        assertEquals(0xFFFFFFFF, level.getMaterialSpecular(1));
+        assertEquals(64, level.getMaterialSpecularPower(1));
+
+        assertEquals(2, level.getBoxCount());
+        assertEquals(0, level.getBoxX(0));
+        assertEquals(-90, level.getBoxY(0));
+        assertEquals(5, level.getBoxZ(0));
+        assertEquals(100, level.getBoxWidth(0));
+        assertEquals(20, level.getBoxHeight(0));
+        assertEquals(50, level.getBoxDepth(0));
+        assertEquals(1, level.getBoxMaterial(0));
+        assertTrue(level.isObstacle(0));
+        assertFalse(level.isObstacle(1));
+        assertEquals(12.5f, level.getBoxX(1));
+        assertArrayEquals(new double[][] {{-50, 50}, {-100, -80}, {-20, 30}}, level.getBoxBoundingBox(0));
+
+        assertEquals(1, level.getSpawnZoneCount());
+        assertArrayEquals(new double[] {-1500, -1000, 1500, -500}, level.getSpawnZone(0));
+
+        assertEquals(2, level.getLightCount());
+        assertEquals(Level.AMBIENT, level.getLightType(0));
+        assertEquals(0xFFFFFFFF, level.getLightColor(0));
+        assertEquals(Level.POINT, level.getLightType(1));
+        assertEquals(0xFF404040, level.getLightColor(1));
+        assertArrayEquals(new double[] {0, -500, 25}, level.getLightPosition(1));
+    }
+
+    /**
+     * The level shipped with the game converts and loads
+     */
+    @Test
+    void defaultLevelConverts() throws IOException {
+        Level level = convert(Files.readString(Path.of("levels/default.txt")));
+        assertTrue(level.getBoxCount() > 0);
+        assertTrue(level.getLightCount() > 0);
+    }
+
+    /**
+     * Text that isn't a valid level is turned away with the line it's on
+     */
+    @Test
+    void converterRejectsBadLines() {
+        String header = "material grass #008000\nground -1500 1500 0 10 -1000 1000 grass\n";
+
+        IOException e = assertThrows(IOException.class, () -> convert(header + "box 0 0 0 1 1 1 rock\n"));
+        assertTrue(e.getMessage().startsWith("line 3: "), e.getMessage());
+
+        assertThrows(IOException.class, () -> convert("material grass #008000\n"));  // No ground
+        assertThrows(IOException.class, () -> convert("material grass #008000\nground 1500 -1500 0 10 -1000 1000 grass\n"));  // Flipped
+        assertThrows(IOException.class, () -> convert("material grass #008000\nground -1500 1500 0 NaN -1000 1000 grass\n"));
+        assertThrows(IOException.class, () -> convert(header + "ground -1 1 0 1 -1 1 grass\n"));  // Two grounds
+        assertThrows(IOException.class, () -> convert(header + "material grass #FFFFFF\n"));  // Named twice
+        assertThrows(IOException.class, () -> convert(header + "material red #FF0000 #FFFFFF\n"));  // Specular with no power
+        assertThrows(IOException.class, () -> convert(header + "box 0 0 0 0 1 1 grass\n"));  // No size
+        assertThrows(IOException.class, () -> convert(header + "box 0 0 0 1 1 1 grass solid\n"));  // Unknown flag
+        assertThrows(IOException.class, () -> convert(header + "spawnzone 100 0 -100 50\n"));  // Flipped
+        assertThrows(IOException.class, () -> convert(header + "spawnzone 0 NaN 100 50\n"));
+        assertThrows(IOException.class, () -> convert(header + "light spot #FFFFFF 0 0 0\n"));
+        assertThrows(IOException.class, () -> convert(header + "light ambient FFFFFF\n"));  // No #
+        assertThrows(IOException.class, () -> convert(header + "cone 0 0 0\n"));
+    }
+
+    /**
+     * Writes a valid level with one spawn zone and one light into a buffer, for breaking by hand
+     */
+    private static ByteBuffer valid() {
+        ByteBuffer data = ByteBuffer.allocate(Level.HEADERBYTES + Level.MATERIALBYTES + Level.ZONEBYTES + Level.LIGHTBYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(Level.MAGIC).putInt(Level.VERSION).putInt(1).putInt(0).putInt(1).putInt(1).putInt(0);
+        data.putFloat(-100).putFloat(100).putFloat(0).putFloat(10).putFloat(-100).putFloat(100);
+        data.putInt(0xFF008000).putInt(0).putFloat(32);
+        data.putFloat(-50).putFloat(-50).putFloat(50).putFloat(50);
+        data.putInt(Level.AMBIENT).putInt(0xFFFFFFFF).putFloat(0).putFloat(0).putFloat(0);
+        return data.flip();
+    }
+
+    /**
+     * The loader takes what the converter writes but turns away files that were broken some other way
+     */
+    @Test
+    void loaderRejectsCorruptLevels() throws IOException {
+        new Level(valid());
+
+        ByteBuffer magic = valid();
+        magic.putInt(0, 0);
+        assertThrows(IOException.class, () -> new Level(magic));
+
+        ByteBuffer version = valid();
+        version.putInt(4, Level.VERSION + 1);
+        assertThrows(IOException.class, () -> new Level(version));
+
+        ByteBuffer truncated = valid().limit(Level.HEADERBYTES + 4).slice();
+        assertThrows(IOException.class, () -> new Level(truncated));
+
+        ByteBuffer count = valid();
+        count.putInt(12, 1 << 28);  // A box count that would overflow an int's worth of bytes
+        assertThrows(IOException.class, () -> new Level(count));
+
+        ByteBuffer ground = valid();
+        ground.putInt(24, 1);
+        assertThrows(IOException.class, () -> new Level(ground));
+    }
+
+    /**
+     * A ground with its minimum past its maximum on any axis, or NaN, is turned away when loading
+     */
+    @Test
+    void loaderRejectsBadGround() {
+        ByteBuffer flipped = valid();
+        flipped.putFloat(28, 200);  // xMin past xMax
+        assertThrows(IOException.class, () -> new Level(flipped));
+
+        ByteBuffer height = valid();
+        height.putFloat(40, -5);  // yMax under yMin
+        assertThrows(IOException.class, () -> new Level(height));
+
+        ByteBuffer nan = valid();
+        nan.putFloat(48, Float.NaN);
+        assertThrows(IOException.class, () -> new Level(nan));
+    }
+
+    /**
+     * Spawn zones with their minimum past their maximum, or NaN, and lights of a type that doesn't exist are turned away when loading
+     */
+    @Test
+    void loaderRejectsBadZonesAndLights() {
+        int zone = Level.HEADERBYTES + Level.MATERIALBYTES;
+        int light = zone + Level.ZONEBYTES;
+
+        ByteBuffer flipped = valid();
+        flipped.putFloat(zone, 60);
+        assertThrows(IOException.class, () -> new Level(flipped));
+
+        ByteBuffer nan = valid();
+        nan.putFloat(zone + 12, Float.NaN);
+        assertThrows(IOException.class, () -> new Level(nan));
+
+        ByteBuffer type = valid();
+        type.putInt(light, 7);
+        assertThrows(IOException.class, () -> new Level(type));
+    }
+}
@@ -0,0 +1,147 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the overlap tests between boxes, one against one and one against a packed array, and that {@link Collision#sweep} finds where a segment
+ * first enters a box, including paths that skip right over it
+ */
+class CollisionTest {
+
+    /**
+     * Boxes overlap when they overlap on every axis, touching counts, and being apart on any one axis doesn't
+     */
+    @Test
+    void isCollidingNeedsEveryAxis() {
+        assertTrue(Collision.isColliding(0, 0, 0, 5, 5, 5, 8, 8, 8, 5, 5, 5));
+        assertTrue(Collision.isColliding(0, 0, 0, 5, 5, 5, 10, 0, 0, 5, 5, 5));  // Touching faces
+        assertFalse(Collision.isColliding(0, 0, 0, 5, 5, 5, 10.01, 0, 0, 5, 5, 5));
+        assertFalse(Collision.isColliding(0, 0, 0, 5, 5, 5, 0, 11, 0, 5, 5, 5));
+        assertFalse(Collision.isColliding(0, 0, 0, 5, 5, 5, 0, 0, -11, 5, 5, 5));
+    }
+
+    /**
+     * A box fully inside another overlaps it, whichever one is asked about first
+     */
+    @Test
+    void isCollidingContained() {
+        assertTrue(Collision.isColliding(0, 0, 0, 50, 50, 50, 1, 2, 3, 1, 1, 1));
+        assertTrue(Collision.isColliding(1, 2, 3, 1, 1, 1, 0, 0, 0, 50, 50, 50));
+    }
+
+    /**
+     * Boxes are read back from a packed array where pack put them
+     */
+    @Test
+    void packLaysOutBoxes() {
+        double[] boxes = new double[2 * Collision.STRIDE];
+        Collision.pack(boxes, 1, 1, 2, 3, 4, 5, 6);
+        assertArrayEquals(new double[] {0, 0, 0, 0, 0, 0, 1, 2, 3, 4, 5, 6}, boxes);
+    }
+
+    /**
+     * Packs three boxes along x at 0, 20, and 40, each 10 wide
+     */
+    private static double[] row() {
+        double[] boxes = new double[3 * Collision.STRIDE];
+        for (int i = 0; i < 3; i++) {
+            Collision.pack(boxes, i, i * 20, 0, 0, 5, 5, 5);
+        }
+        return boxes;
+    }
+
+    /**
+     * firstColliding finds the lowest index that overlaps, and only looks at the first count boxes
+     */
+    @Test
+    void firstCollidingFindsLowestIndex() {
+        double[] boxes = row();
+        assertEquals(1, Collision.firstColliding(30, 0, 0, 6, 1, 1, boxes, 3));
+        assertEquals(2, Collision.firstColliding(40, 0, 0, 1, 1, 1, boxes, 3));
+        assertEquals(-1, Collision.firstColliding(40, 0, 0, 1, 1, 1, boxes, 2));
+        assertEquals(-1, Collision.firstColliding(0, 20, 0, 1, 1, 1, boxes, 3));
+    }
+
+    /**
+     * allColliding finds every overlapping box, and stops once its hits array is full
+     */
+    @Test
+    void allCollidingStopsWhenHitsFull() {
+        double[] boxes = row();
+        int[] hits = new int[3];
+        assertEquals(3, Collision.allColliding(20, 0, 0, 30, 1, 1, boxes, 3, hits));
+        assertArrayEquals(new int[] {0, 1, 2}, hits);
+
+        int[] one = new int[1];
+        assertEquals(1, Collision.allColliding(20, 0, 0, 30, 1, 1, boxes, 3, one));
+        assertEquals(0, one[0]);
+    }
+
+    /**
+     * A segment running straight through a box hits it where it crosses the near face, even though neither end is inside
+     */
+    @Test
+    void sweepHitsBoxPassedThrough() {
+        double time = Collision.sweep(-20, 0, 0, 20, 0, 0, 0, 0, 0, 5, 5, 5);
+        assertEquals(15.0 / 40, time, 1e-12);
+    }
+
+    /**
+     * The time is measured along the segment the way it moves, so going the other way enters through the other face
+     */
+    @Test
+    void sweepEntersFromDirectionOfTravel() {
+        double time = Collision.sweep(20, 0, 0, -20, 0, 0, 0, 0, 0, 5, 5, 5);
+        assertEquals(15.0 / 40, time, 1e-12);
+    }
+
+    /**
+     * Starting inside the box is a hit right away
+     */
+    @Test
+    void sweepStartingInsideHitsAtZero() {
+        assertEquals(0, Collision.sweep(1, 1, 1, 50, 1, 1, 0, 0, 0, 5, 5, 5));
+    }
+
+    /**
+     * Segments that pass beside the box, stop short of it, or run parallel outside it all miss
+     */
+    @Test
+    void sweepMisses() {
+        assertEquals(-1, Collision.sweep(-20, 6, 0, 20, 6, 0, 0, 0, 0, 5, 5, 5));  // Passes above
+        assertEquals(-1, Collision.sweep(-20, 0, 0, -6, 0, 0, 0, 0, 0, 5, 5, 5));  // Stops short
+        assertEquals(-1, Collision.sweep(-20, 0, 10, 20, 0, 10, 0, 0, 0, 5, 5, 5));  // Parallel to x outside the box
+    }
+
+    /**
+     * Like isColliding, a segment only grazing the edge of the box counts as a hit
+     */
+    @Test
+    void sweepTouchingEdgeHits() {
+        assertEquals(0.5, Collision.sweep(-15, 5, 0, 5, 5, 0, 0, 0, 0, 5, 5, 5), 1e-12);
+        assertEquals(1, Collision.sweep(-20, 0, 0, -5, 0, 0, 0, 0, 0, 5, 5, 5), 1e-12);
+    }
+
+    /**
+     * A diagonal path enters once it's inside the box on every axis, not the first time it's inside on one of them
+     */
+    @Test
+    void sweepDiagonalEntersOnLastAxis() {
+        // x reaches the box at t = 0.25, z only at t = 0.5
+        double time = Collision.sweep(-10, 0, -15, 10, 0, 5, 0, 0, 0, 5, 5, 5);
+        assertEquals(0.5, time, 1e-12);
+    }
+
+    /**
+     * A segment that only clips the corner region (inside on x at one time and on z at another, never both) misses
+     */
+    @Test
+    void sweepPassingCornerMisses() {
+        assertEquals(-1, Collision.sweep(-20, 0, 0, 0, 0, 20, 0, 0, 0, 5, 5, 5));
+    }
+}
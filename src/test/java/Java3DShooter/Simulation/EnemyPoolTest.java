@@ -0,0 +1,78 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link EnemyPool} drops its dead by swapping the last living enemy in, without losing or duplicating anyone else
+ */
+class EnemyPoolTest {
+
+    /**
+     * A 2000 by 2000 ground centered on the origin
+     */
+    private static final double[][] GROUND = {{-1000, 1000}, {0, 10}, {-1000, 1000}};
+
+    /**
+     * Gets the x positions of every enemy, sorted so the order the swaps leave them in doesn't matter
+     */
+    private static double[] xs(EnemyPool enemies) {
+        double[] xs = new double[enemies.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = enemies.getX(i);
+        }
+        Arrays.sort(xs);
+        return xs;
+    }
+
+    /**
+     * Killing the first, a middle, and the last enemy leaves exactly the others, with the last one moved into the first hole
+     */
+    @Test
+    void removeDeadSwapsLastIn() {
+        EnemyPool enemies = new EnemyPool(GROUND, 2);  // Small so spawning also has to grow the arrays
+        for (int i = 0; i < 6; i++) {
+            enemies.spawn(i * 100, 0);
+        }
+
+        enemies.takeDamage(0, 1);
+        enemies.takeDamage(2, 1);
+        enemies.takeDamage(5, 1);
+        assertTrue(enemies.isDead(0));
+        assertEquals(6, enemies.size());  // Dead enemies keep their slot until removeDead
+
+        enemies.removeDead();
+        assertEquals(3, enemies.size());
+        assertArrayEquals(new double[] {100, 300, 400}, xs(enemies));
+        assertEquals(400, enemies.getX(0));  // 5 was dead too, so the next living enemy from the end filled slot 0
+        for (int i = 0; i < enemies.size(); i++) {
+            assertFalse(enemies.isDead(i));
+        }
+    }
+
+    /**
+     * Runs of dead enemies at the end, and a pool that's all dead, are emptied without reading past the living ones
+     */
+    @Test
+    void removeDeadAllDead() {
+        EnemyPool enemies = new EnemyPool(GROUND, 4);
+        for (int i = 0; i < 4; i++) {
+            enemies.spawn(i, 0);
+            enemies.takeDamage(i, 1);
+        }
+
+        enemies.removeDead();
+        assertEquals(0, enemies.size());
+
+        enemies.spawn(7, 0);
+        assertEquals(1, enemies.size());
+        assertEquals(7, enemies.getX(0));
+        assertFalse(enemies.isDead(0));
+    }
+}
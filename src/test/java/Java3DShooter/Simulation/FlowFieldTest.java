@@ -0,0 +1,172 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the flow field only builds when it has to, leaves cells that can see the target alone, and leads hidden cells around obstacles
+ */
+class FlowFieldTest {
+
+    /**
+     * A 1000 by 1000 ground centered on the origin, 20 by 20 cells of 50
+     */
+    private static final double[][] GROUND = {{-500, 500}, {0, 10}, {-500, 500}};
+
+    /**
+     * Width and depth of each cell
+     */
+    private static final double CELLSIZE = 50;
+
+    /**
+     * A field with a wall along x through the middle of the ground, leaving a gap of 200 at each end
+     */
+    private static FlowField walled() {
+        FlowField field = new FlowField(GROUND, CELLSIZE);
+        field.addObstacle(-300, -10, 300, 10);
+        return field;
+    }
+
+    /**
+     * With nothing in the way the field is never built and every cell heads straight for the target
+     */
+    @Test
+    void noObstaclesNeverBuilds() {
+        FlowField field = new FlowField(GROUND, CELLSIZE);
+
+        assertFalse(field.update(0, -300));
+        assertFalse(field.update(200, 300));
+        assertEquals(0, field.getBuildCount());
+        assertFalse(field.hasDirection(field.cellOf(0, 300)));
+    }
+
+    /**
+     * The field is only rebuilt once the target moves into another cell or an obstacle is added
+     */
+    @Test
+    void rebuildsOnlyWhenTargetChangesCellOrObstacleAdded() {
+        FlowField field = walled();
+
+        assertTrue(field.update(0, -300));
+        assertFalse(field.update(10, -290));  // Same cell
+        assertTrue(field.update(60, -300));  // Next cell over
+        field.addObstacle(400, 400, 450, 450);
+        assertTrue(field.update(60, -300));
+        assertEquals(3, field.getBuildCount());
+    }
+
+    /**
+     * Cells on the target's side of the wall can see it and get no direction, cells behind the wall do
+     */
+    @Test
+    void onlyHiddenCellsGetDirections() {
+        FlowField field = walled();
+        field.update(0, -300);
+
+        assertFalse(field.hasDirection(field.cellOf(0, -300)));
+        assertFalse(field.hasDirection(field.cellOf(-450, -450)));
+        assertFalse(field.hasDirection(field.cellOf(400, -100)));
+        assertTrue(field.hasDirection(field.cellOf(0, 300)));
+        assertTrue(field.hasDirection(field.cellOf(200, 100)));
+    }
+
+    /**
+     * Following the directions from behind the wall leads around it, never into it, until the target is in sight
+     */
+    @Test
+    void directionsLeadAroundWall() {
+        FlowField field = walled();
+        field.update(0, -300);
+
+        double x = 25;
+        double z = 325;
+        int steps = 0;
+        while (field.hasDirection(field.cellOf(x, z))) {
+            int cell = field.cellOf(x, z);
+            x += field.getDirectionX(cell) * CELLSIZE;
+            z += field.getDirectionZ(cell) * CELLSIZE;
+
+            assertFalse(x > -300 && x < 300 && z > -10 && z < 10, "walked into the wall at " + x + ", " + z);
+            assertTrue(++steps < 100, "never came into sight of the target");
+        }
+
+        // Only the ends of the wall are open, so the path has to have gone around one of them
+        assertTrue(Math.abs(x) >= 250, "came into sight at " + x + ", " + z);
+    }
+
+    /**
+     * Directions are unit vectors
+     */
+    @Test
+    void directionsAreUnitLength() {
+        FlowField field = walled();
+        field.update(0, -300);
+
+        for (double z = 25; z < 500; z += CELLSIZE) {
+            for (double x = -475; x < 500; x += CELLSIZE) {
+                int cell = field.cellOf(x, z);
+                if (!field.hasDirection(cell)) {continue;}
+
+                double length = Math.hypot(field.getDirectionX(cell), field.getDirectionZ(cell));
+                assertEquals(1, length, 1e-12);
+            }
+        }
+    }
+
+    /**
+     * A player standing just outside the flag, close enough that their cell overlaps the flag once it's grown by half an enemy, is still walked
+     * around to rather than through the flag
+     */
+    @Test
+    void playerBesideObstacleIsWalkedAround() {
+        // The way World sets it up, cells of 20 and the flag grown by an enemy's half-size
+        FlowField field = new FlowField(new double[][] {{-1500, 1500}, {0, 10}, {-1500, 1500}}, 20);
+        field.addObstacle(-55, -55, 55, 55);
+        double targetX = 0, targetZ = -58;
+        field.update(targetX, targetZ);
+        assertFalse(field.hasDirection(field.cellOf(targetX, targetZ)));
+
+        double x = 0;
+        double z = 300;
+        int steps = 0;
+        while (field.hasDirection(field.cellOf(x, z))) {
+            int cell = field.cellOf(x, z);
+            x += field.getDirectionX(cell) * 20;
+            z += field.getDirectionZ(cell) * 20;
+
+            assertFalse(x > -50 && x < 50 && z > -50 && z < 50, "walked into the flag at " + x + ", " + z);
+            assertTrue(++steps < 100, "never came into sight of the player");
+        }
+
+        // From where the field lets go, heading straight for the player misses the flag
+        assertEquals(-1, Collision.sweep(x, 0, z, targetX, 0, targetZ, 0, 0, 0, 50, 1, 50), "left heading through the flag from " + x + ", " + z);
+    }
+
+    /**
+     * Cells inside an obstacle point the shortest way out of it, even ones with no open cell beside them
+     */
+    @Test
+    void blockedCellsLeadOutNearestWay() {
+        FlowField field = new FlowField(GROUND, CELLSIZE);
+        field.addObstacle(-300, -110, 300, 110);  // 5 rows deep and 13 columns wide
+        field.update(0, -400);
+
+        double x = 25;
+        double z = 25;
+        int steps = 0;
+        while (x > -350 && x < 350 && z > -150 && z < 150) {
+            int cell = field.cellOf(x, z);
+            assertTrue(field.hasDirection(cell), "no way out at " + x + ", " + z);
+            x += field.getDirectionX(cell) * CELLSIZE;
+            z += field.getDirectionZ(cell) * CELLSIZE;
+            steps++;
+        }
+
+        // Out through the top or bottom, 3 cells, not the far-away sides
+        assertEquals(3, steps);
+        assertTrue(Math.abs(x) < 300, "left through the side at " + x + ", " + z);
+    }
+}
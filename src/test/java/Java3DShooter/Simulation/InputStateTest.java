@@ -0,0 +1,130 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks key presses and releases are buffered between ticks, so each tick sees every one made since the tick before however quick, and that
+ * recordings keep them
+ */
+class InputStateTest {
+
+    /**
+     * Latches the input for the next tick and advances a tick's input with it
+     */
+    private static TickInput tick(InputState state, TickInput input) {
+        input.advance(state.latch());
+        return input;
+    }
+
+    /**
+     * A key pressed and released between two ticks is held for one tick, and both edges are seen
+     */
+    @Test
+    void tapBetweenTicksIsSeen() {
+        InputState state = new InputState();
+        TickInput input = new TickInput();
+        state.press(InputAction.SHOOT);
+        state.release(InputAction.SHOOT);
+
+        tick(state, input);
+        assertTrue(input.isHeld(InputAction.SHOOT));
+        assertTrue(input.wasPressed(InputAction.SHOOT));
+        assertTrue(input.wasReleased(InputAction.SHOOT));
+
+        tick(state, input);
+        assertFalse(input.isHeld(InputAction.SHOOT));
+        assertFalse(input.wasPressed(InputAction.SHOOT));
+        assertFalse(input.wasReleased(InputAction.SHOOT));
+    }
+
+    /**
+     * A held key let go and pressed again between two ticks is still held, but shows it was released and pressed rather than held the whole time
+     */
+    @Test
+    void releaseAndPressBetweenTicksIsSeen() {
+        InputState state = new InputState();
+        TickInput input = new TickInput();
+        state.press(InputAction.FORWARD);
+        tick(state, input);
+
+        state.release(InputAction.FORWARD);
+        state.press(InputAction.FORWARD);
+        tick(state, input);
+        assertTrue(input.isHeld(InputAction.FORWARD));
+        assertTrue(input.wasPressed(InputAction.FORWARD));
+        assertTrue(input.wasReleased(InputAction.FORWARD));
+    }
+
+    /**
+     * Key repeat while a key is held isn't another press, and releasing a key that isn't held isn't a release
+     */
+    @Test
+    void repeatsAreNotPresses() {
+        InputState state = new InputState();
+        TickInput input = new TickInput();
+        state.press(InputAction.FORWARD);
+        tick(state, input);
+
+        state.press(InputAction.FORWARD);
+        state.press(InputAction.FORWARD);
+        state.release(InputAction.SHOOT);
+        tick(state, input);
+        assertTrue(input.isHeld(InputAction.FORWARD));
+        assertFalse(input.wasPressed(InputAction.FORWARD));
+        assertFalse(input.wasReleased(InputAction.SHOOT));
+    }
+
+    /**
+     * Letting go of everything releases only the actions that were held
+     */
+    @Test
+    void releaseAllReleasesHeld() {
+        InputState state = new InputState();
+        TickInput input = new TickInput();
+        state.press(InputAction.FORWARD);
+        state.press(InputAction.LOOKLEFT);
+        tick(state, input);
+
+        state.releaseAll();
+        tick(state, input);
+        assertEquals(0, input.getHeld());
+        assertTrue(input.wasReleased(InputAction.FORWARD));
+        assertTrue(input.wasReleased(InputAction.LOOKLEFT));
+        assertFalse(input.wasReleased(InputAction.SHOOT));
+    }
+
+    /**
+     * Presses and releases are saved in a recording and read back the same
+     */
+    @Test
+    void recordingKeepsEdges(@TempDir Path dir) throws IOException {
+        InputRecording recording = new InputRecording(1, 60, new double[][] {{-100, 100}, {0, 10}, {-100, 100}}, 0, -10, 0);
+        long[] ticks = {
+                TickInput.pack(InputAction.FORWARD.bit(), InputAction.FORWARD.bit(), 0),
+                TickInput.pack(InputAction.FORWARD.bit(), 0, 0),
+                TickInput.pack(InputAction.FORWARD.bit(), 0, 0),
+                TickInput.pack(InputAction.SHOOT.bit(), InputAction.SHOOT.bit(), InputAction.FORWARD.bit() | InputAction.SHOOT.bit())
+        };
+        for (long actions : ticks) {
+            recording.record(actions);
+        }
+
+        Path file = dir.resolve("edges.rec");
+        recording.write(file);
+        InputRecording read = InputRecording.read(file);
+
+        assertEquals(3, read.getRunCount());
+        assertEquals(ticks[0], read.getRunActions(0));
+        assertEquals(ticks[1], read.getRunActions(1));
+        assertEquals(2, read.getRunLength(1));
+        assertEquals(ticks[3], read.getRunActions(2));
+    }
+}
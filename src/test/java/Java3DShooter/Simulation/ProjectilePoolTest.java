@@ -0,0 +1,86 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link ProjectilePool} culls killed bullets by swapping the last one in, without losing, duplicating, or skipping any other bullet
+ */
+class ProjectilePoolTest {
+
+    /**
+     * Gets the x positions of every bullet, sorted
+     */
+    private static double[] xs(ProjectilePool bullets) {
+        double[] xs = new double[bullets.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = bullets.getX(i);
+        }
+        Arrays.sort(xs);
+        return xs;
+    }
+
+    /**
+     * A killed bullet is culled on the next advance and the last bullet takes its slot, moved along with everyone else that tick
+     */
+    @Test
+    void killSwapsLastIn() {
+        ProjectilePool bullets = new ProjectilePool(8);
+        for (int i = 0; i < 5; i++) {
+            bullets.spawn(i * 100, 0, 0, 0, 0, 0);
+        }
+
+        bullets.kill(1);
+        bullets.kill(4);
+        assertEquals(5, bullets.size());  // Killed bullets keep their slot until the next advance
+
+        bullets.advance(1.0 / 60);
+        assertEquals(3, bullets.size());
+        assertArrayEquals(new double[] {0, 200, 300}, xs(bullets));
+        assertEquals(300, bullets.getX(1));
+    }
+
+    /**
+     * Bullets that were moved into a hole are moved that tick too, exactly once
+     */
+    @Test
+    void swappedInMovesOnce() {
+        ProjectilePool bullets = new ProjectilePool(4);
+        bullets.spawn(0, 0, 0, 1, 0, 0);
+        bullets.spawn(100, 0, 0, 1, 0, 0);
+        bullets.kill(0);
+
+        bullets.advance(1);
+        assertEquals(1, bullets.size());
+        double moved = bullets.getX(0) - 100;
+        assertTrue(moved > 0);
+
+        // A bullet that wasn't swapped moves the same distance
+        ProjectilePool single = new ProjectilePool(4);
+        single.spawn(100, 0, 0, 1, 0, 0);
+        single.advance(1);
+        assertEquals(single.getX(0) - 100, moved);
+    }
+
+    /**
+     * A full pool drops new shots, and culling frees their slots again
+     */
+    @Test
+    void fullPoolDropsShots() {
+        ProjectilePool bullets = new ProjectilePool(2);
+        assertTrue(bullets.spawn(0, 0, 0, 0, 0, 0));
+        assertTrue(bullets.spawn(1, 0, 0, 0, 0, 0));
+        assertFalse(bullets.spawn(2, 0, 0, 0, 0, 0));
+
+        bullets.kill(0);
+        bullets.advance(1.0 / 60);
+        assertTrue(bullets.spawn(3, 0, 0, 0, 0, 0));
+        assertEquals(2, bullets.size());
+    }
+}
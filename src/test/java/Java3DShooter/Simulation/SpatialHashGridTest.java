@@ -0,0 +1,145 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the grid finds the entities near an area or point, and that its results fit however many entities pile into one place
+ */
+class SpatialHashGridTest {
+
+    /**
+     * A 1000 by 1000 ground centered on the origin
+     */
+    private static final double[][] GROUND = {{-500, 500}, {0, 10}, {-500, 500}};
+
+    /**
+     * Gets the ids found by the last query, sorted so the grid's order doesn't matter
+     */
+    private static int[] results(SpatialHashGrid grid, int found) {
+        int[] ids = new int[found];
+        for (int i = 0; i < found; i++) {
+            ids[i] = grid.getResult(i);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * A query finds the entities in the cells under its area and none from cells further away
+     */
+    @Test
+    void queryFindsEntitiesInTouchedCells() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        grid.insert(0, 10, 10);
+        grid.insert(1, 60, 10);
+        grid.insert(2, 400, -400);
+        grid.build();
+
+        assertArrayEquals(new int[] {0}, results(grid, grid.query(0, 0, 40, 40)));
+        assertArrayEquals(new int[] {0, 1}, results(grid, grid.query(0, 0, 60, 40)));
+        assertArrayEquals(new int[] {}, results(grid, grid.query(-200, -200, -100, -100)));
+    }
+
+    /**
+     * Entities off the edge of the ground are clamped into the border cells, so queries out there still find them
+     */
+    @Test
+    void queryFindsEntitiesOutsideBoundingBox() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        grid.insert(7, 900, 900);
+        grid.build();
+
+        assertArrayEquals(new int[] {7}, results(grid, grid.query(880, 880, 920, 920)));
+    }
+
+    /**
+     * query has no cap, its results grow past their starting size when more entities than that are in one cell
+     */
+    @Test
+    void queryGrowsPastStartingCapacity() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        for (int i = 0; i < 1000; i++) {
+            grid.insert(i, 10, 10);
+        }
+        grid.build();
+
+        int[] expected = new int[1000];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, results(grid, grid.query(0, 0, 20, 20)));
+    }
+
+    /**
+     * With far more entities than a 16-bit hash can tell apart, every entity is still found in its own cell and no other
+     */
+    @Test
+    void largeGridFindsEveryEntity() {
+        SpatialHashGrid grid = new SpatialHashGrid(new double[][] {{0, 4000}, {0, 10}, {0, 4000}}, 10);
+        for (int row = 0; row < 400; row++) {
+            for (int column = 0; column < 400; column++) {
+                grid.insert(row * 400 + column, column * 10 + 5, row * 10 + 5);
+            }
+        }
+        grid.build();
+
+        for (int id = 0; id < 400 * 400; id += 97) {
+            double x = (id % 400) * 10 + 5;
+            double z = (id / 400) * 10 + 5;
+            assertArrayEquals(new int[] {id}, results(grid, grid.query(x - 1, z - 1, x + 1, z + 1)));
+        }
+    }
+
+    /**
+     * Clearing and rebuilding forgets the entities inserted before
+     */
+    @Test
+    void clearForgetsEntities() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        grid.insert(0, 10, 10);
+        grid.build();
+        grid.clear();
+        grid.insert(1, 10, 10);
+        grid.build();
+
+        assertEquals(1, grid.size());
+        assertArrayEquals(new int[] {1}, results(grid, grid.query(0, 0, 20, 20)));
+    }
+
+    /**
+     * queryWithin only finds entities closer than the radius, even ones in a cell it looks at
+     */
+    @Test
+    void queryWithinChecksDistance() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        grid.insert(0, 0, 0);
+        grid.insert(1, 10, 0);
+        grid.insert(2, 20, 0);  // Exactly on the radius, which doesn't count
+        grid.insert(3, 14, 14);
+        grid.build();
+
+        int[] found = new int[8];
+        int count = grid.queryWithin(0, 0, 20, found);
+        int[] ids = Arrays.copyOf(found, count);
+        Arrays.sort(ids);
+        assertArrayEquals(new int[] {0, 1, 3}, ids);
+    }
+
+    /**
+     * queryWithin stops once the results array is full rather than writing past it
+     */
+    @Test
+    void queryWithinStopsAtResultsCap() {
+        SpatialHashGrid grid = new SpatialHashGrid(GROUND, 50);
+        for (int i = 0; i < 100; i++) {
+            grid.insert(i, i * 0.1, 0);
+        }
+        grid.build();
+
+        int[] found = new int[8];
+        assertEquals(8, grid.queryWithin(0, 0, 50, found));
+    }
+}
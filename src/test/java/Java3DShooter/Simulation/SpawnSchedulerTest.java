@@ -0,0 +1,169 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which cells the scheduler picks enemies' spawns from, and that every enemy of a burst spawns
+ */
+class SpawnSchedulerTest {
+
+    /**
+     * A 2000 by 2000 ground centered on the origin, 20 by 20 cells of 100
+     */
+    private static final double[][] GROUND = {{-1000, 1000}, {0, 10}, {-1000, 1000}};
+
+    /**
+     * Width and depth of each spawn cell
+     */
+    private static final double CELLSIZE = 100;
+
+    /**
+     * Gets the cell an enemy is in, numbered the same way as the scheduler's cells
+     */
+    private static int cellOf(EnemyPool enemies, int i) {
+        int column = (int) Math.floor((enemies.getX(i) - GROUND[0][0]) / CELLSIZE);
+        int row = (int) Math.floor((enemies.getZ(i) - GROUND[2][0]) / CELLSIZE);
+        return row * 20 + column;
+    }
+
+    /**
+     * Every enemy spawns on the ground, far enough from the player, and in a cell of its own while there are free cells
+     */
+    @Test
+    void spawnsInSeparateCellsAwayFromPlayer() {
+        SpawnScheduler scheduler = new SpawnScheduler(GROUND, CELLSIZE);
+        EnemyPool enemies = new EnemyPool(GROUND, 16);
+
+        assertEquals(50, scheduler.spawn(enemies, 50, 0, 0, new Random(1)));
+        assertEquals(50, enemies.size());
+
+        Set<Integer> cells = new HashSet<>();
+        for (int i = 0; i < enemies.size(); i++) {
+            double x = enemies.getX(i);
+            double z = enemies.getZ(i);
+            assertTrue(x - EnemyPool.WIDTH / 2 >= -1000 && x + EnemyPool.WIDTH / 2 <= 1000, "off the ground at x " + x);
+            assertTrue(z - EnemyPool.DEPTH / 2 >= -1000 && z + EnemyPool.DEPTH / 2 <= 1000, "off the ground at z " + z);
+            assertTrue(Math.hypot(x, z) >= SpawnScheduler.MINSPAWNDISTANCE, "too close to the player at " + x + ", " + z);
+            assertTrue(cells.add(cellOf(enemies, i)), "two enemies in one cell");
+        }
+    }
+
+    /**
+     * Counts the cells from a column onwards whose nearest edge is at least the minimum spawn distance from the center of the ground
+     */
+    private static int farCells(int fromColumn) {
+        int far = 0;
+        for (int row = 0; row < 20; row++) {
+            for (int column = fromColumn; column < 20; column++) {
+                double cellMinX = -1000 + column * CELLSIZE;
+                double cellMinZ = -1000 + row * CELLSIZE;
+                double dx = Math.max(0, Math.max(cellMinX, -cellMinX - CELLSIZE));
+                double dz = Math.max(0, Math.max(cellMinZ, -cellMinZ - CELLSIZE));
+                if (dx * dx + dz * dz >= SpawnScheduler.MINSPAWNDISTANCE * SpawnScheduler.MINSPAWNDISTANCE) {far++;}
+            }
+        }
+        return far;
+    }
+
+    /**
+     * Cells too close to the player or already holding an enemy aren't candidates
+     */
+    @Test
+    void candidatesSkipNearAndOccupiedCells() {
+        SpawnScheduler scheduler = new SpawnScheduler(GROUND, CELLSIZE);
+        EnemyPool enemies = new EnemyPool(GROUND, 16);
+
+        scheduler.spawn(enemies, 5, 0, 0, new Random(1));
+        assertEquals(farCells(0), scheduler.getCandidateCount());
+
+        scheduler.spawn(enemies, 1, 0, 0, new Random(1));
+        assertEquals(farCells(0) - 5, scheduler.getCandidateCount());
+    }
+
+    /**
+     * Cells touching an obstacle aren't candidates, so nothing spawns in them
+     */
+    @Test
+    void candidatesSkipBlockedCells() {
+        SpawnScheduler scheduler = new SpawnScheduler(GROUND, CELLSIZE);
+        scheduler.addObstacle(-1000, -1000, -50, 1000);  // Touches the first 10 columns
+        EnemyPool enemies = new EnemyPool(GROUND, 16);
+
+        scheduler.spawn(enemies, 100, 0, 0, new Random(1));
+        assertEquals(farCells(10), scheduler.getCandidateCount());
+        for (int i = 0; i < enemies.size(); i++) {
+            assertTrue(enemies.getX(i) >= 0, "spawned in an obstacle at " + enemies.getX(i));
+        }
+    }
+
+    /**
+     * Once there's a spawn zone, only cells whose centers are in it are picked
+     */
+    @Test
+    void spawnZonesLimitCandidates() {
+        SpawnScheduler scheduler = new SpawnScheduler(GROUND, CELLSIZE);
+        scheduler.addSpawnZone(600, 600, 1000, 1000);
+        EnemyPool enemies = new EnemyPool(GROUND, 16);
+
+        scheduler.spawn(enemies, 10, 0, 0, new Random(1));
+        assertEquals(16, scheduler.getCandidateCount());
+        for (int i = 0; i < enemies.size(); i++) {
+            assertTrue(enemies.getX(i) >= 600 && enemies.getZ(i) >= 600, "outside the zone at " + enemies.getX(i) + ", " + enemies.getZ(i));
+        }
+    }
+
+    /**
+     * A burst bigger than the free cells reuses cells rather than dropping enemies
+     */
+    @Test
+    void burstLargerThanCandidatesStillSpawns() {
+        SpawnScheduler scheduler = new SpawnScheduler(GROUND, CELLSIZE);
+        scheduler.addSpawnZone(800, 800, 1000, 1000);
+        EnemyPool enemies = new EnemyPool(GROUND, 16);
+
+        assertEquals(9, scheduler.spawn(enemies, 9, 0, 0, new Random(1)));
+        assertEquals(4, scheduler.getCandidateCount());
+
+        // Every zone cell is full now, so the next burst shares them
+        assertEquals(3, scheduler.spawn(enemies, 3, 0, 0, new Random(2)));
+        assertEquals(12, enemies.size());
+    }
+
+    /**
+     * Nothing spawns if the player is too close to every cell
+     */
+    @Test
+    void nothingSpawnsWithPlayerNearEveryCell() {
+        double[][] small = {{-100, 100}, {0, 10}, {-100, 100}};
+        SpawnScheduler scheduler = new SpawnScheduler(small, CELLSIZE);
+        EnemyPool enemies = new EnemyPool(small, 16);
+
+        assertEquals(0, scheduler.spawn(enemies, 5, 0, 0, new Random(1)));
+        assertEquals(0, enemies.size());
+    }
+
+    /**
+     * The same seed spawns the same enemies in the same places
+     */
+    @Test
+    void sameSeedSameSpawns() {
+        EnemyPool a = new EnemyPool(GROUND, 16);
+        EnemyPool b = new EnemyPool(GROUND, 16);
+        new SpawnScheduler(GROUND, CELLSIZE).spawn(a, 30, 100, -200, new Random(42));
+        new SpawnScheduler(GROUND, CELLSIZE).spawn(b, 30, 100, -200, new Random(42));
+
+        for (int i = 0; i < 30; i++) {
+            assertEquals(a.getX(i), b.getX(i));
+            assertEquals(a.getZ(i), b.getZ(i));
+        }
+        assertFalse(a.getX(0) == a.getX(1) && a.getZ(0) == a.getZ(1));
+    }
+}
@@ -0,0 +1,95 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks sweeping through the side table finds the same first hit as sweeping against every collider, including big colliders centered far off
+ */
+class StaticCollidersTest {
+
+    /**
+     * A 2000 by 2000 ground centered on the origin
+     */
+    private static final double[][] GROUND = {{-1000, 1000}, {0, 10}, {-1000, 1000}};
+
+    /**
+     * A path that misses everything, or a table with nothing in it, never hits
+     */
+    @Test
+    void sweepMisses() {
+        StaticColliders colliders = new StaticColliders(GROUND, 100);
+        colliders.build();
+        assertEquals(-1, colliders.sweep(-500, 0, 0, 500, 0, 0, 1.5, 1.5, 1.5));
+
+        colliders.add(0, 0, 300, 10, 10, 10);
+        colliders.build();
+        assertEquals(-1, colliders.sweep(-500, 0, 0, 500, 0, 0, 1.5, 1.5, 1.5));
+        assertEquals(1, colliders.size());
+    }
+
+    /**
+     * The nearest collider along the path is hit, not whichever was added first, and the moving box's size counts
+     */
+    @Test
+    void sweepFindsNearestHit() {
+        StaticColliders colliders = new StaticColliders(GROUND, 100);
+        colliders.add(200, 0, 0, 10, 10, 10);
+        colliders.add(-200, 0, 0, 10, 10, 10);
+        colliders.build();
+
+        // From -500 heading +x, the near face of the box at -200 is at -210, and the bullet's front is 2 ahead of its center
+        assertEquals((-212.0 + 500) / 1000, colliders.sweep(-500, 0, 0, 500, 0, 0, 2, 2, 2), 1e-12);
+        assertEquals((500.0 - 212) / 1000, colliders.sweep(500, 0, 0, -500, 0, 0, 2, 2, 2), 1e-12);
+    }
+
+    /**
+     * A collider much wider than a cell, centered far from the path, is still found
+     */
+    @Test
+    void sweepFindsWideColliderCenteredFarAway() {
+        StaticColliders colliders = new StaticColliders(GROUND, 50);
+        colliders.add(-600, 0, 0, 700, 10, 10);  // Reaches from -1300 to 100
+        colliders.build();
+
+        assertEquals(90.0 / 200, colliders.sweep(50, 0, -100, 50, 0, 100, 0, 0, 0), 1e-12);
+    }
+
+    /**
+     * Random paths through random boxes hit where checking every box one by one says they do
+     */
+    @Test
+    void sweepMatchesBruteForce() {
+        Random rand = new Random(7);
+        StaticColliders colliders = new StaticColliders(GROUND, 100);
+        double[] boxes = new double[300 * Collision.STRIDE];
+        for (int i = 0; i < 300; i++) {
+            double x = rand.nextDouble() * 2400 - 1200;  // Some past the edges of the grid
+            double z = rand.nextDouble() * 2400 - 1200;
+            double halfWidth = 1 + rand.nextDouble() * 80;
+            double halfDepth = 1 + rand.nextDouble() * 80;
+            assertEquals(i, colliders.add(x, 0, z, halfWidth, 20, halfDepth));
+            Collision.pack(boxes, i, x, 0, z, halfWidth, 20, halfDepth);
+        }
+        colliders.build();
+
+        for (int path = 0; path < 2000; path++) {
+            double x0 = rand.nextDouble() * 2400 - 1200;
+            double z0 = rand.nextDouble() * 2400 - 1200;
+            double x1 = x0 + rand.nextDouble() * 400 - 200;
+            double z1 = z0 + rand.nextDouble() * 400 - 200;
+
+            double expected = -1;
+            for (int i = 0, o = 0; i < 300; i++, o += Collision.STRIDE) {
+                double time = Collision.sweep(x0, 0, z0, x1, 0, z1, boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3] + 1.5, boxes[o + 4] + 1.5,
+                        boxes[o + 5] + 1.5);
+                if (time >= 0 && (expected < 0 || time < expected)) {expected = time;}
+            }
+
+            assertEquals(expected, colliders.sweep(x0, 0, z0, x1, 0, z1, 1.5, 1.5, 1.5), "path " + path);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Java3DShooter.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the world ticks on its own with no JavaFX toolkit, and plays out the same way every time for the same seed and keys
+ */
+class WorldTest {
+
+    /**
+     * The default level's ground
+     */
+    private static final double[][] GROUND = {{-1500, 1500}, {0, 10}, {-1500, 1500}};
+
+    /**
+     * Ticks per second the game runs at
+     */
+    private static final double TICKSPERSECOND = 60;
+
+    /**
+     * Creates a world with the player where the game starts them and the flag in the middle
+     */
+    private static World world(long seed) {
+        World world = new World(GROUND, new PlayerState(0, -10, -200), TICKSPERSECOND, seed);
+        world.addObstacle(new double[][] {{-50, 50}, {-100, -80}, {-50, 50}});
+        return world;
+    }
+
+    /**
+     * Ticks a world with a fixed pattern of keys: walking, turning, and shooting in turn
+     */
+    private static void play(World world, int ticks) {
+        for (int tick = 0; tick < ticks; tick++) {
+            long held = 0;
+            if (tick % 240 < 120) {held |= InputAction.FORWARD.bit();}
+            if (tick % 300 < 40) {held |= InputAction.LOOKRIGHT.bit();}
+            if (tick % 90 < 30) {held |= InputAction.SHOOT.bit();}
+            world.tick(held);
+        }
+    }
+
+    /**
+     * Holding forward walks the player along their heading at their speed, with nothing else held
+     */
+    @Test
+    void forwardMovesPlayer() {
+        World world = world(1);
+        for (int tick = 0; tick < 60; tick++) {
+            world.tick(InputAction.FORWARD.bit());
+        }
+
+        PlayerState player = world.getPlayer();
+        assertEquals(0, player.getX(), 1e-9);
+        assertEquals(-10, player.getY(), 1e-9);
+        assertTrue(player.getZ() > -200, "didn't move forward: " + player.getZ());
+    }
+
+    /**
+     * Holding shoot fires bullets, which live in plain arrays the renderer only reads
+     */
+    @Test
+    void shootingFiresBullets() {
+        World world = world(1);
+        world.tick(InputAction.SHOOT.bit());
+        assertEquals(1, world.getPlayer().getBullets().size());
+    }
+
+    /**
+     * Enemies spawn once the first wave is due
+     */
+    @Test
+    void firstWaveSpawns() {
+        World world = world(1);
+        int ticks = (int) Math.ceil(WaveCurve.DEFAULT.interval() * TICKSPERSECOND) + 2;  // Summing the tick lengths can land just short of the interval
+        for (int tick = 0; tick < ticks; tick++) {
+            world.tick(0);
+        }
+
+        assertEquals(1, world.getSpawner().getWave());
+        assertEquals(WaveCurve.DEFAULT.count(0), world.getEnemies().size());
+    }
+
+    /**
+     * Two worlds with the same seed fed the same keys hash the same every tick, a different seed plays out differently
+     */
+    @Test
+    void sameSeedSameKeysSameHash() {
+        World a = world(1234);
+        World b = world(1234);
+        World c = world(4321);
+
+        for (int second = 0; second < 30; second++) {
+            play(a, 60);
+            play(b, 60);
+            play(c, 60);
+            assertEquals(a.stateHash(), b.stateHash(), "worlds split after " + second + " seconds");
+        }
+        assertNotEquals(a.stateHash(), c.stateHash());
+    }
+}